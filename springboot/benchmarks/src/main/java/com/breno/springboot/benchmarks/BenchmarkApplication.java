@@ -0,0 +1,37 @@
+package com.breno.springboot.benchmarks;
+
+import java.util.Arrays;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.breno.springboot.SpringbootApplication;
+
+/**
+ * Sobe a aplicação completa contra um H2 em memória, para benchmarks que precisam dos beans reais
+ * (repositórios, cadeia de filtros do Spring Security, serviços).
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String databaseName, String... extraArgs) {
+        // Argumentos de linha de comando têm precedência sobre o application.properties da aplicação
+        String[] args = {
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.properties.hibernate.auto_quote_keyword=true",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false" };
+        String[] allArgs = Arrays.copyOf(args, args.length + extraArgs.length);
+        System.arraycopy(extraArgs, 0, allArgs, args.length, extraArgs.length);
+        return new SpringApplicationBuilder(SpringbootApplication.class).run(allArgs);
+    }
+}
@@ -0,0 +1,89 @@
+package com.breno.springboot.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.breno.springboot.dtos.BulkItemResultDTO;
+import com.breno.springboot.dtos.ProductRecordDTO;
+import com.breno.springboot.models.ProductModel;
+import com.breno.springboot.repositories.ProductRepository;
+import com.breno.springboot.services.ProductBulkService;
+
+/**
+ * Vazão de cadastro por item: o caminho de POST /products (existsByName + save, um item por vez)
+ * contra o ProductBulkService (consulta de nomes em conjunto + inserts em batch). Resultado em µs por produto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BulkIngestBenchmark {
+
+    private static final int ITEMS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductBulkService productBulkService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start("bulk");
+        productRepository = context.getBean(ProductRepository.class);
+        productBulkService = context.getBean(ProductBulkService.class);
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Iteration)
+    public void clearTable() {
+        productRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private List<ProductRecordDTO> nextBatch() {
+        long base = sequence.getAndAdd(ITEMS);
+        List<ProductRecordDTO> records = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            records.add(new ProductRecordDTO("Product " + (base + i), BigDecimal.TEN));
+        }
+        return records;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public int singleItemPath() {
+        int created = 0;
+        for (ProductRecordDTO record : nextBatch()) {
+            if (!productRepository.existsByName(record.name())) {
+                ProductModel productModel = new ProductModel();
+                BeanUtils.copyProperties(record, productModel);
+                productRepository.save(productModel);
+                created++;
+            }
+        }
+        return created;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public List<BulkItemResultDTO> bulkPath() {
+        return productBulkService.ingest(nextBatch());
+    }
+}
@@ -0,0 +1,41 @@
+package com.breno.springboot.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.BeanUtils;
+
+import com.breno.springboot.dtos.ProductRecordDTO;
+import com.breno.springboot.models.ProductModel;
+
+/**
+ * BeanUtils.copyProperties (reflexão, como nos controllers) versus atribuição direta dos campos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MappingBenchmark {
+
+    private final ProductRecordDTO dto = new ProductRecordDTO("Notebook", new BigDecimal("1999.99"));
+
+    @Benchmark
+    public ProductModel beanUtilsCopyProperties() {
+        ProductModel productModel = new ProductModel();
+        BeanUtils.copyProperties(dto, productModel);
+        return productModel;
+    }
+
+    @Benchmark
+    public ProductModel directMapping() {
+        ProductModel productModel = new ProductModel();
+        productModel.setName(dto.name());
+        productModel.setValue(dto.value());
+        return productModel;
+    }
+}
@@ -0,0 +1,96 @@
+package com.breno.springboot.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.hateoas.Link;
+
+import com.breno.springboot.dtos.ProductPageDTO;
+import com.breno.springboot.dtos.ProductResponseDTO;
+import com.breno.springboot.models.ProductModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Custo de codificação e tamanho de uma página da listagem em cada formato aceito por GET /products:
+ * JSON, CBOR e Smile, com e sem gzip. Os tamanhos são impressos no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadFormatBenchmark {
+
+    @Param({ "500" })
+    int size;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new CBORMapper();
+    private final ObjectMapper smile = new SmileMapper();
+    private ProductPageDTO page;
+
+    @Setup
+    public void setup() throws Exception {
+        List<ProductResponseDTO> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UUID id = UUID.randomUUID();
+            ProductModel product = new ProductModel(id, String.format("Product %06d", i), BigDecimal.valueOf(100_00 + i, 2));
+            items.add(new ProductResponseDTO(product).add(Link.of("http://localhost:8080/products/" + id)));
+        }
+        page = new ProductPageDTO(items, "MDM1ZmZhNzItZDI5Yi00ZTg2LThkMDctNGUxMDBiM2JmYjBiOk1vdXNl");
+
+        System.out.printf("%nsize=%d json=%d cbor=%d smile=%d json+gzip=%d cbor+gzip=%d smile+gzip=%d bytes%n", size,
+                json().length, cbor().length, smile().length, jsonGzip().length, cborGzip().length, smileGzip().length);
+    }
+
+    @Benchmark
+    public byte[] json() throws Exception {
+        return json.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws Exception {
+        return cbor.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] smile() throws Exception {
+        return smile.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] jsonGzip() throws Exception {
+        return gzip(json.writeValueAsBytes(page));
+    }
+
+    @Benchmark
+    public byte[] cborGzip() throws Exception {
+        return gzip(cbor.writeValueAsBytes(page));
+    }
+
+    @Benchmark
+    public byte[] smileGzip() throws Exception {
+        return gzip(smile.writeValueAsBytes(page));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
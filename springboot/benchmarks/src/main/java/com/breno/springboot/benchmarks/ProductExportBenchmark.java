@@ -0,0 +1,97 @@
+package com.breno.springboot.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.breno.springboot.services.ProductExportFormat;
+import com.breno.springboot.services.ProductExportService;
+
+/**
+ * Exportação do catálogo inteiro (ProductExportService) contra o H2 embutido, com milhões de produtos.
+ * Os bytes são descartados, para medir leitura e codificação sem o disco. Uma exportação por medição;
+ * com -prof gc o JMH mostra a alocação, que deve crescer com as linhas mas sem reter memória entre elas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class ProductExportBenchmark {
+
+    @Param({ "1000000" })
+    int rows;
+
+    private ConfigurableApplicationContext context;
+    private ProductExportService productExportService;
+
+    // Conta os bytes e os descarta
+    private static final class DiscardingChannel implements WritableByteChannel {
+
+        long written;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int bytes = src.remaining();
+            src.position(src.limit());
+            written += bytes;
+            return bytes;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start("export");
+        productExportService = context.getBean(ProductExportService.class);
+        // Carga direto em SQL: salvar um milhão de entidades pelo JPA levaria mais que o próprio benchmark
+        context.getBean(JdbcTemplate.class).update("""
+                INSERT INTO tb_products (id_product, name, "value", version, revision, deleted, updated_at)
+                SELECT RANDOM_UUID(), 'Product ' || X, CAST(X AS DECIMAL(38, 2)) / 100, 0, 0, FALSE, CURRENT_TIMESTAMP
+                FROM SYSTEM_RANGE(1, ?)
+                """, rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long csv() {
+        DiscardingChannel channel = new DiscardingChannel();
+        productExportService.export(ProductExportFormat.CSV, channel);
+        return channel.written;
+    }
+
+    @Benchmark
+    public long columnar() {
+        DiscardingChannel channel = new DiscardingChannel();
+        productExportService.export(ProductExportFormat.COLUMNAR, channel);
+        return channel.written;
+    }
+}
@@ -0,0 +1,83 @@
+package com.breno.springboot.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.breno.springboot.controllers.ProductController;
+import com.breno.springboot.controllers.ProductModelAssembler;
+import com.breno.springboot.dtos.ProductResponseDTO;
+import com.breno.springboot.models.ProductModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Montagem e serialização de uma listagem de produtos com links HATEOAS: um linkTo(methodOn(...)) por item
+ * (como a listagem fazia antes) contra o ProductModelAssembler, que resolve a URI base uma vez por listagem.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductLinksBenchmark {
+
+    @Param({ "10000" })
+    int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProductModelAssembler assembler = new ProductModelAssembler();
+    private List<ProductModel> products;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // linkTo lê esquema, host e contexto da requisição corrente
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        request.setServerName("localhost");
+        request.setServerPort(8080);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(new ProductModel(UUID.randomUUID(), "Product " + i, BigDecimal.valueOf(100_00 + i, 2)));
+        }
+    }
+
+    @Benchmark
+    public List<ProductResponseDTO> linksPerItemMethodOn() {
+        List<ProductResponseDTO> models = new ArrayList<>(products.size());
+        for (ProductModel product : products) {
+            models.add(new ProductResponseDTO(product).add(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder
+                    .methodOn(ProductController.class).getOneProduct(product.getIdProduct(), null)).withSelfRel()));
+        }
+        return models;
+    }
+
+    @Benchmark
+    public List<ProductResponseDTO> linksFromAssembler() {
+        return assembler.toModels(products);
+    }
+
+    @Benchmark
+    public byte[] serializePerItemMethodOn() throws Exception {
+        return objectMapper.writeValueAsBytes(linksPerItemMethodOn());
+    }
+
+    @Benchmark
+    public byte[] serializeFromAssembler() throws Exception {
+        return objectMapper.writeValueAsBytes(linksFromAssembler());
+    }
+}
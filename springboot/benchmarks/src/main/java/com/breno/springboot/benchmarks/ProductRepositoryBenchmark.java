@@ -0,0 +1,97 @@
+package com.breno.springboot.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import com.breno.springboot.models.ProductModel;
+import com.breno.springboot.repositories.ProductRepository;
+
+/**
+ * Operações CRUD do ProductRepository contra o H2 embutido, com a tabela pré-carregada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductRepositoryBenchmark {
+
+    @Param({ "10000" })
+    int rows;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private List<UUID> ids;
+    private ProductModel middle;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start("repository");
+        productRepository = context.getBean(ProductRepository.class);
+
+        List<ProductModel> products = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            products.add(new ProductModel(null, String.format("Product %06d", i), BigDecimal.valueOf(i, 2)));
+        }
+        ids = productRepository.saveAll(products).stream().map(ProductModel::getIdProduct).toList();
+        middle = productRepository.findById(ids.get(rows / 2)).orElseThrow();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private UUID randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    @Benchmark
+    public Object findById() {
+        return productRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public boolean existsByName() {
+        return productRepository.existsByName("Product 005000");
+    }
+
+    @Benchmark
+    public List<ProductModel> firstPage() {
+        return productRepository.findFirstPage(Limit.of(50));
+    }
+
+    @Benchmark
+    public List<ProductModel> pageAfterCursor() {
+        return productRepository.findPageAfter(middle.getName(), middle.getIdProduct(), Limit.of(50));
+    }
+
+    @Benchmark
+    public ProductModel update() {
+        ProductModel product = productRepository.findById(randomId()).orElseThrow();
+        product.setValue(BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(100_000), 2));
+        return productRepository.save(product);
+    }
+
+    @Benchmark
+    public UUID insertAndDelete() {
+        ProductModel saved = productRepository.save(
+                new ProductModel(null, "Transient " + UUID.randomUUID(), BigDecimal.ONE));
+        productRepository.deleteById(saved.getIdProduct());
+        return saved.getIdProduct();
+    }
+}
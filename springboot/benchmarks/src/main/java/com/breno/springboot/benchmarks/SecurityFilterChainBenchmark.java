@@ -0,0 +1,83 @@
+package com.breno.springboot.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.FilterChainProxy;
+
+import com.breno.springboot.models.UserModel;
+import com.breno.springboot.models.UserRole;
+import com.breno.springboot.repositories.UserRepository;
+import com.breno.springboot.security.TokenService;
+
+/**
+ * Passagem de uma requisição autenticada por toda a cadeia do Spring Security configurada na aplicação
+ * (SecurityFilter, autorização por papel, etc.), sem o custo de HTTP nem do controller.
+ * Com tokenCacheTtl=0s toda requisição verifica o token: com stateless=false o usuário vem do banco (H2),
+ * com stateless=true das claims do token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SecurityFilterChainBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean stateless;
+
+    @Param({ "5m", "0s" })
+    public String tokenCacheTtl;
+
+    private ConfigurableApplicationContext context;
+    private FilterChainProxy filterChain;
+    private String authorizationHeader;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start("filterchain",
+                "--api.security.token.stateless.enabled=" + stateless,
+                "--api.security.token.cache.max-ttl=" + tokenCacheTtl,
+                // Sem limites de taxa e de concorrência, que recusariam parte das iterações
+                "--api.ratelimit.enabled=false",
+                "--api.load-shedding.enabled=false");
+        filterChain = context.getBean(FilterChainProxy.class);
+
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+        UserModel user = context.getBean(UserRepository.class)
+                .save(new UserModel("benchmark", passwordEncoder.encode("password"), UserRole.ADMIN));
+        authorizationHeader = "Bearer " + context.getBean(TokenService.class).generateToken(user);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int authenticatedGetProducts() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        request.addHeader("Authorization", authorizationHeader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filterChain.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int rejectedMissingToken() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filterChain.doFilter(new MockHttpServletRequest("GET", "/products"), response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
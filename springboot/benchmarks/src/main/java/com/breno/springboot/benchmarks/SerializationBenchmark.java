@@ -0,0 +1,82 @@
+package com.breno.springboot.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.HalConfiguration;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+
+import com.breno.springboot.dtos.ProductResponseDTO;
+import com.breno.springboot.dtos.ProductRowDTO;
+import com.breno.springboot.models.ProductModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serialização JSON de listas de produtos: representação com os links HATEOAS ("_links"), entidade sem links
+ * e a projeção ProductRowDTO usada no streaming.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({ "1", "100", "1000" })
+    int size;
+
+    private ObjectMapper halMapper;
+    private List<ProductResponseDTO> withLinks;
+    private List<ProductModel> withoutLinks;
+    private List<ProductRowDTO> rows;
+
+    @Setup
+    public void setup() {
+        halMapper = new ObjectMapper();
+        halMapper.registerModule(new Jackson2HalModule());
+        halMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new DefaultLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY,
+                new HalConfiguration(), new DefaultListableBeanFactory()));
+
+        withLinks = new ArrayList<>(size);
+        withoutLinks = new ArrayList<>(size);
+        rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UUID id = UUID.randomUUID();
+            BigDecimal value = BigDecimal.valueOf(100_00 + i, 2);
+            ProductModel product = new ProductModel(id, "Product " + i, value);
+            withLinks.add(new ProductResponseDTO(product).add(Link.of("http://localhost:8080/products/" + id)));
+            withoutLinks.add(product);
+            rows.add(new ProductRowDTO(id, "Product " + i, value));
+        }
+    }
+
+    @Benchmark
+    public byte[] representationsWithLinks() throws Exception {
+        return halMapper.writeValueAsBytes(withLinks);
+    }
+
+    @Benchmark
+    public byte[] entitiesWithoutLinks() throws Exception {
+        return halMapper.writeValueAsBytes(withoutLinks);
+    }
+
+    @Benchmark
+    public byte[] rowProjection() throws Exception {
+        return halMapper.writeValueAsBytes(rows);
+    }
+}
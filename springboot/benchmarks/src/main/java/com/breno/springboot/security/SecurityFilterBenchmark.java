@@ -0,0 +1,105 @@
+package com.breno.springboot.security;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.breno.springboot.dtos.AuthenticatedUserDTO;
+import com.breno.springboot.models.UserModel;
+import com.breno.springboot.models.UserRole;
+import com.breno.springboot.repositories.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Custo do SecurityFilter isolado: extração do token e o filtro completo com o cache de tokens
+ * acertando (token já visto) ou sempre falhando (verificação HMAC + busca do usuário a cada requisição).
+ * O repositório é um mock, então a diferença entre os dois não inclui a ida ao banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SecurityFilterBenchmark {
+
+    private SecurityFilter cachedFilter;
+    private SecurityFilter uncachedFilter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setup() {
+        TokenService tokenService = new TokenService();
+        ReflectionTestUtils.setField(tokenService, "secret", "benchmark-secret");
+        tokenService.meterRegistry = new SimpleMeterRegistry();
+        tokenService.init();
+
+        UserModel user = new UserModel("benchmark", "password", UserRole.ADMIN);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAuthenticatedUser("benchmark"))
+                .thenReturn(Optional.of(new AuthenticatedUserDTO(UUID.randomUUID(), "benchmark", UserRole.ADMIN)));
+
+        authorizationHeader = "Bearer " + tokenService.generateToken(user);
+        cachedFilter = newFilter(tokenService, userRepository, Duration.ofMinutes(5));
+        // TTL zero: toda entrada já nasce expirada, então o cache nunca acerta
+        uncachedFilter = newFilter(tokenService, userRepository, Duration.ZERO);
+    }
+
+    private static SecurityFilter newFilter(TokenService tokenService, UserRepository userRepository, Duration ttl) {
+        SecurityFilter filter = new SecurityFilter();
+        filter.tokenService = tokenService;
+        filter.userRepository = userRepository;
+        filter.tokenCache = new TokenAuthenticationCache(10_000, ttl, new SimpleMeterRegistry());
+        // Sem tokens revogados: a verificação consulta só a denylist e as versões em memória
+        filter.tokenRevocationService = new TokenRevocationService(Duration.ofMinutes(1), new SimpleMeterRegistry());
+        filter.tokenRevocationService.userRepository = userRepository;
+        filter.tokenRevocationService.tokenCache = filter.tokenCache;
+        filter.meterRegistry = new SimpleMeterRegistry();
+        filter.init();
+        return filter;
+    }
+
+    private MockHttpServletRequest productsRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        request.addHeader("Authorization", authorizationHeader);
+        return request;
+    }
+
+    @Benchmark
+    public String recoverToken() {
+        return cachedFilter.recoverToken(productsRequest());
+    }
+
+    @Benchmark
+    public Object filterWithCacheHit() throws Exception {
+        return runFilter(cachedFilter);
+    }
+
+    @Benchmark
+    public Object filterWithCacheMiss() throws Exception {
+        return runFilter(uncachedFilter);
+    }
+
+    private Object runFilter(SecurityFilter filter) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(productsRequest(), new MockHttpServletResponse(), chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
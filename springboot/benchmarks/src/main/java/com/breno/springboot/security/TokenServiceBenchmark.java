@@ -0,0 +1,47 @@
+package com.breno.springboot.security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.breno.springboot.models.UserModel;
+import com.breno.springboot.models.UserRole;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenServiceBenchmark {
+
+    private TokenService tokenService;
+    private UserModel user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenService = new TokenService();
+        ReflectionTestUtils.setField(tokenService, "secret", "benchmark-secret");
+        tokenService.meterRegistry = new SimpleMeterRegistry();
+        tokenService.init();
+        user = new UserModel("benchmark", "password", UserRole.USER);
+        token = tokenService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenService.generateToken(user);
+    }
+
+    @Benchmark
+    public String validateToken() {
+        return tokenService.validateToken(token);
+    }
+}
@@ -0,0 +1,54 @@
+package com.breno.springboot.services;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.breno.springboot.dtos.ProductRowDTO;
+
+// Latência de uma página (50 itens) do índice em memória usado pela busca fora do PostgreSQL
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductSearchIndexBenchmark {
+
+    private static final int PAGE = 51;
+
+    @Param({ "1000000" })
+    public int products;
+
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setup() {
+        index = new ProductSearchIndex();
+        for (int i = 0; i < products; i++) {
+            index.put(new ProductRowDTO(UUID.randomUUID(), "Product " + i, BigDecimal.valueOf(i % 10_000)));
+        }
+    }
+
+    @Benchmark
+    public List<ProductRowDTO> prefix() {
+        return index.search("product 4242", false, null, null, null, PAGE);
+    }
+
+    @Benchmark
+    public List<ProductRowDTO> prefixWithPriceRange() {
+        return index.search("product 4", false, new BigDecimal("100"), new BigDecimal("200"), null, PAGE);
+    }
+
+    @Benchmark
+    public List<ProductRowDTO> contains() {
+        return index.search("99999", true, null, null, null, PAGE);
+    }
+}
@@ -0,0 +1,186 @@
+package com.breno.springboot.loadtest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.breno.springboot.SpringbootApplication;
+import com.breno.springboot.models.ProductModel;
+import com.breno.springboot.models.UserModel;
+import com.breno.springboot.models.UserRole;
+import com.breno.springboot.repositories.ProductRepository;
+import com.breno.springboot.repositories.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Teste de carga offline: sobe a aplicação completa (Tomcat, Spring Security, JPA) contra um H2 em memória,
+ * carrega produtos e usuários pelos repositórios e gera o workload misto de LoadTestSettings pela API HTTP.
+ * Imprime vazão e percentis de latência por operação e termina com código 1 se houver erros acima do
+ * tolerado ou regressão em relação ao baseline.
+ */
+public final class LoadTest {
+
+    private static final String PASSWORD = "loadtest-password";
+    private static final int SEED_BATCH_SIZE = 500;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        boolean passed;
+        try (ConfigurableApplicationContext context = start(settings.appArgs())) {
+            passed = run(context, settings);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        // Sem limite de taxa nem de concorrência por padrão: as recusas (429/503) mediriam a política, não o
+        // código. Podem ser religados por loadtest.app-args
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.properties.hibernate.auto_quote_keyword", "true");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("api.ratelimit.enabled", "false");
+        properties.put("api.load-shedding.enabled", "false");
+        // Uma mesma propriedade repetida na linha de comando vira lista; os argumentos extras substituem
+        for (String arg : extraArgs) {
+            String[] keyValue = arg.replaceFirst("^--", "").split("=", 2);
+            properties.put(keyValue[0], keyValue.length > 1 ? keyValue[1] : "");
+        }
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(SpringbootApplication.class).run(args);
+    }
+
+    private static boolean run(ConfigurableApplicationContext context, LoadTestSettings settings)
+            throws IOException, InterruptedException {
+        List<String> logins = seedUsers(context, settings.users());
+        List<UUID> productIds = seedProducts(context, settings.products());
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        VirtualUser.ProductIds ids = new VirtualUser.ProductIds(productIds);
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        URI baseUri = URI.create("http://localhost:" + port);
+
+        System.out.printf("Load test: %d virtual users, %d products, %d users, mix %s, warmup %s, duration %s%n",
+                settings.concurrency(), settings.products(), settings.users(), settings.mix(), settings.warmup(),
+                settings.duration());
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>(settings.concurrency());
+        for (int i = 0; i < settings.concurrency(); i++) {
+            VirtualUser user = new VirtualUser(http, baseUri, objectMapper, logins.get(i % logins.size()), PASSWORD,
+                    settings.mix(), ids, stats, running::get);
+            Thread thread = new Thread(user, "loadtest-user-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+
+        Thread.sleep(settings.warmup().toMillis());
+        stats.values().forEach(OperationStats::reset);
+        long start = System.nanoTime();
+        Thread.sleep(settings.duration().toMillis());
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Map<Operation, LoadTestReport.OperationResult> results = new EnumMap<>(Operation.class);
+        settings.mix().keySet().forEach(operation -> results.put(operation, stats.get(operation).snapshot(seconds)));
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join(Duration.ofSeconds(30).toMillis());
+        }
+
+        double throughput = results.values().stream().mapToLong(LoadTestReport.OperationResult::count).sum() / seconds;
+        LoadTestReport report = new LoadTestReport(settings.concurrency(), seconds, settings.products(),
+                settings.users(), settings.mix().toString(), throughput, results);
+        Files.createDirectories(settings.result().toAbsolutePath().getParent());
+        objectMapper.writeValue(settings.result().toFile(), report);
+        System.out.println(report.toTable());
+        System.out.println("Result written to " + settings.result());
+
+        boolean passed = true;
+        List<String> errors = report.errorsAbove(settings.maxErrorPercent());
+        if (!errors.isEmpty()) {
+            System.out.println("FAILED: error rate above " + settings.maxErrorPercent() + "%");
+            errors.forEach(error -> System.out.println("  " + error));
+            passed = false;
+        }
+
+        if (settings.updateBaseline()) {
+            Files.copy(settings.result(), settings.baseline(), StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline updated: " + settings.baseline());
+        } else if (Files.exists(settings.baseline())) {
+            LoadTestReport baseline = objectMapper.readValue(settings.baseline().toFile(), LoadTestReport.class);
+            List<String> regressions = report.regressionsAgainst(baseline, settings.maxRegressionPercent());
+            if (regressions.isEmpty()) {
+                System.out.println("No regression above " + settings.maxRegressionPercent() + "% against "
+                        + settings.baseline());
+            } else {
+                System.out.println("FAILED: regression above " + settings.maxRegressionPercent() + "% against "
+                        + settings.baseline());
+                regressions.forEach(regression -> System.out.println("  " + regression));
+                passed = false;
+            }
+        } else {
+            System.out.println("No baseline at " + settings.baseline() + "; regression check skipped");
+        }
+        return passed;
+    }
+
+    // Todos ADMIN, para poderem gravar; a senha é a mesma e o hash é calculado uma vez só
+    private static List<String> seedUsers(ConfigurableApplicationContext context, int count) {
+        String encodedPassword = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<UserModel> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new UserModel("loadtest-" + i, encodedPassword, UserRole.ADMIN));
+        }
+        return context.getBean(UserRepository.class).saveAll(users).stream().map(UserModel::getLogin).toList();
+    }
+
+    private static List<UUID> seedProducts(ConfigurableApplicationContext context, int count) {
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        List<UUID> ids = new ArrayList<>(count);
+        for (int from = 0; from < count; from += SEED_BATCH_SIZE) {
+            List<ProductModel> batch = new ArrayList<>(SEED_BATCH_SIZE);
+            for (int i = from; i < Math.min(count, from + SEED_BATCH_SIZE); i++) {
+                batch.add(new ProductModel(null, String.format("Seed product %06d", i), BigDecimal.valueOf(i, 2)));
+            }
+            productRepository.saveAll(batch).forEach(product -> ids.add(product.getIdProduct()));
+        }
+        return ids;
+    }
+}
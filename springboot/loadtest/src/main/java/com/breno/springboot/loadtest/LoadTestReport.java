@@ -0,0 +1,97 @@
+package com.breno.springboot.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resultado de uma execução, gravado em JSON; o mesmo formato serve de baseline para as próximas.
+ * Latências em milissegundos, vazão em operações por segundo.
+ */
+public record LoadTestReport(
+        int concurrency,
+        double durationSeconds,
+        int products,
+        int users,
+        String mix,
+        double throughput,
+        Map<Operation, OperationResult> operations) {
+
+    // Operações com menos amostras que isso variam demais entre execuções para serem comparadas
+    private static final long MIN_SAMPLES = 100;
+
+    public record OperationResult(
+            long count,
+            long errors,
+            double throughput,
+            double p50,
+            double p90,
+            double p99,
+            double p999,
+            double max,
+            Map<String, Long> errorsByStatus) {
+
+        double errorPercent() {
+            long total = count + errors;
+            return total == 0 ? 0 : errors * 100.0 / total;
+        }
+    }
+
+    /**
+     * Piora em relação ao baseline acima de maxPercent: vazão total, e vazão e p99 de cada operação com
+     * amostras suficientes nos dois resultados.
+     */
+    public List<String> regressionsAgainst(LoadTestReport baseline, double maxPercent) {
+        List<String> regressions = new ArrayList<>();
+        if (concurrency != baseline.concurrency() || !mix.equals(baseline.mix())) {
+            regressions.add("baseline was recorded with another concurrency or mix; record it again");
+            return regressions;
+        }
+        double tolerance = maxPercent / 100;
+        if (throughput < baseline.throughput() * (1 - tolerance)) {
+            regressions.add(format("total throughput", throughput, baseline.throughput(), "ops/s"));
+        }
+        baseline.operations().forEach((operation, expected) -> {
+            OperationResult actual = operations.get(operation);
+            if (actual == null || actual.count() < MIN_SAMPLES || expected.count() < MIN_SAMPLES) {
+                return;
+            }
+            if (actual.throughput() < expected.throughput() * (1 - tolerance)) {
+                regressions.add(format(operation + " throughput", actual.throughput(), expected.throughput(), "ops/s"));
+            }
+            if (actual.p99() > expected.p99() * (1 + tolerance)) {
+                regressions.add(format(operation + " p99", actual.p99(), expected.p99(), "ms"));
+            }
+        });
+        return regressions;
+    }
+
+    public List<String> errorsAbove(double maxErrorPercent) {
+        List<String> violations = new ArrayList<>();
+        operations.forEach((operation, result) -> {
+            if (result.errorPercent() > maxErrorPercent) {
+                violations.add(String.format(Locale.ROOT, "%s: %.2f%% errors %s", operation, result.errorPercent(),
+                        result.errorsByStatus()));
+            }
+        });
+        return violations;
+    }
+
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT,
+                "%-8s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        operations.forEach((operation, result) -> table.append(String.format(Locale.ROOT,
+                "%-8s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                operation, result.count(), result.errors(), result.throughput(),
+                result.p50(), result.p90(), result.p99(), result.p999(), result.max())));
+        table.append(String.format(Locale.ROOT, "total throughput: %.1f ops/s (%d virtual users, %.0f s)",
+                throughput, concurrency, durationSeconds));
+        return table.toString();
+    }
+
+    private static String format(String metric, double actual, double expected, String unit) {
+        return String.format(Locale.ROOT, "%s: %.2f %s vs baseline %.2f %s", metric, actual, unit, expected, unit);
+    }
+}
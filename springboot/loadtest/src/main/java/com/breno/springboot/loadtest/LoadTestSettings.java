@@ -0,0 +1,78 @@
+package com.breno.springboot.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Parâmetros do teste de carga, lidos das propriedades de sistema (-Dloadtest.*).
+ * - products / users: quantidade carregada antes da carga (todos os usuários são ADMIN, para poder gravar)
+ * - concurrency: usuários virtuais, cada um com sua sessão (token reutilizado entre requisições)
+ * - warmup / duration: aquecimento descartado e janela medida
+ * - mix: pesos das operações, ex. "list:40,get:36,create:10,update:8,delete:5,login:1"
+ * - max-regression-percent: piora tolerada na vazão e no p99 de cada operação em relação ao baseline
+ * - max-error-percent: fração de respostas de erro tolerada por operação
+ * - update-baseline: grava o resultado como novo baseline em vez de comparar
+ * - app-args: argumentos extras para a aplicação (separados por espaço), ex. "--api.products.write-behind.enabled=true"
+ */
+public record LoadTestSettings(
+        int products,
+        int users,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        double maxRegressionPercent,
+        double maxErrorPercent,
+        boolean updateBaseline,
+        Path baseline,
+        Path result,
+        String[] appArgs) {
+
+    static final String DEFAULT_MIX = "list:40,get:36,create:10,update:8,delete:5,login:1";
+
+    public static LoadTestSettings fromSystemProperties() {
+        Path baseDir = Path.of(System.getProperty("loadtest.base-dir", "."));
+        String appArgs = System.getProperty("loadtest.app-args", "").trim();
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.products", 1000),
+                Integer.getInteger("loadtest.users", 10),
+                Integer.getInteger("loadtest.concurrency", 16),
+                duration(System.getProperty("loadtest.warmup", "10s")),
+                duration(System.getProperty("loadtest.duration", "30s")),
+                parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+                Double.parseDouble(System.getProperty("loadtest.max-regression-percent", "20")),
+                Double.parseDouble(System.getProperty("loadtest.max-error-percent", "1")),
+                Boolean.getBoolean("loadtest.update-baseline"),
+                baseDir.resolve(System.getProperty("loadtest.baseline", "baseline.json")),
+                baseDir.resolve(System.getProperty("loadtest.result", "target/loadtest-result.json")),
+                appArgs.isEmpty() ? new String[0] : appArgs.split("\\s+"));
+    }
+
+    // Aceita o formato das propriedades do Spring ("30s", "2m") além do ISO-8601 ("PT30S")
+    private static Duration duration(String value) {
+        if (value.startsWith("P") || value.startsWith("p")) {
+            return Duration.parse(value);
+        }
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no operation with a positive weight");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,11 @@
+package com.breno.springboot.loadtest;
+
+// Operações do workload misto, sorteadas pelos pesos de loadtest.mix
+public enum Operation {
+    LOGIN,
+    LIST,
+    GET,
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,59 @@
+package com.breno.springboot.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latências (só das respostas de sucesso) e erros de uma operação, gravados concorrentemente pelos usuários
+ * virtuais. reset() descarta o aquecimento; snapshot() fecha a janela medida.
+ */
+final class OperationStats {
+
+    // Até 1 minuto com 3 dígitos significativos, em microssegundos
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Recorder latencies = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    // Status HTTP de erro -> quantidade; 0 representa falha de conexão ou timeout
+    private final Map<Integer, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void recordSuccess(long elapsedNanos) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_TRACKABLE_MICROS));
+    }
+
+    void recordError(int status) {
+        errors.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    void reset() {
+        latencies.reset();
+        errors.clear();
+    }
+
+    LoadTestReport.OperationResult snapshot(double seconds) {
+        Histogram histogram = latencies.getIntervalHistogram();
+        Map<String, Long> errorsByStatus = new TreeMap<>();
+        errors.forEach((status, count) -> errorsByStatus.put(String.valueOf(status), count.sum()));
+        long errorCount = errorsByStatus.values().stream().mapToLong(Long::longValue).sum();
+        long count = histogram.getTotalCount();
+        return new LoadTestReport.OperationResult(
+                count,
+                errorCount,
+                count / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()),
+                errorsByStatus);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,233 @@
+package com.breno.springboot.loadtest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Um cliente da API: faz login uma vez e reutiliza o token em todas as requisições (renovando-o quando sorteia
+ * LOGIN), navega pelas páginas da listagem seguindo o nextCursor e grava, altera e remove produtos.
+ * Modelo fechado: a próxima requisição só sai depois da resposta da anterior.
+ */
+final class VirtualUser implements Runnable {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int PAGE_SIZE = 20;
+
+    private final HttpClient http;
+    private final URI baseUri;
+    private final ObjectMapper objectMapper;
+    private final String login;
+    private final String password;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final ProductIds productIds;
+    private final Map<Operation, OperationStats> stats;
+    private final BooleanSupplier running;
+
+    private String authorization;
+    private String nextCursor;
+
+    VirtualUser(HttpClient http, URI baseUri, ObjectMapper objectMapper, String login, String password,
+            Map<Operation, Integer> mix, ProductIds productIds, Map<Operation, OperationStats> stats,
+            BooleanSupplier running) {
+        this.http = http;
+        this.baseUri = baseUri;
+        this.objectMapper = objectMapper;
+        this.login = login;
+        this.password = password;
+        this.operations = mix.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.productIds = productIds;
+        this.stats = stats;
+        this.running = running;
+    }
+
+    @Override
+    public void run() {
+        try {
+            execute(Operation.LOGIN);
+            if (authorization == null) {
+                throw new IllegalStateException("Initial login failed for " + login);
+            }
+            while (running.getAsBoolean()) {
+                execute(nextOperation());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Operation nextOperation() {
+        int draw = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(Operation operation) throws InterruptedException {
+        UUID productId = switch (operation) {
+            case GET, UPDATE -> productIds.random();
+            // Sai do conjunto antes da requisição, para nenhum outro usuário sortear o produto removido
+            case DELETE -> productIds.take();
+            default -> null;
+        };
+        if (productId == null && (operation == Operation.GET || operation == Operation.UPDATE
+                || operation == Operation.DELETE)) {
+            return;
+        }
+
+        HttpRequest request = request(operation, productId);
+        OperationStats operationStats = stats.get(operation);
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            operationStats.recordError(0);
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (response.statusCode() / 100 != 2) {
+            operationStats.recordError(response.statusCode());
+            if (operation == Operation.DELETE && response.statusCode() != 404) {
+                productIds.add(productId);
+            }
+            return;
+        }
+        operationStats.recordSuccess(elapsed);
+        onSuccess(operation, response.body());
+    }
+
+    private HttpRequest request(Operation operation, UUID productId) {
+        return switch (operation) {
+            case LOGIN -> json("/auth/login")
+                    .POST(body(Map.of("login", login, "password", password)))
+                    .build();
+            case LIST -> authorized("/products?size=" + PAGE_SIZE
+                    + (nextCursor != null ? "&cursor=" + URLEncoder.encode(nextCursor, StandardCharsets.UTF_8) : ""))
+                    .GET()
+                    .build();
+            case GET -> authorized("/products/" + productId).GET().build();
+            case CREATE -> json("/products").header("Authorization", authorization)
+                    .POST(body(randomProduct()))
+                    .build();
+            case UPDATE -> json("/products/" + productId).header("Authorization", authorization)
+                    .PUT(body(randomProduct()))
+                    .build();
+            case DELETE -> authorized("/products/" + productId).DELETE().build();
+        };
+    }
+
+    private void onSuccess(Operation operation, String body) {
+        switch (operation) {
+            case LOGIN -> authorization = "Bearer " + readTree(body).path("token").asText();
+            // Segue as páginas até o fim e recomeça do início
+            case LIST -> {
+                JsonNode cursor = body.isEmpty() ? null : readTree(body).get("nextCursor");
+                nextCursor = cursor == null || cursor.isNull() ? null : cursor.asText();
+            }
+            case CREATE -> {
+                JsonNode id = readTree(body).path("data").path("idProduct");
+                if (id.isTextual()) {
+                    productIds.add(UUID.fromString(id.asText()));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json")
+                .header("Authorization", authorization);
+    }
+
+    private HttpRequest.Builder json(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json");
+    }
+
+    private static Map<String, Object> randomProduct() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return Map.of("name", "Load test " + UUID.randomUUID(),
+                "value", BigDecimal.valueOf(random.nextLong(100, 1_000_000), 2));
+    }
+
+    private HttpRequest.BodyPublisher body(Object value) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(value));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonNode readTree(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected response body: " + body, e);
+        }
+    }
+
+    /**
+     * IDs dos produtos existentes, compartilhados pelos usuários virtuais. Uma trava simples basta: o custo é
+     * desprezível perto de uma requisição HTTP.
+     */
+    static final class ProductIds {
+
+        private final List<UUID> ids;
+
+        ProductIds(List<UUID> initial) {
+            this.ids = new ArrayList<>(initial);
+        }
+
+        synchronized UUID random() {
+            return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+
+        // Remove trocando pelo último, sem deslocar a lista
+        synchronized UUID take() {
+            if (ids.isEmpty()) {
+                return null;
+            }
+            int index = ThreadLocalRandom.current().nextInt(ids.size());
+            UUID id = ids.get(index);
+            ids.set(index, ids.get(ids.size() - 1));
+            ids.remove(ids.size() - 1);
+            return id;
+        }
+
+        synchronized void add(UUID id) {
+            ids.add(id);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.breno.springboot.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Leituras que precisam ver o estado mais recente do banco mesmo com réplicas de leitura
+ * (api.datasource.replicas.enabled): verificações que antecedem uma gravação, cargas do cache de produtos e
+ * leituras que dependem de algo já confirmado no primário. Sem réplicas, onPrimary só executa a leitura.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUESTED = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /**
+     * Executa a leitura com as conexões de transações somente leitura vindas do primário. A escolha acontece
+     * no primeiro comando SQL (LazyConnectionDataSourceProxy), então vale também para uma transação já aberta
+     * que ainda não usou o banco.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (Boolean.TRUE.equals(PRIMARY_REQUESTED.get())) {
+            return read.get();
+        }
+        PRIMARY_REQUESTED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_REQUESTED.remove();
+        }
+    }
+
+    static boolean isPrimaryRequested() {
+        return Boolean.TRUE.equals(PRIMARY_REQUESTED.get());
+    }
+}
@@ -0,0 +1,84 @@
+package com.breno.springboot.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Ativada com api.datasource.replicas.enabled=true: substitui o DataSource do Spring Boot por um
+ * ReplicaRoutingDataSource com o primário (spring.datasource.*) e uma réplica por URL de
+ * api.datasource.replicas.urls. As réplicas usam o mesmo usuário, senha, driver e configurações do Hikari do
+ * primário, com conexões somente leitura.
+ */
+@Configuration
+@ConditionalOnProperty(name = "api.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingConfig.class);
+
+    @Bean(destroyMethod = "close")
+    ReplicaRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+            MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : environment.getProperty("api.datasource.replicas.urls", String[].class, new String[0])) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .driverClassName(properties.determineDriverClassName())
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setReadOnly(true);
+            // A aplicação sobe mesmo com a réplica fora do ar; as leituras ficam no primário até ela responder
+            replica.setInitializationFailTimeout(-1);
+            replica.setConnectionTimeout(environment.getProperty("api.datasource.replicas.connection-timeout",
+                    Duration.class, Duration.ofSeconds(1)).toMillis());
+            // As métricas hikaricp.* do Spring Boot só cobrem o pool do DataSource principal
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        if (replicas.isEmpty()) {
+            logger.warn("api.datasource.replicas.enabled is set but api.datasource.replicas.urls is empty; "
+                    + "every read goes to the primary");
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas,
+                environment.getProperty("api.datasource.replicas.max-lag", Duration.class, Duration.ofSeconds(5)),
+                environment.getProperty("api.datasource.replicas.check-interval", Duration.class,
+                        Duration.ofSeconds(1)),
+                environment.getProperty("api.datasource.replicas.read-your-writes", Duration.class,
+                        Duration.ofSeconds(5)),
+                environment.getProperty("api.datasource.replicas.lag-query"),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,300 @@
+package com.breno.springboot.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * DataSource da aplicação com réplicas de leitura. As transações somente leitura (@Transactional(readOnly = true),
+ * que inclui as consultas dos repositórios do Spring Data) usam uma réplica; as demais, o primário.
+ * A conexão só é obtida no primeiro comando SQL (LazyConnectionDataSourceProxy), quando a transação já foi
+ * marcada como somente leitura.
+ * Uma leitura vai para o primário quando:
+ * - foi pedida com ReadRouting.onPrimary;
+ * - o usuário autenticado confirmou uma gravação há menos de readYourWrites (lê as próprias gravações);
+ * - nenhuma réplica está disponível: todas fora do ar ou com atraso acima de maxLag, medido a cada checkInterval.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // Atraso de replicação no PostgreSQL, em ms; zero no primário ou quando tudo o que chegou já foi aplicado
+    // (sem isso um primário ocioso faria a réplica parecer cada vez mais atrasada)
+    static final String POSTGRES_LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END
+            """;
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    // Login -> gravação confirmada recentemente; a entrada expira junto com a janela de leitura das próprias gravações
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService lagChecker;
+    private final Counter replicaReads;
+    private final Counter requestedPrimaryReads;
+    private final Counter recentWritePrimaryReads;
+    private final Counter noReplicaPrimaryReads;
+
+    /**
+     * @param lagQuery consulta que devolve o atraso da réplica em ms; null para detectar pelo banco (PostgreSQL) ou,
+     *                 nos demais, só verificar a conexão e considerar atraso zero.
+     */
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, Duration maxLag,
+            Duration checkInterval, Duration readYourWrites, String lagQuery, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagQuery = lagQuery;
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(readYourWrites).build();
+        setTargetDataSource(new WriteTrackingDataSource(primary));
+        setReadOnlyDataSource(new ReadDataSource());
+
+        for (Replica replica : this.replicas) {
+            Gauge.builder("db.replica.lag", replica, r -> r.lagMillis < 0 ? Double.NaN : r.lagMillis)
+                    .description("Replication lag of a read replica (NaN while unreachable)")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+        this.replicaReads = routedReads(meterRegistry, "replica", "replica");
+        this.requestedPrimaryReads = routedReads(meterRegistry, "primary", "requested");
+        this.recentWritePrimaryReads = routedReads(meterRegistry, "primary", "recent_write");
+        this.noReplicaPrimaryReads = routedReads(meterRegistry, "primary", "no_replica");
+
+        this.lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!this.replicas.isEmpty()) {
+            lagChecker.scheduleWithFixedDelay(this::checkReplicas, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // "db.reads.routed": conexões de transações somente leitura, por destino e motivo
+    private static Counter routedReads(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("db.reads.routed")
+                .description("Read-only transactions by the database they were routed to")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            replica.check();
+        }
+    }
+
+    @Override
+    public void close() {
+        lagChecker.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    // Usuário da requisição atual; leituras sem usuário (login, tarefas em segundo plano) não têm sessão a acompanhar
+    private static String currentSession() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * Lado de escrita (transações que não são somente leitura): guarda o usuário quando a transação é confirmada,
+     * para as leituras seguintes dele irem ao primário.
+     */
+    private final class WriteTrackingDataSource extends DelegatingDataSource {
+
+        WriteTrackingDataSource(DataSource primary) {
+            super(primary);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            trackWrite();
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            trackWrite();
+            return super.getConnection(username, password);
+        }
+
+        private void trackWrite() {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()
+                    || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return;
+            }
+            String session = currentSession();
+            if (session == null) {
+                return;
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_COMMITTED) {
+                            recentWriters.put(session, Boolean.TRUE);
+                        }
+                    }
+                });
+            } else {
+                recentWriters.put(session, Boolean.TRUE);
+            }
+        }
+    }
+
+    // Lado de leitura (transações somente leitura): escolhe a réplica ou cai para o primário
+    private final class ReadDataSource extends DelegatingDataSource {
+
+        ReadDataSource() {
+            super(primary);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (ReadRouting.isPrimaryRequested()) {
+                requestedPrimaryReads.increment();
+                return primary.getConnection();
+            }
+            String session = currentSession();
+            if (session != null && recentWriters.getIfPresent(session) != null) {
+                recentWritePrimaryReads.increment();
+                return primary.getConnection();
+            }
+            Replica replica = nextAvailableReplica();
+            if (replica != null) {
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replicaReads.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    // Fora de rotação até a próxima verificação responder
+                    replica.markUnavailable(e);
+                }
+            }
+            noReplicaPrimaryReads.increment();
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+        // Rodízio entre as réplicas disponíveis
+        private Replica nextAvailableReplica() {
+            int size = replicas.size();
+            if (size == 0) {
+                return null;
+            }
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (replica.available) {
+                    return replica;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final class Replica {
+
+        final HikariDataSource dataSource;
+        // Só entra em rotação depois da primeira verificação
+        volatile boolean available;
+        // -1 enquanto inacessível
+        volatile long lagMillis = -1;
+        private String resolvedLagQuery;
+        private boolean lagQueryResolved;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        String name() {
+            return dataSource.getPoolName();
+        }
+
+        void check() {
+            try (Connection connection = dataSource.getConnection()) {
+                long lag = measureLag(connection);
+                if (lag > maxLagMillis && (available || lagMillis < 0)) {
+                    logger.warn("Replica {} is {} ms behind the primary; reading from the primary", name(), lag);
+                } else if (lag <= maxLagMillis && !available) {
+                    logger.info("Replica {} is available ({} ms behind)", name(), lag);
+                }
+                lagMillis = lag;
+                available = lag <= maxLagMillis;
+            } catch (SQLException | RuntimeException e) {
+                markUnavailable(e);
+            }
+        }
+
+        void markUnavailable(Exception cause) {
+            if (available || lagMillis >= 0) {
+                logger.warn("Replica {} is unreachable; reading from the primary: {}", name(), cause.getMessage());
+            }
+            available = false;
+            lagMillis = -1;
+        }
+
+        private long measureLag(Connection connection) throws SQLException {
+            if (!lagQueryResolved) {
+                resolvedLagQuery = lagQuery != null ? lagQuery
+                        : "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())
+                                ? POSTGRES_LAG_QUERY
+                                : null;
+                lagQueryResolved = true;
+            }
+            if (resolvedLagQuery == null) {
+                if (!connection.isValid(1)) {
+                    throw new SQLException("Connection is not valid");
+                }
+                return 0;
+            }
+            try (Statement statement = connection.createStatement();
+                    ResultSet result = statement.executeQuery(resolvedLagQuery)) {
+                return result.next() ? Math.round(result.getDouble(1)) : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.breno.springboot.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Divide o tempo de cada endpoint em duas fases, para separar a latência do controller da latência de escrita
+ * da resposta:
+ * - "api.request.handler": do início do handler (após os filtros, inclusive o SecurityFilter) até o corpo
+ *   ficar pronto para serialização. Em endpoints assíncronos inclui a espera pelo CompletableFuture.
+ * - "api.request.serialization": conversão do corpo em JSON e escrita na resposta.
+ * Ambos com as tags method e uri (o padrão mapeado, ex.: /products/{id}). Respostas em streaming
+ * (StreamingResponseBody) não passam pelos conversores e só aparecem em http.server.requests.
+ */
+@ControllerAdvice
+public class RequestPhaseMetrics implements HandlerInterceptor, ResponseBodyAdvice<Object> {
+
+    private static final String HANDLER_START = RequestPhaseMetrics.class.getName() + ".handlerStart";
+    private static final String SERIALIZATION_START = RequestPhaseMetrics.class.getName() + ".serializationStart";
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // No redespacho assíncrono o início original é mantido
+        if (handler instanceof HandlerMethod && request.getAttribute(HANDLER_START) == null) {
+            request.setAttribute(HANDLER_START, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(HANDLER_START) instanceof Long start) {
+            HttpServletRequest httpRequest = servletRequest.getServletRequest();
+            long now = System.nanoTime();
+            timer("api.request.handler", "Time spent in the controller, until the response body is ready", httpRequest)
+                    .record(now - start, TimeUnit.NANOSECONDS);
+            httpRequest.setAttribute(SERIALIZATION_START, now);
+        }
+        return body;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+            ModelAndView modelAndView) {
+        if (request.getAttribute(SERIALIZATION_START) instanceof Long start) {
+            timer("api.request.serialization", "Time spent serializing and writing the response body", request)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            request.removeAttribute(SERIALIZATION_START);
+        }
+    }
+
+    private Timer timer(String name, String description, HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return Timer.builder(name)
+                .description(description)
+                .tag("method", request.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
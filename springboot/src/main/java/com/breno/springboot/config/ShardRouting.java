@@ -0,0 +1,42 @@
+package com.breno.springboot.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard dos produtos usado pelo trabalho em andamento na thread, com api.datasource.shards.enabled. Fora de
+ * onShard, as conexões vêm do shard 0, que também guarda os usuários. Normalmente usado por meio do
+ * ProductShards, que sabe qual shard guarda cada produto.
+ */
+public final class ShardRouting {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardRouting() {
+    }
+
+    /**
+     * Executa o trabalho com as conexões do shard. Como em ReadRouting.onPrimary, a escolha acontece no primeiro
+     * comando SQL de cada transação, então a transação deve começar e terminar dentro do trabalho.
+     * @throws IllegalStateException se a thread já está trabalhando em outro shard.
+     */
+    public static <T> T onShard(int shard, Supplier<T> work) {
+        Integer current = SHARD.get();
+        if (current != null) {
+            if (current != shard) {
+                throw new IllegalStateException("Already working on shard " + current + ", cannot use shard " + shard);
+            }
+            return work.get();
+        }
+        SHARD.set(shard);
+        try {
+            return work.get();
+        } finally {
+            SHARD.remove();
+        }
+    }
+
+    // null fora de onShard
+    public static Integer current() {
+        return SHARD.get();
+    }
+}
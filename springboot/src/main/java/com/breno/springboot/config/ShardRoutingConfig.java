@@ -0,0 +1,131 @@
+package com.breno.springboot.config;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.DelayedDropAction;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Ativada com api.datasource.shards.enabled=true: substitui o DataSource do Spring Boot por um
+ * ShardRoutingDataSource. O shard 0 é o banco de spring.datasource.*, e os demais vêm das URLs de
+ * api.datasource.shards.urls, com o mesmo usuário, senha, driver e configurações do Hikari.
+ * Todos os shards recebem o esquema completo: pelo Flyway (cada shard é migrado) ou pelo ddl-auto do Hibernate
+ * (SchemaManagementToolCoordinator em cada shard).
+ * Não combina com réplicas de leitura (api.datasource.replicas.enabled): cada uma define o DataSource da aplicação.
+ */
+@Configuration
+@ConditionalOnProperty(name = "api.datasource.shards.enabled", havingValue = "true")
+public class ShardRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    ShardRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+            MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        List<String> urls = new ArrayList<>();
+        urls.add(properties.determineUrl());
+        for (String url : environment.getProperty("api.datasource.shards.urls", String[].class, new String[0])) {
+            if (StringUtils.hasText(url)) {
+                urls.add(url.trim());
+            }
+        }
+
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource shard = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .driverClassName(properties.determineDriverClassName())
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(shard));
+            shard.setPoolName("shard-" + shards.size());
+            // As métricas hikaricp.* do Spring Boot não enxergam pools atrás de um AbstractRoutingDataSource
+            shard.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    // O Spring Boot migra só o DataSource da aplicação, ou seja, o shard 0; aplica as mesmas migrações nos demais
+    @Bean
+    FlywayMigrationStrategy shardedFlywayMigrationStrategy(DataSource dataSource) {
+        int shardCount = shardCount(dataSource);
+        return flyway -> {
+            for (int shard = 0; shard < shardCount; shard++) {
+                ShardRouting.onShard(shard, flyway::migrate);
+            }
+        };
+    }
+
+    // Mesma ideia para o ddl-auto: o Hibernate aplica a ação no shard 0, e o integrador, nos demais (com as mesmas
+    // configurações; os DROPs de create-drop rodam no fechamento, em cada shard)
+    @Bean
+    HibernatePropertiesCustomizer shardSchemaCustomizer(DataSource dataSource) {
+        int shardCount = shardCount(dataSource);
+        Integrator integrator = new Integrator() {
+            private final List<Runnable> dropsOnClose = new ArrayList<>();
+
+            @Override
+            public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                    SessionFactoryImplementor sessionFactory) {
+                for (int shard = 1; shard < shardCount; shard++) {
+                    int target = shard;
+                    ShardRouting.onShard(target, () -> {
+                        SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(),
+                                sessionFactory.getProperties(), (DelayedDropAction action) -> dropsOnClose.add(
+                                        () -> ShardRouting.onShard(target, () -> {
+                                            action.perform(sessionFactory.getServiceRegistry());
+                                            return null;
+                                        })));
+                        return null;
+                    });
+                }
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory,
+                    SessionFactoryServiceRegistry serviceRegistry) {
+                dropsOnClose.forEach(Runnable::run);
+                dropsOnClose.clear();
+            }
+        };
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(integrator));
+    }
+
+    // Com threads virtuais o DataSource da aplicação é o ShardRoutingDataSource envolvido pelo BulkheadDataSource
+    private static int shardCount(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(ShardRoutingDataSource.class).shardCount();
+        } catch (SQLException e) {
+            throw new IllegalStateException("The application DataSource is not a ShardRoutingDataSource", e);
+        }
+    }
+}
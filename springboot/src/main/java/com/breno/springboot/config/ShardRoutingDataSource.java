@@ -0,0 +1,55 @@
+package com.breno.springboot.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * DataSource da aplicação com os produtos particionados em vários bancos (shards). Cada conexão vem do shard
+ * definido por ShardRouting.onShard na thread, ou do shard 0 fora dele. A conexão só é obtida no primeiro comando
+ * SQL (LazyConnectionDataSourceProxy), então o shard pode ser escolhido depois de a transação começar.
+ */
+public class ShardRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private final List<HikariDataSource> shards;
+
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                Integer shard = ShardRouting.current();
+                return shard != null ? shard : 0;
+            }
+        };
+        router.setTargetDataSources(targets);
+        router.setDefaultTargetDataSource(shards.get(0));
+        // Um shard fora da lista é erro de configuração, não um motivo para gravar no shard 0
+        router.setLenientFallback(false);
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    // Pool de um shard, sem passar pelo roteamento
+    public HikariDataSource shard(int index) {
+        return shards.get(index);
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
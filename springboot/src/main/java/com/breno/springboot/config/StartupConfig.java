@@ -0,0 +1,32 @@
+package com.breno.springboot.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Com spring.main.lazy-initialization=true (perfil prod), mantém na inicialização o que não pode ficar para a
+ * primeira requisição: os beans da aplicação (e, por dependência, o que eles usam), o pool de conexões, as
+ * migrações do Flyway e o EntityManagerFactory, que valida o esquema. Assim um erro de configuração ou de
+ * esquema ainda derruba a aplicação na subida, e a primeira requisição não paga a criação do Hibernate.
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final String APPLICATION_PACKAGE = "com.breno.springboot.";
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType.getName().startsWith(APPLICATION_PACKAGE)
+                || DataSource.class.isAssignableFrom(beanType)
+                || FlywayMigrationInitializer.class.isAssignableFrom(beanType)
+                || EntityManagerFactory.class.isAssignableFrom(beanType)
+                || AbstractEntityManagerFactoryBean.class.isAssignableFrom(beanType);
+    }
+}
@@ -0,0 +1,82 @@
+package com.breno.springboot.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Ativada apenas com spring.threads.virtual.enabled=true (em Java 21+). Nesse modo o Tomcat atende cada
+ * requisição numa thread virtual; esta configuração protege o pool de conexões e monitora pinning.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor bulkheadDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof BulkheadDataSource) {
+                    return bean;
+                }
+                int poolSize = poolSize(bean);
+                return new BulkheadDataSource(dataSource,
+                        environment.getProperty("api.datasource.bulkhead.max-concurrent", Integer.class, poolSize),
+                        environment.getProperty("api.datasource.bulkhead.max-waiting", Integer.class, 1000),
+                        environment.getProperty("api.datasource.bulkhead.acquire-timeout", Duration.class,
+                                Duration.ofSeconds(5)));
+            }
+        };
+    }
+
+    // Por padrão o bulkhead tem o mesmo tamanho do pool do Hikari; com sharding, a soma dos pools de todos os shards
+    static int poolSize(Object dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari.getMaximumPoolSize();
+        }
+        if (dataSource instanceof ShardRoutingDataSource shards) {
+            int poolSize = 0;
+            for (int shard = 0; shard < shards.shardCount(); shard++) {
+                poolSize += shards.shard(shard).getMaximumPoolSize();
+            }
+            return poolSize;
+        }
+        return 10;
+    }
+
+    @Bean
+    MeterBinder bulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof BulkheadDataSource bulkhead) {
+                Gauge.builder("db.bulkhead.waiting", bulkhead, BulkheadDataSource::getWaiting)
+                        .description("Threads waiting for a database connection permit")
+                        .register(registry);
+                Gauge.builder("db.bulkhead.available", bulkhead, BulkheadDataSource::getAvailablePermits)
+                        .description("Database connection permits currently free")
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${api.threads.virtual.pinned-threshold:20ms}") Duration threshold,
+            MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+    }
+}
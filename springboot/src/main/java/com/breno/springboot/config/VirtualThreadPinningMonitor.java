@@ -0,0 +1,72 @@
+package com.breno.springboot.config;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Acompanha, via JFR, os eventos jdk.VirtualThreadPinned: momentos em que uma thread virtual bloqueou
+ * sem liberar a thread de plataforma (ex.: dentro de um bloco synchronized de um driver JDBC).
+ * Cada evento acima do limite incrementa jvm.threads.virtual.pinned, registra a duração e é logado
+ * com o frame mais alto da pilha, para identificar a origem.
+ */
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private final Duration threshold;
+    private final Counter pinnedEvents;
+    private final Timer pinnedDuration;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinnedEvents = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual thread pinning events longer than the configured threshold")
+                .register(meterRegistry);
+        this.pinnedDuration = Timer.builder("jvm.threads.virtual.pinned.duration")
+                .description("Time virtual threads spent pinned to their carrier thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        pinnedDuration.record(event.getDuration());
+        String origin = "unknown";
+        if (event.getStackTrace() != null && !event.getStackTrace().getFrames().isEmpty()) {
+            RecordedFrame frame = event.getStackTrace().getFrames().get(0);
+            origin = frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+        }
+        log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), origin);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+}
@@ -1,27 +1,38 @@
 package com.breno.springboot.controllers;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.breno.springboot.config.ReadRouting;
 import com.breno.springboot.dtos.AuthenticationDTO;
 import com.breno.springboot.dtos.LoginResponseDTO;
 import com.breno.springboot.dtos.RegisterDTO;
 import com.breno.springboot.models.UserModel;
 import com.breno.springboot.repositories.UserRepository;
+import com.breno.springboot.security.TokenRevocationService;
 import com.breno.springboot.security.TokenService;
+import com.breno.springboot.services.AuthorizationService;
+import com.breno.springboot.services.PasswordHashingService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 
@@ -31,35 +42,69 @@ import jakarta.validation.Valid;
 public class AuthenticationController {
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private AuthorizationService authorizationService;
     @Autowired
     private UserRepository repository;
 
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    // Executor das requisições assíncronas do Spring MVC (threads virtuais quando habilitadas)
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private Executor requestExecutor;
+
+    // Hash de uma senha qualquer, calculado na primeira vez que alguém tenta um login inexistente
+    private volatile String userNotFoundPassword;
+
 
     @PostMapping("/login")
     @Operation(summary = "Login", description = "Authenticates a user and returns a JWT token.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Successfully logged in, returns the token."),
             @ApiResponse(responseCode = "401", description = "Invalid credentials."),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent logins; retry later."),
     })
-    public ResponseEntity<LoginResponseDTO> login(@RequestBody @Valid AuthenticationDTO data) {
-        // Cria um token de autenticação usando as credenciais fornecidas (login e
-        // senha)
-        var usernamePassword = new UsernamePasswordAuthenticationToken(data.login(), data.password());
-
-        try {
-        var auth = this.authenticationManager.authenticate(usernamePassword);
-        var token = tokenService.generateToken((UserModel) auth.getPrincipal());
-        return ResponseEntity.ok(new LoginResponseDTO(token));
-    } catch (BadCredentialsException e) {
-        
-         return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-         .body(new LoginResponseDTO("Login inválido")); // 401
+    public CompletableFuture<ResponseEntity<LoginResponseDTO>> login(@RequestBody @Valid AuthenticationDTO data) {
+        // A busca do usuário roda aqui, no thread da requisição; o pool de hashing só recebe a verificação BCrypt
+        UserDetails user = authorizationService.loadUserByUsername(data.login());
+
+        return passwordHashingService.submit(() -> matches(data.password(), user))
+                .thenApply(matches -> {
+                    if (!matches) {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body(new LoginResponseDTO("Login inválido")); // 401
+                    }
+                    var token = tokenService.generateToken((UserModel) user);
+                    return ResponseEntity.ok(new LoginResponseDTO(token));
+                });
+    }
+
+    // Login inexistente também paga uma verificação BCrypt, para o tempo de resposta não revelar quais logins existem
+    private boolean matches(String password, UserDetails user) {
+        if (user == null) {
+            passwordEncoder.matches(password, userNotFoundPassword());
+            return false;
+        }
+        return passwordEncoder.matches(password, user.getPassword());
     }
 
+    private String userNotFoundPassword() {
+        String encoded = userNotFoundPassword;
+        if (encoded == null) {
+            encoded = passwordEncoder.encode("userNotFoundPassword");
+            userNotFoundPassword = encoded;
+        }
+        return encoded;
     }
 
     @PostMapping("/register")
@@ -67,26 +112,64 @@ public class AuthenticationController {
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "User successfully created."),
             @ApiResponse(responseCode = "400", description = "User already registered."),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent registrations; retry later."),
     })
-    public ResponseEntity<String> register(@RequestBody @Valid RegisterDTO data) {
+    public CompletableFuture<ResponseEntity<String>> register(@RequestBody @Valid RegisterDTO data) {
         // Verifica se já existe um usuário com o mesmo login no banco de dados
-        if (this.repository.findByLogin(data.login()) != null) {
+        if (ReadRouting.onPrimary(() -> this.repository.existsByLogin(UserModel.normalizeLogin(data.login())))) {
             // Se o login já estiver em uso, retorna uma resposta HTTP 400 (Bad Request)
-            return ResponseEntity.badRequest().body("User already registered with this login.");
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("User already registered with this login."));
         }
 
-        // Criptografa a senha fornecida pelo usuário usando BCrypt
-        String encryptedPassword = new BCryptPasswordEncoder().encode(data.password());
+        // Criptografa a senha com o PasswordEncoder da aplicação (BCrypt), no pool de hashing; a gravação volta
+        // para o executor das requisições, para não ocupar um thread de hashing esperando o banco
+        return passwordHashingService.submit(() -> passwordEncoder.encode(data.password()))
+                .thenApplyAsync(encryptedPassword -> {
+                    // Cria um novo modelo de usuário com as informações fornecidas e a senha
+                    // criptografada
+                    UserModel newUser = new UserModel(data.login(), encryptedPassword, data.role());
+
+                    // Salva o novo usuário no banco de dados
+                    this.repository.save(newUser);
 
-        // Cria um novo modelo de usuário com as informações fornecidas e a senha
-        // criptografada
-        UserModel newUser = new UserModel(data.login(), encryptedPassword, data.role());
+                    // Retorna uma resposta HTTP 201 (Created) se o registro for bem-sucedido
+                    return ResponseEntity.status(HttpStatus.CREATED).body("User created successfully.");
+                }, requestExecutor);
+    }
 
-        // Salva o novo usuário no banco de dados
-        this.repository.save(newUser);
+    @PostMapping("/logout")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Logout", description = "Revokes the token sent in the Authorization header until it expires.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Token revoked."),
+            @ApiResponse(responseCode = "401", description = "Token missing, invalid or issued without an ID."),
+    })
+    public ResponseEntity<String> logout(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Token is missing.");
+        }
+        // Lança TokenValidationException (401) se o token for inválido ou expirado
+        var jwt = tokenService.verify(authorization.substring("Bearer ".length()));
+        if (!tokenRevocationService.revoke(jwt)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body("Token has no ID and cannot be revoked; it expires on its own.");
+        }
+        return ResponseEntity.noContent().build();
+    }
 
-        // Retorna uma resposta HTTP 200 (OK) se o registro for bem-sucedido
-        return ResponseEntity.status(HttpStatus.CREATED).body("User created successfully.");
+    @DeleteMapping("/users/{login}/tokens")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Revoke user tokens", description = "Revokes every token issued so far to a user, for example after a role change or a leaked password. Other instances apply it within api.security.token.revocation.refresh-interval. ADMIN only.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Tokens revoked."),
+            @ApiResponse(responseCode = "404", description = "User not found."),
+    })
+    public ResponseEntity<String> revokeTokens(@PathVariable(value = "login") String login) {
+        if (!tokenRevocationService.revokeAll(login)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found.");
+        }
+        return ResponseEntity.noContent().build();
     }
 
 }
@@ -1,13 +1,22 @@
 package com.breno.springboot.controllers;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,12 +24,42 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.breno.springboot.config.ReadRouting;
+import com.breno.springboot.dtos.BulkItemResultDTO;
+import com.breno.springboot.dtos.ProductBatchDTO;
+import com.breno.springboot.dtos.ProductBatchGetDTO;
+import com.breno.springboot.dtos.ProductCursor;
+import com.breno.springboot.dtos.ProductDeltaCursor;
+import com.breno.springboot.dtos.ProductDeltaDTO;
+import com.breno.springboot.dtos.ProductPageDTO;
 import com.breno.springboot.dtos.ProductRecordDTO;
+import com.breno.springboot.dtos.ProductResponseDTO;
+import com.breno.springboot.dtos.ProductStatsDTO;
+import com.breno.springboot.dtos.ProductVersionDTO;
+import com.breno.springboot.dtos.ProductWriteStatusDTO;
 import com.breno.springboot.dtos.ResponseDTO;
 import com.breno.springboot.models.ProductModel;
 import com.breno.springboot.repositories.ProductRepository;
+import com.breno.springboot.services.ProductBatchService;
+import com.breno.springboot.services.ProductBulkService;
+import com.breno.springboot.services.ProductCacheService;
+import com.breno.springboot.services.ProductChangeFeedService;
+import com.breno.springboot.services.ProductDeltaService;
+import com.breno.springboot.services.ProductNameReservations;
+import com.breno.springboot.services.ProductExportFormat;
+import com.breno.springboot.services.ProductExportService;
+import com.breno.springboot.services.ProductSearchService;
+import com.breno.springboot.services.ProductShards;
+import com.breno.springboot.services.ProductStatsService;
+import com.breno.springboot.services.ProductStreamService;
+import com.breno.springboot.services.ProductWriteBehindService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -30,28 +69,106 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
 @Tag(name = "Products", description = "Operations related to products")
 public class ProductController {
 
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    // Permite guardar a resposta, mas exige revalidação (If-None-Match) a cada uso; substitui o no-store padrão do Spring Security
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     ProductRepository productRepository;
 
+    @Autowired
+    ProductStreamService productStreamService;
+
+    @Autowired
+    ProductCacheService productCacheService;
+
+    @Autowired
+    ProductBulkService productBulkService;
+
+    @Autowired
+    ProductSearchService productSearchService;
+
+    @Autowired
+    ProductModelAssembler productModelAssembler;
+
+    @Autowired
+    ProductChangeFeedService productChangeFeedService;
+
+    @Autowired
+    ProductDeltaService productDeltaService;
+
+    @Autowired
+    ProductBatchService productBatchService;
+
+    @Autowired
+    ProductStatsService productStatsService;
+
+    @Autowired
+    ProductExportService productExportService;
+
+    @Autowired
+    ProductShards productShards;
+
+    // Presente só com api.products.write-behind.enabled=true; sem ele as gravações são síncronas
+    @Autowired(required = false)
+    ProductWriteBehindService productWriteBehindService;
+
+    @Autowired
+    ProductNameReservations productNameReservations;
+
     @PostMapping("/products")
     @SecurityRequirement(name = "Bearer Authentication")
     @Operation(summary = "Save product", description = "Responsible for saving a new product in the system.")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Product created successfully."),
+            @ApiResponse(responseCode = "202", description = "Write-behind enabled: product accepted; follow the Location header for the result."),
             @ApiResponse(responseCode = "409", description = "Product already exists with this name."),
-            @ApiResponse(responseCode = "500", description = "Internal error while creating the product.")
+            @ApiResponse(responseCode = "500", description = "Internal error while creating the product."),
+            @ApiResponse(responseCode = "503", description = "Write queue is full; retry after the Retry-After delay.")
     })
-    public ResponseEntity<?> saveProduct(@RequestBody @Valid ProductRecordDTO productRecordDto) {
+    public ResponseEntity<?> saveProduct(@RequestBody @Valid ProductRecordDTO productRecordDto,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        // Com sharding, a verificação do nome e a gravação vão a bancos diferentes: o nome fica reservado entre elas
+        return productShards.withNameLock(productRecordDto.name(), () -> createProduct(productRecordDto, accept));
+    }
+
+    private ResponseEntity<?> createProduct(ProductRecordDTO productRecordDto, String accept) {
         // Verificação de existência de produto (exemplo, caso o nome de produto deva
-        // ser único)
-        if (productRepository.existsByName(productRecordDto.name())) {
-            ResponseDTO<ProductModel> errorResponse = new ResponseDTO<>(
+        // ser único) em todos os shards; lida no primário, como toda leitura que antecede uma gravação
+        if (productShards.onEachShard(() -> ReadRouting.onPrimary(
+                () -> productRepository.existsByName(productRecordDto.name()))).contains(true)) {
+            ResponseDTO<ProductResponseDTO> errorResponse = new ResponseDTO<>(
+                    "error",
+                    "Product already exists with this name",
+                    null);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        }
+
+        if (productWriteBehindService != null) {
+            Optional<ProductWriteStatusDTO> accepted = productWriteBehindService.enqueueCreate(productRecordDto);
+            if (accepted.isEmpty()) {
+                ResponseDTO<ProductResponseDTO> errorResponse = new ResponseDTO<>(
+                        "error",
+                        "Product already exists with this name",
+                        null);
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+            }
+            return accepted(accepted.get());
+        }
+
+        // Reserva durável do nome: o lock acima não impede outra instância de cadastrar o mesmo nome
+        Map<String, UUID> reservation = productNameReservations.reserve(List.of(productRecordDto.name()));
+        if (reservation.isEmpty()) {
+            ResponseDTO<ProductResponseDTO> errorResponse = new ResponseDTO<>(
                     "error",
                     "Product already exists with this name",
                     null);
@@ -62,14 +179,19 @@ public class ProductController {
         BeanUtils.copyProperties(productRecordDto, productModel);
 
         try {
-            ProductModel savedProduct = productRepository.save(productModel);
-            ResponseDTO<ProductModel> successResponse = new ResponseDTO<>(
+            ProductModel savedProduct = productShards.onShard(productShards.nextShard(),
+                    () -> productRepository.save(productModel));
+            productCacheService.evict(savedProduct.getIdProduct(), savedProduct.getVersion());
+            ResponseDTO<ProductResponseDTO> successResponse = new ResponseDTO<>(
                     "success",
                     "Product created successfully",
-                    savedProduct);
-            return ResponseEntity.status(HttpStatus.CREATED).body(successResponse);
+                    new ProductResponseDTO(savedProduct));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .eTag(ProductETags.of(savedProduct.getVersion(), accept))
+                    .body(successResponse);
         } catch (Exception e) {
-            ResponseDTO<ProductModel> errorResponse = new ResponseDTO<>(
+            productNameReservations.release(reservation);
+            ResponseDTO<ProductResponseDTO> errorResponse = new ResponseDTO<>(
                     "error",
                     "Internal error while creating the product",
                     null);
@@ -77,33 +199,248 @@ public class ProductController {
         }
     }
 
+    @PostMapping(value = "/products/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Save products in bulk", description = "Creates many products in one request from a JSON array. Each item gets its own result: created, conflict, invalid or error.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Items processed; see the status of each item."),
+            @ApiResponse(responseCode = "413", description = "Too many items in a single request.")
+    })
+    public ResponseEntity<ResponseDTO<List<BulkItemResultDTO>>> saveProductsBulk(
+            @RequestBody List<ProductRecordDTO> productRecordDtos) {
+        return bulkResponse(productRecordDtos);
+    }
+
+    @PostMapping(value = "/products/bulk", consumes = NDJSON_VALUE)
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Save products in bulk (NDJSON)", description = "Same as the JSON bulk endpoint, reading one product per line.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Items processed; see the status of each item."),
+            @ApiResponse(responseCode = "413", description = "Too many items in a single request.")
+    })
+    public ResponseEntity<ResponseDTO<List<BulkItemResultDTO>>> saveProductsBulkNdjson(HttpServletRequest request)
+            throws IOException {
+        return bulkResponse(productBulkService.readNdjson(request.getInputStream()));
+    }
+
+    private ResponseEntity<ResponseDTO<List<BulkItemResultDTO>>> bulkResponse(List<ProductRecordDTO> records) {
+        if (records.size() > productBulkService.getMaxItems()) {
+            ResponseDTO<List<BulkItemResultDTO>> errorResponse = new ResponseDTO<>(
+                    "error",
+                    "Bulk requests are limited to " + productBulkService.getMaxItems() + " items",
+                    null);
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(errorResponse);
+        }
+
+        List<BulkItemResultDTO> results = productBulkService.ingest(records);
+        long created = results.stream().filter(result -> BulkItemResultDTO.CREATED.equals(result.status())).count();
+        ResponseDTO<List<BulkItemResultDTO>> response = new ResponseDTO<>(
+                created == results.size() ? "success" : "partial",
+                created + " of " + results.size() + " products created",
+                results);
+        return ResponseEntity.ok().body(response);
+    }
+
     @GetMapping("/products")
-    @Operation(summary = "List products", description = "Responsible for listing all registered products.")
+    @Operation(summary = "List products", description = "Responsible for listing registered products, one page at a time. Pass the returned nextCursor to fetch the following page. Each page carries an ETag; send it back in If-None-Match to get 304 while the page is unchanged. Besides JSON, pages can be requested as application/cbor or application/x-jackson-smile.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "List of products", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductModel.class), examples = @ExampleObject(value = "[{\"idProduct\":\"1234\",\"name\":\"Laptop\",\"price\":1200.0, \"_links\": {\"self\": {\"href\": \"/products/1234\"}}}]"))),
-            @ApiResponse(responseCode = "404", description = "No products found",content = @Content(mediaType = "application/json"))
+            @ApiResponse(responseCode = "200", description = "Page of products", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductPageDTO.class), examples = @ExampleObject(value = "{\"items\":[{\"idProduct\":\"1234\",\"name\":\"Laptop\",\"price\":1200.0, \"_links\": {\"self\": {\"href\": \"/products/1234\"}}}],\"nextCursor\":null}"))),
+            @ApiResponse(responseCode = "204", description = "No products found",content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "304", description = "Page unchanged since the ETag sent in If-None-Match."),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor.")
     })
-    public ResponseEntity<List<ProductModel>> getAllProducts() {
-        List<ProductModel> productsList = productRepository.findAll();
+    public ResponseEntity<ProductPageDTO> getAllProducts(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            WebRequest webRequest) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Busca um item a mais para saber se existe uma próxima página
+        Limit limit = Limit.of(pageSize + 1);
+        ProductCursor position = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+
+        // Requisição condicional: compara só IDs e versões da página, sem carregar nem serializar os produtos.
+        // Com vários shards as versões não trazem o nome para intercalar, então a comparação fica para depois da busca
+        boolean sharded = productShards.count() > 1;
+        if (!sharded && webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            List<ProductVersionDTO> versions = position == null
+                    ? productRepository.findFirstPageVersions(limit)
+                    : productRepository.findPageVersionsAfter(position.name(), position.idProduct(), limit);
+            if (!versions.isEmpty() && webRequest.checkNotModified(ProductETags.ofPage(versions, pageSize))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE)
+                        .varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+
+        // A mesma página em cada shard; a página final é a intercalação das primeiras pageSize + 1
+        List<ProductModel> productsList = ProductShards.merge(productShards.onEachShard(() -> position == null
+                ? productRepository.findFirstPage(limit)
+                : productRepository.findPageAfter(position.name(), position.idProduct(), limit)),
+                productShards.nameOrder(), ProductModel::getIdProduct, limit.max());
 
         if (productsList.isEmpty()) {
-            return ResponseEntity.noContent().build();
+            return ResponseEntity.noContent().varyBy(HttpHeaders.ACCEPT).build();
+        }
+        // Páginas não enviam Last-Modified: uma remoção muda a página sem mudar nenhuma data
+        String etag = ProductETags.ofPage(productsList.stream()
+                .map(product -> new ProductVersionDTO(product.getIdProduct(), product.getVersion(), product.getUpdatedAt()))
+                .toList(), pageSize);
+        if (sharded && webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE)
+                    .varyBy(HttpHeaders.ACCEPT).build();
         }
 
-        for (ProductModel product : productsList) {
-            // Adiciona link HATEOAS para cada produto
-            product.add(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(ProductController.class)
-                    .getOneProduct(product.getIdProduct())).withSelfRel()); // Adiciona o link ao modelo
+        String nextCursor = null;
+        if (productsList.size() > pageSize) {
+            productsList = productsList.subList(0, pageSize);
+            ProductModel last = productsList.get(pageSize - 1);
+            nextCursor = new ProductCursor(last.getName(), last.getIdProduct()).encode();
+        }
 
+        // Representações com o link HATEOAS de cada produto; as entidades não são alteradas
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT)
+                .body(new ProductPageDTO(productModelAssembler.toModels(productsList), nextCursor));
+    }
+
+    @GetMapping("/products/search")
+    @Operation(summary = "Search products", description = "Searches products by name (case-insensitive prefix, or anywhere in the name with match=contains) and price range, one page at a time. Pass the returned nextCursor to fetch the following page.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Page of matching products (items is empty when nothing matches)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProductPageDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or parameters.")
+    })
+    public ResponseEntity<ProductPageDTO> searchProducts(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "match", defaultValue = "prefix") String match,
+            @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ProductCursor after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+        boolean matchAnywhere = "contains".equalsIgnoreCase(match);
+
+        // Busca um item a mais para saber se existe uma próxima página
+        List<ProductModel> productsList = productSearchService.search(query, matchAnywhere, minPrice, maxPrice,
+                after, pageSize + 1);
+
+        String nextCursor = null;
+        if (productsList.size() > pageSize) {
+            productsList = productsList.subList(0, pageSize);
+            ProductModel last = productsList.get(pageSize - 1);
+            nextCursor = new ProductCursor(last.getName(), last.getIdProduct()).encode();
         }
 
-        return ResponseEntity.ok().body(productsList);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT)
+                .body(new ProductPageDTO(productModelAssembler.toModels(productsList), nextCursor));
+    }
+
+    @PostMapping("/products/batch-get")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Get products by IDs", description = "Fetches up to 500 products by ID with a single query, instead of one GET /products/{id} per product. Use fields (comma-separated: name, value) to receive only those fields; idProduct is always included. Items come in the order requested, without links; IDs with no product are listed in missing.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Products found and the IDs missing.", content = @Content(schema = @Schema(implementation = ProductBatchDTO.class), examples = @ExampleObject(value = "{\n"
+                    + "  \"items\": [ { \"idProduct\": \"035ffa72-d29b-4e86-8d07-4e100b3bfb0b\", \"value\": 120.00 } ],\n"
+                    + "  \"missing\": [ \"7c1d7a3e-8f0e-4a53-9a35-0d6f3a1f2b10\" ]\n"
+                    + "}"))),
+            @ApiResponse(responseCode = "400", description = "No IDs, more than 500 IDs or an unknown field.")
+    })
+    public ResponseEntity<ProductBatchDTO> getProductsByIds(
+            @RequestBody @Valid ProductBatchGetDTO request,
+            @RequestParam(value = "fields", required = false) String fields) {
+        return ResponseEntity.ok().body(productBatchService.findByIds(request.ids(), fields));
+    }
+
+    @GetMapping(value = "/products", produces = NDJSON_VALUE)
+    @Operation(summary = "Stream products", description = "Streams every registered product as newline-delimited JSON, written as rows are read from the database.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "One product per line", content = @Content(mediaType = NDJSON_VALUE, examples = @ExampleObject(value = "{\"idProduct\":\"1234\",\"name\":\"Laptop\",\"value\":1200.0}")))
+    })
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        // Mesmo caminho da listagem paginada: o Accept escolhe entre as duas
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(productStreamService.streamAsNdjson());
+    }
+
+    @GetMapping("/products/export")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Export the catalog", description = "Downloads every product as CSV (format=csv, the default) or in the compressed columnar .pcol format (format=columnar), written while rows are read from the database. Intended for snapshots; memory use does not grow with the catalog.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "The export file", content = {
+                    @Content(mediaType = "text/csv", examples = @ExampleObject(value = "idProduct,name,value\r\n035ffa72-d29b-4e86-8d07-4e100b3bfb0b,Laptop,8000.00\r\n")),
+                    @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE) }),
+            @ApiResponse(responseCode = "400", description = "Unsupported format.")
+    })
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(value = "format", defaultValue = "csv") String format) {
+        ProductExportFormat exportFormat = ProductExportFormat.fromName(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("products." + exportFormat.extension()).build().toString())
+                .body(productExportService.exportTo(exportFormat));
+    }
+
+    @GetMapping(value = "/products/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Stream product changes", description = "Server-Sent Events feed with one \"change\" event (sequence, idProduct, version, operation) per product created, updated or deleted. Reconnect with Last-Event-ID (or since) to receive the changes missed in between; a \"reset\" event means they are no longer available and the product list must be reloaded.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Open change stream", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, examples = @ExampleObject(value = "event:change\nid:42\ndata:{\"sequence\":42,\"idProduct\":\"035ffa72-d29b-4e86-8d07-4e100b3bfb0b\",\"version\":3,\"operation\":\"updated\"}")))
+    })
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(value = "since", required = false) Long since) {
+        return productChangeFeedService.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    @GetMapping("/products/delta")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Get product changes since a revision", description = "Incremental sync for catalog replicas. Without since, returns every product (a full sync); with since, only the products written after that revision, including deleted ones as tombstones (deleted: true, no name or value). Follow nextCursor until it is null, then store revision and send it as since on the next sync.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Page of changed products.", content = @Content(schema = @Schema(implementation = ProductDeltaDTO.class), examples = @ExampleObject(value = "{\n"
+                    + "  \"items\": [\n"
+                    + "    { \"idProduct\": \"035ffa72-d29b-4e86-8d07-4e100b3bfb0b\", \"name\": \"Laptop\", \"value\": 8000.00, \"revision\": 41, \"deleted\": false },\n"
+                    + "    { \"idProduct\": \"7c1d7a3e-8f0e-4a53-9a35-0d6f3a1f2b10\", \"revision\": 42, \"deleted\": true }\n"
+                    + "  ],\n"
+                    + "  \"nextCursor\": null,\n"
+                    + "  \"revision\": 42\n"
+                    + "}"))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor."),
+            @ApiResponse(responseCode = "410", description = "Resync required: deletions after since were purged (api.products.delta.tombstone-retention). Sync again without since.")
+    })
+    public ResponseEntity<ProductDeltaDTO> getProductDelta(
+            @RequestParam(value = "since", required = false) Long since,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ProductDeltaCursor deltaCursor = cursor != null ? ProductDeltaCursor.decode(cursor) : null;
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore())
+                .body(productDeltaService.changesSince(since, deltaCursor, pageSize));
+    }
+
+    @GetMapping("/products/stats")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Get catalog statistics", description = "Product count, lowest, highest and average price, and the number of products per price bucket. Served from in-memory aggregates updated on every write, so the cost does not depend on the catalog size.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Catalog statistics.", content = @Content(schema = @Schema(implementation = ProductStatsDTO.class), examples = @ExampleObject(value = "{\n"
+                    + "  \"count\": 3,\n"
+                    + "  \"minValue\": 9.90,\n"
+                    + "  \"maxValue\": 8000.00,\n"
+                    + "  \"averageValue\": 2703.30,\n"
+                    + "  \"histogram\": [ { \"from\": null, \"to\": 10, \"count\": 1 }, { \"from\": 10, \"to\": 50, \"count\": 0 },\n"
+                    + "    { \"from\": 50, \"to\": 100, \"count\": 1 }, { \"from\": 100, \"to\": 500, \"count\": 0 },\n"
+                    + "    { \"from\": 500, \"to\": 1000, \"count\": 0 }, { \"from\": 1000, \"to\": 5000, \"count\": 0 },\n"
+                    + "    { \"from\": 5000, \"to\": null, \"count\": 1 } ]\n"
+                    + "}")))
+    })
+    public ResponseEntity<ProductStatsDTO> getProductStats() {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(productStatsService.getStats());
     }
 
     @GetMapping("/products/{id}")
-    @Operation(summary = "Get product by ID", description = "Fetches the details of a specific product by its ID.")
+    @Operation(summary = "Get product by ID", description = "Fetches the details of a specific product by its ID. The response carries an ETag and Last-Modified; conditional requests get 304 while the product is unchanged.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Successful request. Returns the product details.", content = @Content(schema = @Schema(implementation = ProductModel.class), examples = @ExampleObject(value = "{\n"
+            @ApiResponse(responseCode = "200", description = "Successful request. Returns the product details.", content = @Content(schema = @Schema(implementation = ProductResponseDTO.class), examples = @ExampleObject(value = "{\n"
                     +
                     "    \"idProduct\": \"035ffa72-d29b-4e86-8d07-4e100b3bfb0b\",\n" +
                     "    \"name\": \"Mouse\",\n" +
@@ -114,47 +451,154 @@ public class ProductController {
                     "        }\n" +
                     "    }\n" +
                     "}"))),
+            @ApiResponse(responseCode = "304", description = "Product unchanged since the ETag or date sent in If-None-Match / If-Modified-Since."),
             @ApiResponse(responseCode = "404", description = "Product not found.")
     })
-    public ResponseEntity<Object> getOneProduct(@PathVariable(value = "id") UUID id) {
-        Optional<ProductModel> product = productRepository.findById(id);
+    public ResponseEntity<Object> getOneProduct(@PathVariable(value = "id") UUID id, WebRequest webRequest) {
+        // Requisição condicional: responde 304 consultando só a versão (do cache ou do banco), sem carregar o produto
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            Optional<ProductVersionDTO> version = productCacheService.findVersion(id);
+            if (version.isPresent() && webRequest.checkNotModified(
+                    ProductETags.of(version.get().version(), webRequest.getHeader(HttpHeaders.ACCEPT)),
+                    version.get().updatedAt() == null ? -1 : version.get().updatedAt().toEpochMilli())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE)
+                        .varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+
+        Optional<ProductModel> product = productCacheService.findById(id);
         if (product.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found.");
         }
-        product.get().add(WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(ProductController.class)
-                .getAllProducts()).withSelfRel());
-        return ResponseEntity.ok().body(product.get());
+        ProductResponseDTO response = new ProductResponseDTO(product.get()).add(productModelAssembler.collectionLink());
+        return withVersionHeaders(ResponseEntity.ok(), product.get(), webRequest.getHeader(HttpHeaders.ACCEPT))
+                .cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).body(response);
     }
 
     @PutMapping("/products/{id}")
-    @Operation(summary = "Update product", description = "Responsible for updating the details of a specific product.")
+    @Operation(summary = "Update product", description = "Responsible for updating the details of a specific product. Send the product ETag in If-Match to update only if nobody changed it in the meantime.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Product updated successfully."),
-            @ApiResponse(responseCode = "404", description = "Product not found.")
+            @ApiResponse(responseCode = "202", description = "Write-behind enabled: update accepted; follow the Location header for the result."),
+            @ApiResponse(responseCode = "404", description = "Product not found."),
+            @ApiResponse(responseCode = "409", description = "Product changed by a concurrent request."),
+            @ApiResponse(responseCode = "412", description = "Product no longer matches the ETag sent in If-Match."),
+            @ApiResponse(responseCode = "503", description = "Write queue is full; retry after the Retry-After delay.")
     })
     public ResponseEntity<Object> updateProduct(@PathVariable(value = "id") UUID id,
-            @RequestBody @Valid ProductRecordDTO productRecordDto) {
-        Optional<ProductModel> product = productRepository.findById(id);
-        if (product.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found.");
+            @RequestBody @Valid ProductRecordDTO productRecordDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (productWriteBehindService != null) {
+            return updateLater(id, productRecordDto, ifMatch);
+        }
+        // Leitura e gravação no shard que guarda o produto
+        return productShards.onHolder(id, () -> ReadRouting.onPrimary(() -> productRepository.findById(id))
+                .map(productModel -> update(productModel, productRecordDto, ifMatch, accept)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found."));
+    }
+
+    private ResponseEntity<Object> update(ProductModel productModel, ProductRecordDTO productRecordDto,
+            String ifMatch, String accept) {
+        UUID id = productModel.getIdProduct();
+        if (ifMatch != null && !ProductETags.matches(ifMatch, productModel.getVersion())) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Product was modified.");
         }
-        var productModel = product.get();
         BeanUtils.copyProperties(productRecordDto, productModel);
-        return ResponseEntity.ok().body(productRepository.save(productModel));
+        ProductModel updatedProduct;
+        try {
+            // A versão lida acima é conferida no UPDATE, então uma alteração concorrente não é sobrescrita
+            updatedProduct = productRepository.save(productModel);
+        } catch (OptimisticLockingFailureException e) {
+            productCacheService.evict(id);
+            return ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT)
+                    .body("Product was modified.");
+        }
+        productCacheService.evict(id, updatedProduct.getVersion());
+        return withVersionHeaders(ResponseEntity.ok(), updatedProduct, accept)
+                .body(new ProductResponseDTO(updatedProduct));
     }
 
     @DeleteMapping("/products/{id}")
     @Operation(summary = "Delete product", description = "Responsible for deleting a specific product by its ID.", responses = {
             @ApiResponse(responseCode = "200", description = "Product deleted successfully.", content = @Content(schema = @Schema(type = "string", example = "Product deleted."))),
+            @ApiResponse(responseCode = "202", description = "Write-behind enabled: deletion accepted; follow the Location header for the result."),
             @ApiResponse(responseCode = "404", description = "Product not found.", content = @Content(schema = @Schema(type = "string", example = "Product not found.")))
     })
     public ResponseEntity<Object> deleteProduct(@PathVariable(value = "id") UUID id) {
-        Optional<ProductModel> product = productRepository.findById(id);
+        if (productWriteBehindService != null) {
+            if (productCacheService.findVersion(id).isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found.");
+            }
+            Optional<ProductWriteStatusDTO> accepted = productWriteBehindService.enqueueDelete(id);
+            return accepted.<ResponseEntity<Object>>map(this::accepted)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found."));
+        }
+        Optional<ProductModel> product = productShards.onHolder(id, () -> ReadRouting.onPrimary(
+                () -> productRepository.findById(id)).map(productModel -> {
+                    // Remoção lógica: o marcador fica para a sincronização incremental (GET /products/delta)
+                    productModel.setDeleted(true);
+                    return productRepository.save(productModel);
+                }));
         if (product.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found.");
         }
-        productRepository.delete(product.get());
+        productCacheService.markDeleted(id);
         return ResponseEntity.ok().body("Product deleted.");
     }
 
+    @GetMapping("/products/writes/{trackingId}")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Get write status", description = "Returns the result of a write accepted with 202 while write-behind is enabled: pending, applied, conflict, not_found or failed. Results are kept for a limited time.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Current status of the write.", content = @Content(schema = @Schema(implementation = ProductWriteStatusDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired tracking ID, or write-behind disabled.")
+    })
+    public ResponseEntity<Object> getWriteStatus(@PathVariable(value = "trackingId") UUID trackingId) {
+        Optional<ProductWriteStatusDTO> status = productWriteBehindService == null
+                ? Optional.empty()
+                : productWriteBehindService.getStatus(trackingId);
+        if (status.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Write not found.");
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(status.get());
+    }
+
+    // Atualização pelo write-behind: If-Match é conferido com a versão já persistida
+    private ResponseEntity<Object> updateLater(UUID id, ProductRecordDTO productRecordDto, String ifMatch) {
+        Optional<ProductVersionDTO> version = productCacheService.findVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found.");
+        }
+        // Com outra gravação ainda na fila, a versão persistida já não é a que o cliente vai encontrar
+        if (ifMatch != null && (productWriteBehindService.hasPendingWrite(id)
+                || !ProductETags.matches(ifMatch, version.get().version()))) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Product was modified.");
+        }
+        Optional<ProductWriteStatusDTO> accepted = productWriteBehindService.enqueueUpdate(id, productRecordDto);
+        return accepted.<ResponseEntity<Object>>map(this::accepted)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found."));
+    }
+
+    private ResponseEntity<Object> accepted(ProductWriteStatusDTO status) {
+        ResponseDTO<ProductWriteStatusDTO> response = new ResponseDTO<>(
+                "accepted",
+                "Product write accepted",
+                status);
+        return ResponseEntity.accepted()
+                .location(WebMvcLinkBuilder.linkTo(ProductController.class).slash("products").slash("writes")
+                        .slash(status.trackingId()).toUri())
+                .body(response);
+    }
+
+    private static ResponseEntity.BodyBuilder withVersionHeaders(ResponseEntity.BodyBuilder builder,
+            ProductModel product, String accept) {
+        builder.eTag(ProductETags.of(product.getVersion(), accept));
+        if (product.getUpdatedAt() != null) {
+            builder.lastModified(product.getUpdatedAt());
+        }
+        return builder;
+    }
+
 }
@@ -0,0 +1,91 @@
+package com.breno.springboot.controllers;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.MimeTypeUtils;
+
+import com.breno.springboot.dtos.ProductVersionDTO;
+
+/**
+ * ETags dos recursos de produto.
+ * Um produto usa a sua versão (@Version) como ETag forte, com um sufixo da representação negociada pelo Accept:
+ * "3" em JSON, "3-cbor" e "3-smile" nos formatos binários, já que um ETag forte identifica bytes exatos. O If-Match
+ * aceita a versão atual em qualquer uma das representações. Uma página da listagem usa um hash
+ * dos IDs e versões dos itens da página e de haver ou não próxima página, então qualquer inclusão, alteração ou
+ * remoção que mude a página muda o ETag. O ETag da página é fraco (W/): a mesma página é servida em JSON, CBOR ou
+ * Smile, com ou sem gzip, e o Tomcat não comprime respostas com ETag forte.
+ */
+final class ProductETags {
+
+    private ProductETags() {
+    }
+
+    static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    // Sufixo de cada representação, na ordem dos conversores do Spring MVC (JSON atende */*)
+    private static final List<MediaType> REPRESENTATIONS = List.of(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_CBOR, SMILE);
+    private static final List<String> SUFFIXES = List.of("", "-cbor", "-smile");
+
+    static String of(long version, String accept) {
+        return tag(version, SUFFIXES.get(representation(accept)));
+    }
+
+    private static String tag(long version, String suffix) {
+        return "\"" + version + suffix + "\"";
+    }
+
+    // Mesma escolha do Spring MVC: o tipo aceito de maior qualidade e mais específico; sem Accept, JSON
+    private static int representation(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return 0;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return 0;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (int i = 0; i < REPRESENTATIONS.size(); i++) {
+                if (mediaType.isCompatibleWith(REPRESENTATIONS.get(i))) {
+                    return i;
+                }
+            }
+        }
+        return 0;
+    }
+
+    // versions pode conter o item extra buscado para detectar a próxima página
+    static String ofPage(List<ProductVersionDTO> versions, int pageSize) {
+        int count = Math.min(versions.size(), pageSize);
+        ByteBuffer buffer = ByteBuffer.allocate(count * 24 + 1);
+        for (ProductVersionDTO version : versions.subList(0, count)) {
+            buffer.putLong(version.idProduct().getMostSignificantBits())
+                    .putLong(version.idProduct().getLeastSignificantBits())
+                    .putLong(version.version());
+        }
+        buffer.put((byte) (versions.size() > pageSize ? 1 : 0));
+        return "W/\"" + DigestUtils.md5DigestAsHex(buffer.array()) + "\"";
+    }
+
+    // Comparação forte do If-Match (RFC 9110): aceita "*" ou uma lista de ETags; ETags fracas (W/) nunca casam
+    static boolean matches(String ifMatch, long version) {
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || SUFFIXES.stream().anyMatch(suffix -> trimmed.equals(tag(version, suffix)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,50 @@
+package com.breno.springboot.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.stereotype.Component;
+
+import com.breno.springboot.dtos.ProductResponseDTO;
+import com.breno.springboot.models.ProductModel;
+
+/**
+ * Monta as representações de produto com os links HATEOAS.
+ * A URI base (esquema, host, contexto e "/products") é resolvida a partir da requisição uma única vez por
+ * chamada; o link de cada item é só a concatenação do ID, sem o proxy de methodOn nem a resolução do
+ * template de URI por item.
+ */
+@Component
+public class ProductModelAssembler implements RepresentationModelAssembler<ProductModel, ProductResponseDTO> {
+
+    @Override
+    public ProductResponseDTO toModel(ProductModel product) {
+        return new ProductResponseDTO(product).add(selfLink(collectionHref(), product));
+    }
+
+    // Lista de produtos, cada um com o link self para /products/{id}
+    public List<ProductResponseDTO> toModels(List<ProductModel> products) {
+        String collectionHref = collectionHref();
+        List<ProductResponseDTO> models = new ArrayList<>(products.size());
+        for (ProductModel product : products) {
+            models.add(new ProductResponseDTO(product).add(selfLink(collectionHref, product)));
+        }
+        return models;
+    }
+
+    // Link para a listagem, sem parâmetros de paginação (evita um link templated com cursor/size)
+    public Link collectionLink() {
+        return Link.of(collectionHref());
+    }
+
+    private static String collectionHref() {
+        return WebMvcLinkBuilder.linkTo(ProductController.class).slash("products").toUri().toString();
+    }
+
+    private static Link selfLink(String collectionHref, ProductModel product) {
+        return Link.of(collectionHref + "/" + product.getIdProduct());
+    }
+}
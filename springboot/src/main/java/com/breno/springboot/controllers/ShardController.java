@@ -0,0 +1,53 @@
+package com.breno.springboot.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.breno.springboot.dtos.ShardRebalanceStatusDTO;
+import com.breno.springboot.services.ProductShardRebalancer;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("shards")
+@Tag(name = "Shards", description = "Maintenance of the product shards")
+public class ShardController {
+
+    @Autowired
+    ProductShardRebalancer productShardRebalancer;
+
+    @PostMapping("/rebalance")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Rebalance the product shards", description = "Starts moving every product to the shard that owns it under the current shard count, in the background and while the API keeps serving requests. Run it after adding shards, with api.datasource.shards.previous-count set to the old count.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Rebalance started; follow GET /shards/rebalance for its progress.", content = @Content(schema = @Schema(implementation = ShardRebalanceStatusDTO.class))),
+            @ApiResponse(responseCode = "409", description = "A rebalance is already running.", content = @Content(schema = @Schema(implementation = ShardRebalanceStatusDTO.class)))
+    })
+    public ResponseEntity<ShardRebalanceStatusDTO> startRebalance() {
+        boolean started = productShardRebalancer.start();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(productShardRebalancer.getStatus());
+    }
+
+    @GetMapping("/rebalance")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Get rebalance progress", description = "State and counters of the running or last shard rebalance.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Rebalance progress.", content = @Content(schema = @Schema(implementation = ShardRebalanceStatusDTO.class)))
+    })
+    public ResponseEntity<ShardRebalanceStatusDTO> getRebalanceStatus() {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(productShardRebalancer.getStatus());
+    }
+}
@@ -0,0 +1,32 @@
+package com.breno.springboot.dtos;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.breno.springboot.models.UserRole;
+
+/**
+ * Só as colunas que a autenticação por token usa (id, login e papel), lidas pelo SecurityFilter a cada token
+ * novo; no PostgreSQL a consulta é atendida pelo índice de login sem ler a tabela. A senha fica de fora: ela
+ * só é necessária no login, que carrega o UserModel completo.
+ */
+public record AuthenticatedUserDTO(UUID id, String login, UserRole role) implements UserDetails {
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role.getAuthorities();
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return login;
+    }
+}
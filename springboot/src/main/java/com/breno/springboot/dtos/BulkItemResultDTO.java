@@ -0,0 +1,28 @@
+package com.breno.springboot.dtos;
+
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record BulkItemResultDTO(
+    @Schema(example = "0", description = "Position of the item in the request")
+    int index,
+
+    @Schema(example = "Notebook", description = "Product name sent in the request")
+    String name,
+
+    @Schema(example = "created", description = "Outcome for this item: created, conflict, invalid or error")
+    String status,
+
+    @Schema(example = "035ffa72-d29b-4e86-8d07-4e100b3bfb0b", description = "ID of the created product, when created")
+    UUID idProduct,
+
+    @Schema(example = "Product already exists with this name", description = "Reason when the item was not created")
+    String message
+) {
+
+    public static final String CREATED = "created";
+    public static final String CONFLICT = "conflict";
+    public static final String INVALID = "invalid";
+    public static final String ERROR = "error";
+}
@@ -0,0 +1,18 @@
+package com.breno.springboot.dtos;
+
+import java.math.BigDecimal;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Faixa do histograma de preços: from inclusivo, to exclusivo
+public record PriceBucketDTO(
+    @Schema(example = "100", description = "Lower bound, inclusive; null for the first bucket")
+    BigDecimal from,
+
+    @Schema(example = "500", description = "Upper bound, exclusive; null for the last bucket")
+    BigDecimal to,
+
+    @Schema(example = "42", description = "Products priced in this bucket")
+    long count
+) {
+}
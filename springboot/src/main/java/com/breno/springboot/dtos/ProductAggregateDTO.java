@@ -0,0 +1,7 @@
+package com.breno.springboot.dtos;
+
+import java.math.BigDecimal;
+
+// Agregados de preço calculados pelo banco, comparados com as estatísticas em memória na reconciliação
+public record ProductAggregateDTO(long count, BigDecimal sum, BigDecimal min, BigDecimal max) {
+}
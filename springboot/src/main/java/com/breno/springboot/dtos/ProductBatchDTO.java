@@ -0,0 +1,16 @@
+package com.breno.springboot.dtos;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record ProductBatchDTO(
+    @Schema(description = "Products found, in the order requested, with only idProduct and the requested fields")
+    List<Map<String, Object>> items,
+
+    @Schema(description = "Requested IDs with no product (never existed or deleted)")
+    List<UUID> missing
+) {
+}
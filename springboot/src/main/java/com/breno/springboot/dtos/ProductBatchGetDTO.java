@@ -0,0 +1,19 @@
+package com.breno.springboot.dtos;
+
+import java.util.List;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record ProductBatchGetDTO(
+    @NotEmpty
+    @Size(max = 500)
+    @Schema(example = "[\"035ffa72-d29b-4e86-8d07-4e100b3bfb0b\", \"7c1d7a3e-8f0e-4a53-9a35-0d6f3a1f2b10\"]",
+            description = "Product IDs to fetch (up to 500); duplicates are returned once",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    List<@NotNull UUID> ids
+) {
+}
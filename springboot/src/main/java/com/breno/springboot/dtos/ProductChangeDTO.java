@@ -0,0 +1,7 @@
+package com.breno.springboot.dtos;
+
+import java.util.UUID;
+
+// Evento do feed de alterações (GET /products/changes); "sequence" é o id do evento SSE, usado para retomar
+public record ProductChangeDTO(long sequence, UUID idProduct, long version, String operation) {
+}
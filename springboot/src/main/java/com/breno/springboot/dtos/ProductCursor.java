@@ -0,0 +1,35 @@
+package com.breno.springboot.dtos;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.breno.springboot.exceptions.InvalidCursorException;
+
+/**
+ * Posição de continuação da listagem paginada por chave (keyset): o último (name, idProduct) entregue.
+ * O cliente recebe apenas o token codificado e não deve depender do seu formato.
+ */
+public record ProductCursor(String name, UUID idProduct) {
+
+    // Tamanho textual fixo de um UUID, usado para separar o ID do nome no token
+    private static final int UUID_LENGTH = 36;
+
+    public String encode() {
+        String raw = idProduct + ":" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (raw.length() <= UUID_LENGTH || raw.charAt(UUID_LENGTH) != ':') {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            UUID id = UUID.fromString(raw.substring(0, UUID_LENGTH));
+            return new ProductCursor(raw.substring(UUID_LENGTH + 1), id);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.breno.springboot.dtos;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.breno.springboot.exceptions.InvalidCursorException;
+
+/**
+ * Continuação de uma sincronização incremental: o limite de revisão fixado na primeira página (upTo), se ela
+ * inclui removidos e o último (revision, idProduct) entregue. Opaco para o cliente, como o ProductCursor.
+ */
+public record ProductDeltaCursor(long upTo, boolean includeDeleted, long revision, UUID idProduct) {
+
+    public String encode() {
+        String raw = upTo + ":" + includeDeleted + ":" + revision + ":" + idProduct;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductDeltaCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new ProductDeltaCursor(Long.parseLong(parts[0]), Boolean.parseBoolean(parts[1]),
+                    Long.parseLong(parts[2]), UUID.fromString(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+    }
+}
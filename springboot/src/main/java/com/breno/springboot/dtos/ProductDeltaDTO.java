@@ -0,0 +1,17 @@
+package com.breno.springboot.dtos;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record ProductDeltaDTO(
+    @Schema(description = "Products changed since the requested revision, ordered by revision")
+    List<ProductDeltaItemDTO> items,
+
+    @Schema(description = "Opaque token to request the next page of this sync; null when this is the last page")
+    String nextCursor,
+
+    @Schema(example = "1042", description = "Pass as since in the next sync, after reading every page of this one")
+    long revision
+) {
+}
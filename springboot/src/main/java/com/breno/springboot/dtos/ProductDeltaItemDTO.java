@@ -0,0 +1,27 @@
+package com.breno.springboot.dtos;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Item da sincronização incremental: o estado atual do produto, ou só o ID para um produto removido
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductDeltaItemDTO(
+    UUID idProduct,
+
+    @Schema(description = "Product name; absent for deleted products")
+    String name,
+
+    @Schema(description = "Product price; absent for deleted products")
+    BigDecimal value,
+
+    @Schema(description = "Revision of the last write to this product")
+    long revision,
+
+    @Schema(description = "True when the product was deleted and must be removed from the replica")
+    boolean deleted
+) {
+}
@@ -0,0 +1,15 @@
+package com.breno.springboot.dtos;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record ProductPageDTO(
+    @Schema(description = "Products in this page, ordered by name and ID")
+    List<ProductResponseDTO> items,
+
+    @Schema(example = "MDM1ZmZhNzItZDI5Yi00ZTg2LThkMDctNGUxMDBiM2JmYjBiOk1vdXNl",
+            description = "Opaque token to request the next page; null when this is the last page")
+    String nextCursor
+) {
+}
@@ -0,0 +1,31 @@
+package com.breno.springboot.dtos;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.springframework.hateoas.RepresentationModel;
+
+import com.breno.springboot.models.ProductModel;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+
+// Representação de um produto nas respostas da API; os links HATEOAS ficam aqui, e não na entidade JPA
+@Getter
+public class ProductResponseDTO extends RepresentationModel<ProductResponseDTO> {
+
+    @Schema(example = "035ffa72-d29b-4e86-8d07-4e100b3bfb0b", description = "Product ID")
+    private final UUID idProduct;
+
+    @Schema(example = "Laptop", description = "Product name")
+    private final String name;
+
+    @Schema(example = "8000.00", description = "Product price")
+    private final BigDecimal value;
+
+    public ProductResponseDTO(ProductModel product) {
+        this.idProduct = product.getIdProduct();
+        this.name = product.getName();
+        this.value = product.getValue();
+    }
+}
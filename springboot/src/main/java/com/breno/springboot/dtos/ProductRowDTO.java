@@ -0,0 +1,19 @@
+package com.breno.springboot.dtos;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Projeção leve de um produto, usada nas leituras em streaming (sem entidade gerenciada nem links)
+public record ProductRowDTO(
+    @Schema(example = "035ffa72-d29b-4e86-8d07-4e100b3bfb0b", description = "Product ID")
+    UUID idProduct,
+
+    @Schema(example = "Laptop", description = "Product name")
+    String name,
+
+    @Schema(example = "8000.00", description = "Product price")
+    BigDecimal value
+) {
+}
@@ -0,0 +1,24 @@
+package com.breno.springboot.dtos;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record ProductStatsDTO(
+    @Schema(example = "1250", description = "Number of products")
+    long count,
+
+    @Schema(example = "9.90", description = "Lowest price; null when there are no products")
+    BigDecimal minValue,
+
+    @Schema(example = "8000.00", description = "Highest price; null when there are no products")
+    BigDecimal maxValue,
+
+    @Schema(example = "412.37", description = "Average price; null when there are no products")
+    BigDecimal averageValue,
+
+    @Schema(description = "Products per price bucket, in ascending order")
+    List<PriceBucketDTO> histogram
+) {
+}
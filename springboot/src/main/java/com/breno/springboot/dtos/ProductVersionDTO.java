@@ -0,0 +1,8 @@
+package com.breno.springboot.dtos;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Apenas os dados de versão de um produto, usados para responder requisições condicionais sem carregar a entidade
+public record ProductVersionDTO(UUID idProduct, long version, Instant updatedAt) {
+}
@@ -0,0 +1,29 @@
+package com.breno.springboot.dtos;
+
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record ProductWriteStatusDTO(
+    @Schema(example = "6f1c2d3e-4b5a-4c7d-8e9f-0a1b2c3d4e5f", description = "Tracking ID returned when the write was accepted")
+    UUID trackingId,
+
+    @Schema(example = "update", description = "Requested operation: create, update or delete")
+    String operation,
+
+    @Schema(example = "applied", description = "pending, applied, conflict, not_found or failed")
+    String status,
+
+    @Schema(example = "035ffa72-d29b-4e86-8d07-4e100b3bfb0b", description = "Product ID; for creates, known once applied")
+    UUID idProduct,
+
+    @Schema(example = "Product already exists with this name", description = "Reason when the write was not applied")
+    String message
+) {
+
+    public static final String PENDING = "pending";
+    public static final String APPLIED = "applied";
+    public static final String CONFLICT = "conflict";
+    public static final String NOT_FOUND = "not_found";
+    public static final String FAILED = "failed";
+}
@@ -0,0 +1,38 @@
+package com.breno.springboot.dtos;
+
+import java.time.Instant;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Andamento do rebalanceamento dos shards (POST/GET /shards/rebalance)
+public record ShardRebalanceStatusDTO(
+    @Schema(example = "running", description = "idle, running, completed or failed")
+    String state,
+
+    @Schema(description = "When the last rebalance started")
+    Instant startedAt,
+
+    @Schema(description = "When the last rebalance finished; absent while running")
+    Instant finishedAt,
+
+    @Schema(example = "1", description = "Passes over all shards so far")
+    int passes,
+
+    @Schema(example = "120000", description = "Rows read from the shards, including the ones already in place")
+    long scanned,
+
+    @Schema(example = "30000", description = "Rows moved to the shard that owns them")
+    long moved,
+
+    @Schema(example = "0", description = "Rows written during their move, left for the next pass")
+    long retried,
+
+    @Schema(description = "Reason when the rebalance failed")
+    String message
+) {
+
+    public static final String IDLE = "idle";
+    public static final String RUNNING = "running";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+}
@@ -0,0 +1,5 @@
+package com.breno.springboot.dtos;
+
+// Versão atual dos tokens de um usuário, carregada periodicamente pelo TokenRevocationService
+public record UserTokenVersionDTO(String login, int tokenVersion) {
+}
@@ -0,0 +1,16 @@
+package com.breno.springboot.events;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Publicado a cada produto inserido, alterado ou removido no banco, por qualquer caminho de escrita
+ * (controller, importação em lote, etc.). Consumidores que mantêm estado derivado devem escutá-lo com
+ * {@code @TransactionalEventListener}, para reagir apenas a transações confirmadas.
+ */
+public record ProductChangedEvent(UUID idProduct, Operation operation, String name, BigDecimal value, long version) {
+
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,70 @@
+package com.breno.springboot.events;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.breno.springboot.events.ProductChangedEvent.Operation;
+import com.breno.springboot.models.ProductModel;
+import com.breno.springboot.services.ProductRevisionService;
+import com.breno.springboot.services.ProductShards;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+// Listener JPA do ProductModel; o Hibernate obtém esta instância do contexto do Spring
+@Component
+public class ProductEntityListener {
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    // Obtido só no uso: o serviço depende do EntityManagerFactory, que é quem cria este listener
+    @Autowired
+    ObjectProvider<ProductRevisionService> revisionService;
+
+    @Autowired
+    ObjectProvider<ProductShards> productShards;
+
+    @PrePersist
+    @PreUpdate
+    void beforeWrite(ProductModel product) {
+        // O Hibernate chama o @PrePersist antes de ler o ID atribuído; com sharding, o ID decide o shard do produto
+        if (product.getIdProduct() == null) {
+            ProductShards shards = productShards.getIfAvailable();
+            product.setIdProduct(shards != null ? shards.newId() : UUID.randomUUID());
+        }
+        ProductRevisionService revisions = revisionService.getIfAvailable();
+        if (revisions != null) {
+            product.setRevision(revisions.next());
+        }
+    }
+
+    @PostPersist
+    void afterInsert(ProductModel product) {
+        publish(product, Operation.CREATED);
+    }
+
+    // A remoção lógica (deleted = true) é um UPDATE, mas para os consumidores é uma remoção
+    @PostUpdate
+    void afterUpdate(ProductModel product) {
+        publish(product, product.isDeleted() ? Operation.DELETED : Operation.UPDATED);
+    }
+
+    @PostRemove
+    void afterDelete(ProductModel product) {
+        publish(product, Operation.DELETED);
+    }
+
+    private void publish(ProductModel product, Operation operation) {
+        eventPublisher.publishEvent(
+                new ProductChangedEvent(product.getIdProduct(), operation, product.getName(), product.getValue(),
+                        product.getVersion()));
+    }
+}
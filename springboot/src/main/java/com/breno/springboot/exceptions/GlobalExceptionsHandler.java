@@ -4,6 +4,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
@@ -31,6 +32,53 @@ public class GlobalExceptionsHandler extends ResponseEntityExceptionHandler{
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Token validation error: " + ex.getMessage());
     }
 
+    // Tratar cursor de paginação inválido ou adulterado
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursorException(InvalidCursorException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor: " + ex.getMessage());
+    }
+
+    // Projeção (fields=) com um campo que não existe
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<String> handleInvalidFieldsException(InvalidFieldsException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid fields: " + ex.getMessage());
+    }
+
+    // Sincronização incremental de uma revisão cujos tombstones já foram expurgados: a réplica recomeça do zero
+    @ExceptionHandler(ResyncRequiredException.class)
+    public ResponseEntity<String> handleResyncRequiredException(ResyncRequiredException ex) {
+        return ResponseEntity.status(HttpStatus.GONE).body("Resync required: " + ex.getMessage());
+    }
+
+    @ExceptionHandler(UnsupportedExportFormatException.class)
+    public ResponseEntity<String> handleUnsupportedExportFormatException(UnsupportedExportFormatException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unsupported export format: " + ex.getMessage());
+    }
+
+    // Sem conexão disponível (pool/bulkhead saturado): indica sobrecarga temporária em vez de erro interno
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<String> handleCannotCreateTransactionException(CannotCreateTransactionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Service temporarily overloaded, please retry.");
+    }
+
+    // Pool de hashing de senhas saturado: recusa rápida em vez de enfileirar sem limite
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<String> handleHashingCapacityExceededException(HashingCapacityExceededException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage() + ", please retry.");
+    }
+
+    // Fila de gravação (write-behind) cheia: o cliente deve tentar novamente em instantes
+    @ExceptionHandler(WriteQueueFullException.class)
+    public ResponseEntity<String> handleWriteQueueFullException(WriteQueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage() + ", please retry.");
+    }
+
     //Retornar resposta correta para erros de forbidden
     // Tratar exceção de acesso proibido (403 Forbidden)
     @ExceptionHandler(AccessDeniedException.class)
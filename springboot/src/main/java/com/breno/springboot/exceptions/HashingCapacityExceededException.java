@@ -0,0 +1,8 @@
+package com.breno.springboot.exceptions;
+
+public class HashingCapacityExceededException extends RuntimeException {
+
+    public HashingCapacityExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.breno.springboot.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
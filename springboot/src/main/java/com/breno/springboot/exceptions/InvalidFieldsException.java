@@ -0,0 +1,8 @@
+package com.breno.springboot.exceptions;
+
+public class InvalidFieldsException extends RuntimeException {
+
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
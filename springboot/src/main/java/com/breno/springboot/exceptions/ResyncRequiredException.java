@@ -0,0 +1,8 @@
+package com.breno.springboot.exceptions;
+
+public class ResyncRequiredException extends RuntimeException {
+
+    public ResyncRequiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.breno.springboot.exceptions;
+
+// Token válido (assinatura e expiração), mas revogado por logout ou pela revogação dos tokens do usuário
+public class TokenRevokedException extends TokenValidationException {
+    public TokenRevokedException(String message) {
+        super(message, null);
+    }
+}
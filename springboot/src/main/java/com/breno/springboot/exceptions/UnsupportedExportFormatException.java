@@ -0,0 +1,8 @@
+package com.breno.springboot.exceptions;
+
+public class UnsupportedExportFormatException extends RuntimeException {
+
+    public UnsupportedExportFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.breno.springboot.exceptions;
+
+public class WriteQueueFullException extends RuntimeException {
+
+    public WriteQueueFullException(String message) {
+        super(message);
+    }
+}
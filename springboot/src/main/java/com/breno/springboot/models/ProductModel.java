@@ -2,32 +2,47 @@ package com.breno.springboot.models;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.UUID;
 
-import org.springframework.hateoas.RepresentationModel;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import com.breno.springboot.events.ProductEntityListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "TB_PRODUCTS")
+@EntityListeners(ProductEntityListener.class)
+@Table(name = "TB_PRODUCTS", indexes = {
+        // Índice que sustenta a paginação keyset por (name, idProduct)
+        @Index(name = "IDX_PRODUCTS_NAME_ID", columnList = "name, id_product"),
+        // Sincronização incremental (GET /products/delta) por (revision, idProduct)
+        @Index(name = "IDX_PRODUCTS_REVISION_ID", columnList = "revision, id_product")
+})
+// Produtos removidos ficam como marcadores (tombstones) para a sincronização; as consultas JPA não os enxergam
+@SQLRestriction("deleted = false")
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
-public class ProductModel extends RepresentationModel<ProductModel> implements Serializable {
+public class ProductModel implements Serializable {
     private static final long serialVersionUID = 1L; // Versão da serialização
 
+    // UUID gerado pela aplicação no persist (ProductEntityListener): não depende do banco (IDENTITY), o que permite
+    // inserts em lote, e com sharding é sorteado para cair no shard em que o produto é gravado
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID idProduct;
 
     @Schema(example = "Laptop", description = "Product name", requiredMode = Schema.RequiredMode.REQUIRED)
@@ -36,4 +51,35 @@ public class ProductModel extends RepresentationModel<ProductModel> implements S
     @Schema(example = "8000.00", description = "Product price", requiredMode = Schema.RequiredMode.REQUIRED)
     private BigDecimal value;
 
+    // Incrementada pelo Hibernate a cada alteração; base do ETag e do controle de concorrência otimista (If-Match).
+    // O default 0 permite adicionar a coluna em tabelas já populadas
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonIgnore
+    private long version;
+
+    // Data da última gravação, enviada como Last-Modified
+    @UpdateTimestamp
+    @JsonIgnore
+    private Instant updatedAt;
+
+    // Revisão global da última gravação (inclusive a remoção), atribuída pelo ProductEntityListener
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonIgnore
+    private long revision;
+
+    // Remoção lógica: a linha continua no banco como marcador para GET /products/delta
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    @JsonIgnore
+    private boolean deleted;
+
+    public ProductModel(UUID idProduct, String name, BigDecimal value) {
+        this.idProduct = idProduct;
+        this.name = name;
+        this.value = value;
+    }
+
 }
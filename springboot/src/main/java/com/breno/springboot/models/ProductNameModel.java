@@ -0,0 +1,31 @@
+package com.breno.springboot.models;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// Nome de produto reservado por um cadastro (ProductNameReservations), no shard 0
+@Entity
+@Table(name = "TB_PRODUCT_NAMES")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductNameModel {
+
+    @Id
+    private String name;
+
+    // Identifica quem reservou: só ele libera a reserva, e a tomada de uma reserva abandonada compara o token
+    @Column(nullable = false)
+    private UUID token;
+
+    @Column(nullable = false)
+    private Instant reservedAt;
+}
@@ -0,0 +1,30 @@
+package com.breno.springboot.models;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// Estado da sincronização incremental (GET /products/delta): uma única linha, no shard 0
+@Entity
+@Table(name = "TB_PRODUCT_SYNC")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSyncModel {
+
+    public static final int ID = 1;
+
+    @Id
+    private int id;
+
+    // Maior revisão entre os tombstones já expurgados; um since abaixo dela exige uma carga completa
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long purgedRevision;
+}
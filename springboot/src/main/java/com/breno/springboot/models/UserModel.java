@@ -1,17 +1,21 @@
 package com.breno.springboot.models;
 
 import java.util.Collection;
-import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
 
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -19,17 +23,19 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "TB_USERS")
+@Table(name = "TB_USERS", indexes = {
+        // Busca por login a cada autenticação; no PostgreSQL a migração V5 também inclui id e role no índice
+        @Index(name = "IDX_USERS_LOGIN", columnList = "login", unique = true)
+})
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(of = "id")
 public class UserModel implements UserDetails {
 
-    // Depois trocar para UUID.
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    private UUID id;
 
     @Schema(example = "Mark", description = "Username of the user", requiredMode = Schema.RequiredMode.REQUIRED)
     private String login;
@@ -39,23 +45,26 @@ public class UserModel implements UserDetails {
 
     private UserRole role;
 
+    // Versão dos tokens do usuário, gravada no token; incrementá-la revoga todos os tokens já emitidos
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int tokenVersion;
+
     public UserModel(String login, String password, UserRole role){
-        this.login = login;
+        this.login = normalizeLogin(login);
         this.password = password;
         this.role = role;
     }
 
+    // Login sem diferenciar maiúsculas nem espaços nas pontas: é assim que ele é gravado e buscado
+    public static String normalizeLogin(String login) {
+        return login == null ? null : login.trim().toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        // Verifica o papel (role) do usuário
-        if (this.role == UserRole.ADMIN) {
-            // Se o usuário for ADMIN, ele terá permissões de ADMIN e USER.
-            return List.of(
-                    new SimpleGrantedAuthority("ROLE_ADMIN"),
-                    new SimpleGrantedAuthority("ROLE_USER"));
-        }
-        // Se o usuário não for ADMIN, ele terá apenas a permissão de USER.
-        return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        // Permissões definidas pelo papel (role) do usuário
+        return this.role.getAuthorities();
     }
 
     @Override
@@ -1,17 +1,29 @@
 package com.breno.springboot.models;
 
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
 public enum UserRole {
-    ADMIN("admin"),
-    USER("user");
+    // ADMIN tem permissões de ADMIN e USER; USER apenas de USER
+    ADMIN("admin", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER"))),
+    USER("user", List.of(new SimpleGrantedAuthority("ROLE_USER")));
 
     private String role;
+    private List<GrantedAuthority> authorities;
 
-    UserRole(String role) {
+    UserRole(String role, List<GrantedAuthority> authorities) {
         this.role = role;
+        this.authorities = authorities;
     }
     
     public String getRole(){
         return this.role;
     }
 
+    public List<GrantedAuthority> getAuthorities() {
+        return this.authorities;
+    }
+
 }
@@ -0,0 +1,23 @@
+package com.breno.springboot.repositories;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.breno.springboot.models.ProductNameModel;
+
+public interface ProductNameRepository extends JpaRepository<ProductNameModel, String> {
+
+    // Troca o dono da reserva só se ela ainda for a mesma que foi lida: de duas tomadas simultâneas, uma vence
+    @Modifying
+    @Query("UPDATE ProductNameModel n SET n.token = :token, n.reservedAt = :reservedAt "
+            + "WHERE n.name = :name AND n.token = :previous")
+    int takeOver(String name, UUID previous, UUID token, Instant reservedAt);
+
+    @Modifying
+    @Query("DELETE FROM ProductNameModel n WHERE n.name = :name AND n.token = :token")
+    int release(String name, UUID token);
+}
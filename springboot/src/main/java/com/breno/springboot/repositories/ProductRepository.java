@@ -1,18 +1,87 @@
 package com.breno.springboot.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.breno.springboot.dtos.ProductAggregateDTO;
+import com.breno.springboot.dtos.ProductRowDTO;
+import com.breno.springboot.dtos.ProductVersionDTO;
 import com.breno.springboot.models.ProductModel;
 
+import jakarta.persistence.QueryHint;
+
+// Consultas em transações somente leitura: com réplicas (api.datasource.replicas.enabled) elas vão para uma réplica
 @Repository
-public interface ProductRepository extends JpaRepository<ProductModel, UUID> {
+@Transactional(readOnly = true)
+public interface ProductRepository extends JpaRepository<ProductModel, UUID>, JpaSpecificationExecutor<ProductModel> {
 
     boolean existsByName(String name);
 
     Optional<ProductModel> findByName(String name);
 
+    // Verificação de nomes em conjunto, usada na importação em lote (uma consulta por bloco de nomes)
+    @Query("SELECT p.name FROM ProductModel p WHERE p.name IN :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+
+    // Primeira página da listagem keyset, ordenada por (name, idProduct)
+    @Query("SELECT p FROM ProductModel p ORDER BY p.name ASC, p.idProduct ASC")
+    List<ProductModel> findFirstPage(Limit limit);
+
+    // Páginas seguintes: busca a partir do último (name, idProduct) entregue, sem OFFSET
+    @Query("""
+            SELECT p FROM ProductModel p
+            WHERE p.name > :name OR (p.name = :name AND p.idProduct > :idProduct)
+            ORDER BY p.name ASC, p.idProduct ASC
+            """)
+    List<ProductModel> findPageAfter(@Param("name") String name, @Param("idProduct") UUID idProduct, Limit limit);
+
+    // Versões usadas nas requisições condicionais (If-None-Match), sem carregar nem serializar os produtos
+    @Query("SELECT new com.breno.springboot.dtos.ProductVersionDTO(p.idProduct, p.version, p.updatedAt) FROM ProductModel p WHERE p.idProduct = :idProduct")
+    Optional<ProductVersionDTO> findVersionById(@Param("idProduct") UUID idProduct);
+
+    @Query("""
+            SELECT new com.breno.springboot.dtos.ProductVersionDTO(p.idProduct, p.version, p.updatedAt)
+            FROM ProductModel p
+            ORDER BY p.name ASC, p.idProduct ASC
+            """)
+    List<ProductVersionDTO> findFirstPageVersions(Limit limit);
+
+    @Query("""
+            SELECT new com.breno.springboot.dtos.ProductVersionDTO(p.idProduct, p.version, p.updatedAt)
+            FROM ProductModel p
+            WHERE p.name > :name OR (p.name = :name AND p.idProduct > :idProduct)
+            ORDER BY p.name ASC, p.idProduct ASC
+            """)
+    List<ProductVersionDTO> findPageVersionsAfter(@Param("name") String name, @Param("idProduct") UUID idProduct,
+            Limit limit);
+
+    // Percorre toda a tabela com um cursor JDBC; deve ser consumido dentro de uma transação e fechado ao final
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT new com.breno.springboot.dtos.ProductRowDTO(p.idProduct, p.name, p.value)
+            FROM ProductModel p
+            ORDER BY p.name ASC, p.idProduct ASC
+            """)
+    Stream<ProductRowDTO> streamAllRows();
+
+    @Query("""
+            SELECT new com.breno.springboot.dtos.ProductAggregateDTO(COUNT(p.value), SUM(p.value), MIN(p.value), MAX(p.value))
+            FROM ProductModel p
+            """)
+    ProductAggregateDTO aggregateValues();
+
 }
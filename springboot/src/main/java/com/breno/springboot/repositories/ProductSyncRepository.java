@@ -0,0 +1,22 @@
+package com.breno.springboot.repositories;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.breno.springboot.models.ProductSyncModel;
+
+public interface ProductSyncRepository extends JpaRepository<ProductSyncModel, Integer> {
+
+    @Query("SELECT s.purgedRevision FROM ProductSyncModel s WHERE s.id = :id")
+    Optional<Long> findPurgedRevision(int id);
+
+    // Só avança: expurgos simultâneos de várias instâncias não fazem o limite voltar
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProductSyncModel s SET s.purgedRevision = :revision WHERE s.id = :id AND s.purgedRevision < :revision")
+    int raisePurgedRevision(int id, long revision);
+}
@@ -1,12 +1,42 @@
 package com.breno.springboot.repositories;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.breno.springboot.dtos.AuthenticatedUserDTO;
+import com.breno.springboot.dtos.UserTokenVersionDTO;
 import com.breno.springboot.models.UserModel;
 
 
-public interface UserRepository extends JpaRepository<UserModel, String>{
+// O login é sempre buscado já normalizado (UserModel.normalizeLogin)
+// Consultas em transações somente leitura: com réplicas (api.datasource.replicas.enabled) elas vão para uma réplica
+@Transactional(readOnly = true)
+public interface UserRepository extends JpaRepository<UserModel, UUID>{
     
     UserDetails findByLogin(String login);
+
+    boolean existsByLogin(String login);
+
+    // Projeção usada pelo SecurityFilter: sem a senha e sem montar a entidade
+    @Query("SELECT new com.breno.springboot.dtos.AuthenticatedUserDTO(u.id, u.login, u.role) FROM UserModel u WHERE u.login = :login")
+    Optional<AuthenticatedUserDTO> findAuthenticatedUser(String login);
+
+    // Só usuários que já tiveram tokens revogados; os demais estão na versão 0
+    @Query("SELECT new com.breno.springboot.dtos.UserTokenVersionDTO(u.login, u.tokenVersion) FROM UserModel u WHERE u.tokenVersion > 0")
+    List<UserTokenVersionDTO> findTokenVersions();
+
+    @Query("SELECT u.tokenVersion FROM UserModel u WHERE u.login = :login")
+    Optional<Integer> findTokenVersion(String login);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserModel u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.login = :login")
+    int incrementTokenVersion(String login);
 }
@@ -0,0 +1,125 @@
+package com.breno.springboot.security;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite de requisições simultâneas que se ajusta pela latência (algoritmo de gradiente, no estilo do
+ * Gradient2 do concurrency-limits da Netflix).
+ * A cada janela de 100 ms, a latência média da janela é comparada com uma média de longo prazo: enquanto
+ * ela fica abaixo de tolerance vezes essa base, o limite cresce em sqrt(limite); quando sobe, o limite é
+ * multiplicado por tolerance × base/atual (no mínimo 0.5). As requisições acima do limite são recusadas na hora,
+ * em vez de esperar por conexões do pool e aumentar a latência de todas.
+ */
+final class AdaptiveConcurrencyLimiter {
+
+    private static final long WINDOW_NANOS = 100_000_000L;
+    // Peso de cada janela na média de longo prazo (~10 s de memória com janelas de 100 ms)
+    private static final double LONG_TERM_WEIGHT = 0.01;
+    // Peso enquanto a latência está acima da tolerância (~100 s de memória)
+    private static final double CONGESTED_WEIGHT = 0.001;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private double longTermRtt;
+    private double estimatedLimit;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this(initialLimit, minLimit, maxLimit, tolerance, System::nanoTime);
+    }
+
+    // Relógio injetável: os testes fecham as janelas sem esperar 100 ms de verdade
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+            LongSupplier nanoClock) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+        this.estimatedLimit = this.limit;
+        this.nanoClock = nanoClock;
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    // Reserva uma vaga; false significa que a requisição deve ser recusada
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera a vaga e registra a latência observada.
+     * @param inFlightAtStart requisições simultâneas quando esta começou (indica se o limite estava em uso).
+     */
+    void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        sample(rttNanos, inFlightAtStart);
+    }
+
+    // Libera a vaga sem amostra (ex.: resposta assíncrona, cuja duração não foi medida aqui)
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void sample(long rttNanos, int inFlightAtStart) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        long now = nanoClock.getAsLong();
+        if (now - windowStart < WINDOW_NANOS || windowSamples < 10) {
+            return;
+        }
+
+        double shortTermRtt = (double) windowRttSum / windowSamples;
+        if (longTermRtt == 0) {
+            longTermRtt = shortTermRtt;
+        } else {
+            // Sob congestionamento a base quase não acompanha a latência, senão a sobrecarga viraria o novo normal;
+            // ainda assim ela sobe devagar, para aceitar uma mudança permanente (ex.: banco mais lento)
+            boolean congested = shortTermRtt > tolerance * longTermRtt;
+            double weight = congested ? CONGESTED_WEIGHT : LONG_TERM_WEIGHT;
+            longTermRtt = longTermRtt * (1 - weight) + shortTermRtt * weight;
+            // Latência já normalizada abaixo da base: a base desce rápido para não mascarar um novo aumento
+            if (longTermRtt / shortTermRtt > 2) {
+                longTermRtt *= 0.95;
+            }
+        }
+
+        // Sem uso de pelo menos metade do limite não há evidência para aumentá-lo
+        if (windowMaxInFlight >= estimatedLimit / 2) {
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longTermRtt / shortTermRtt));
+            double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            // Suaviza para evitar oscilação entre janelas
+            estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * 0.8 + newLimit * 0.2));
+            limit = (int) estimatedLimit;
+        }
+
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
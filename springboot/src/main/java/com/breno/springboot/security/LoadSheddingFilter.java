@@ -0,0 +1,80 @@
+package com.breno.springboot.security;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Descarte de carga: primeiro filtro da cadeia de segurança, antes mesmo da verificação do JWT.
+ * Acima do limite de concorrência calculado pelo AdaptiveConcurrencyLimiter, responde 503 com Retry-After
+ * sem gastar HMAC, consulta ao banco ou conexão do pool. Health e scrape do Prometheus nunca são descartados.
+ */
+@Component
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final MeterRegistry meterRegistry;
+
+    public LoadSheddingFilter(
+            @Value("${api.load-shedding.enabled:false}") boolean enabled,
+            @Value("${api.load-shedding.initial-limit:20}") int initialLimit,
+            @Value("${api.load-shedding.min-limit:10}") int minLimit,
+            @Value("${api.load-shedding.max-limit:1000}") int maxLimit,
+            @Value("${api.load-shedding.tolerance:2.0}") double tolerance,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("api.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("api.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently admitted by the concurrency limiter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String requestURI = request.getRequestURI();
+        return !enabled || requestURI.startsWith("/actuator/health") || requestURI.startsWith("/actuator/prometheus");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            meterRegistry.counter("api.requests.throttled", "limiter", "concurrency").increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.getWriter().write("Service temporarily overloaded, please retry.");
+            return;
+        }
+
+        int inFlightAtStart = limiter.getInFlight();
+        long start = System.nanoTime();
+        boolean sampled = false;
+        try {
+            filterChain.doFilter(request, response);
+            // Respostas em streaming continuam depois daqui; a duração medida não representaria a requisição
+            sampled = !request.isAsyncStarted();
+        } finally {
+            if (sampled) {
+                limiter.release(System.nanoTime() - start, inFlightAtStart);
+            } else {
+                limiter.release();
+            }
+        }
+    }
+}
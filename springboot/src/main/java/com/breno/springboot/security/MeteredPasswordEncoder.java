@@ -0,0 +1,47 @@
+package com.breno.springboot.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Decorador que mede a latência de cada hash/verificação de senha (histograma "auth.password.hashing",
+ * com a tag operation=encode|matches). Com BCrypt essa latência cresce exponencialmente com o custo configurado.
+ */
+public class MeteredPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public MeteredPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = timer("encode", meterRegistry);
+        this.matchesTimer = timer("matches", meterRegistry);
+    }
+
+    private static Timer timer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.password.hashing")
+                .description("Time spent hashing or verifying a password")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Boolean matches = matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+        return Boolean.TRUE.equals(matches);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
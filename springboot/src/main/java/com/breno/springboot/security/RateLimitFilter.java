@@ -0,0 +1,108 @@
+package com.breno.springboot.security;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.breno.springboot.models.UserRole;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limite de requisições por cliente, aplicado logo depois do SecurityFilter.
+ * Requisições autenticadas usam um balde por usuário (subject do JWT), com a cota do seu papel (ADMIN ou USER);
+ * "/auth/*" usa um balde por IP, já que ainda não há usuário; atrás de um proxy o IP só é o do cliente com
+ * server.forward-headers-strategy configurado. Demais rotas públicas (health, Swagger) não são limitadas.
+ * Acima da cota responde 429 com Retry-After. Os baldes ociosos expiram do cache.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private record Quota(double requestsPerSecond, int burst) {
+    }
+
+    private final boolean enabled;
+    private final Quota adminQuota;
+    private final Quota userQuota;
+    private final Quota authQuota;
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(
+            @Value("${api.ratelimit.enabled:false}") boolean enabled,
+            @Value("${api.ratelimit.admin.requests-per-second:100}") double adminRate,
+            @Value("${api.ratelimit.admin.burst:200}") int adminBurst,
+            @Value("${api.ratelimit.user.requests-per-second:20}") double userRate,
+            @Value("${api.ratelimit.user.burst:40}") int userBurst,
+            @Value("${api.ratelimit.auth.requests-per-second:5}") double authRate,
+            @Value("${api.ratelimit.auth.burst:10}") int authBurst,
+            @Value("${api.ratelimit.max-clients:100000}") long maxClients,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.adminQuota = new Quota(adminRate, adminBurst);
+        this.userQuota = new Quota(userRate, userBurst);
+        this.authQuota = new Quota(authRate, authBurst);
+        // Um balde ocioso por mais de um minuto já estaria cheio de novo; pode ser descartado
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofMinutes(1))
+                .build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain)
+            throws ServletException, IOException {
+        String key;
+        Quota quota;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetails user) {
+            UserRole role = isAdmin(authentication) ? UserRole.ADMIN : UserRole.USER;
+            quota = role == UserRole.ADMIN ? adminQuota : userQuota;
+            // O papel faz parte da chave: uma mudança de papel passa a usar a nova cota
+            key = role.getRole() + ":" + user.getUsername();
+        } else if (request.getRequestURI().startsWith("/auth/")) {
+            quota = authQuota;
+            key = "ip:" + request.getRemoteAddr();
+        } else {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long wait = buckets.get(key, k -> new TokenBucket(quota.requestsPerSecond(), quota.burst()))
+                .tryAcquire(System.nanoTime());
+        if (wait > 0) {
+            meterRegistry.counter("api.requests.throttled", "limiter", "rate").increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(TokenBucket.retryAfterSeconds(wait)));
+            response.getWriter().write("Too many requests, please retry later.");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+}
@@ -1,6 +1,7 @@
 package com.breno.springboot.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -16,6 +17,9 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfiguration {
@@ -24,6 +28,12 @@ public class SecurityConfiguration {
     @Autowired
     SecurityFilter securityFilter;
 
+    @Autowired
+    RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    LoadSheddingFilter loadSheddingFilter;
+
     private static final String SWAGGER_LIST[] = { "/swagger-ui/**",
      "/v3/api-docs/**",
      "/swagger-resources/**"
@@ -35,18 +45,31 @@ public class SecurityConfiguration {
         return httpSecurity.csrf(csrf -> csrf.disable()).
         sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)).
         authorizeHttpRequests(authorize -> authorize
+            // Respostas em streaming terminam num dispatch ASYNC; a requisição original já foi autorizada
+            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
             .requestMatchers(HttpMethod.POST, "/auth/login").permitAll()
             .requestMatchers(HttpMethod.POST, "/auth/register").permitAll()
+            .requestMatchers(HttpMethod.POST, "/auth/logout").permitAll() // O próprio endpoint verifica o token que revoga
+            .requestMatchers("/auth/users/**").hasRole("ADMIN") // Revogação dos tokens de um usuário
             .requestMatchers(HttpMethod.POST, "/products").hasRole("ADMIN")
+            .requestMatchers(HttpMethod.POST, "/products/bulk").hasRole("ADMIN")
+            .requestMatchers(HttpMethod.GET, "/products/export").hasRole("ADMIN") // Exportação do catálogo inteiro
             .requestMatchers(HttpMethod.PUT, "/products/**").hasRole("ADMIN") // Restringir PUT a ADMIN
             .requestMatchers(HttpMethod.DELETE, "/products/**").hasRole("ADMIN") // Restringir DELETE a ADMIN
+            .requestMatchers("/shards/**").hasRole("ADMIN") // Manutenção dos shards (rebalanceamento)
             .requestMatchers(SWAGGER_LIST).permitAll()
+            .requestMatchers("/actuator/health/**").permitAll()
+            .requestMatchers(HttpMethod.GET, "/actuator/prometheus").hasAnyRole("ADMIN", "METRICS") // Scrape do Prometheus: token de ADMIN ou o token fixo (api.metrics.scrape-token)
+            .requestMatchers("/actuator/**").hasRole("ADMIN") // Métricas e demais endpoints só para ADMIN
             .anyRequest().authenticated()
             ).exceptionHandling(exceptionHandling -> exceptionHandling
             // Define o handler para AccessDeniedException (403 Forbidden)
             .accessDeniedHandler(accessDeniedHandler())
             )
         .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class)
+        // Descarte de carga antes da autenticação; limite por cliente logo depois dela (precisa do usuário)
+        .addFilterBefore(loadSheddingFilter, SecurityFilter.class)
+        .addFilterAfter(rateLimitFilter, SecurityFilter.class)
         .build();
     }
 
@@ -64,8 +87,10 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${api.security.bcrypt.strength:10}") int strength,
+            MeterRegistry meterRegistry) {
+        // Custo do BCrypt configurável: cada +1 dobra o tempo de hash e de verificação
+        return new MeteredPasswordEncoder(new BCryptPasswordEncoder(strength), meterRegistry);
     }
 
 }
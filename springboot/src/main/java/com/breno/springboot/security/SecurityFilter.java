@@ -1,16 +1,33 @@
 package com.breno.springboot.security;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.breno.springboot.config.ReadRouting;
+import com.breno.springboot.exceptions.TokenRevokedException;
+import com.breno.springboot.exceptions.TokenValidationException;
+import com.breno.springboot.models.UserModel;
 import com.breno.springboot.repositories.UserRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,48 +36,114 @@ import jakarta.servlet.http.HttpServletResponse;
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
 
+    static final String SCRAPE_PRINCIPAL = "prometheus";
+    static final List<GrantedAuthority> SCRAPE_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_METRICS"));
+
     @Autowired
     TokenService tokenService;
 
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    TokenAuthenticationCache tokenCache;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // Token fixo do Prometheus, aceito só em "/actuator/prometheus"; vazio, o scrape exige um token de ADMIN
+    @Value("${api.metrics.scrape-token:}")
+    String scrapeToken;
+
+    // "auth.filter": autenticação completa de uma requisição, pelo cache (source=cache) ou verificando o token (source=token)
+    private Timer cachedAuthenticationTimer;
+    private Timer verifiedAuthenticationTimer;
+    // "auth.user.lookup": consulta do usuário de um token recém-verificado
+    private Timer userLookupTimer;
+
+    @PostConstruct
+    void init() {
+        this.cachedAuthenticationTimer = authenticationTimer("cache");
+        this.verifiedAuthenticationTimer = authenticationTimer("token");
+        this.userLookupTimer = Timer.builder("auth.user.lookup")
+                .description("Time spent loading the user of a verified token")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Timer authenticationTimer(String source) {
+        return Timer.builder("auth.filter")
+                .description("Time spent authenticating a request in SecurityFilter")
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
             FilterChain filterChain)
             throws ServletException, IOException {
         String requestURI = request.getRequestURI(); // Obtém o URI da requisição
 
-        // Verifica se o endpoint é "/products" ou se o método é POST, PUT, DELETE para
-        // "/products"
-        if (requestURI.startsWith("/products")) {
+        // Verifica se o endpoint é "/products" (qualquer método) ou um endpoint protegido do actuator
+        if (requiresToken(requestURI)) {
             var token = this.recoverToken(request);
-            if (token != null) {
+            if (token != null && isScrapeToken(requestURI, token)) {
+                // Scrape do Prometheus com o token fixo: papel METRICS, sem verificar JWT nem consultar o banco
+                SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken
+                        .authenticated(SCRAPE_PRINCIPAL, null, SCRAPE_AUTHORITIES));
+            } else if (token != null) {
                 try {
-                    var login = tokenService.validateToken(token);
-                    if (login != null) { // Verifica se o token é válido
-                        UserDetails user = userRepository.findByLogin(login);
-                        if (user != null) {
-                            // Cria o objeto de autenticação com as credenciais do usuário
-                            var authentication = new UsernamePasswordAuthenticationToken(user, null,
-                                    user.getAuthorities());
-                            // Define o contexto de segurança com o usuário autenticado
-                            SecurityContextHolder.getContext().setAuthentication(authentication);
+                    long start = System.nanoTime();
+                    // Reaproveita a verificação de um token já visto, evitando HMAC e consulta ao banco
+                    UserDetails user = tokenCache.get(token);
+                    Timer authenticationTimer = cachedAuthenticationTimer;
+                    if (user == null) {
+                        authenticationTimer = verifiedAuthenticationTimer;
+                        long revocationEpoch = tokenRevocationService.epoch();
+                        DecodedJWT jwt = tokenService.verify(token); // Lança exceção se o token for inválido
+                        if (tokenRevocationService.isRevoked(jwt)) {
+                            throw new TokenRevokedException("Token revoked");
+                        }
+                        // Modo sem estado: o usuário vem das claims; senão (ou em tokens sem elas), do banco
+                        user = tokenService.authenticatedUser(jwt);
+                        if (user == null) {
+                            // Tokens emitidos antes da normalização do login podem trazer maiúsculas no subject
+                            String login = UserModel.normalizeLogin(jwt.getSubject());
+                            user = userLookupTimer.record(() -> userRepository.findAuthenticatedUser(login)
+                                    // Com réplicas de leitura, o usuário pode ter sido registrado há instantes
+                                    .or(() -> ReadRouting.onPrimary(() -> userRepository.findAuthenticatedUser(login)))
+                                    .orElse(null));
                         }
+                        // Uma revogação durante a verificação limpou o cache; não guarda um resultado anterior a ela
+                        if (user != null && tokenRevocationService.epoch() == revocationEpoch) {
+                            tokenCache.put(token, user, jwt.getExpiresAtAsInstant());
+                        }
+                    }
+                    authenticationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    if (user == null) {
+                        // Sem autenticação a requisição é negada adiante, pela autorização
+                        countRejection("unknown_user");
                     } else {
-                        // Token inválido
-                        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                        response.getWriter().write("Invalid token.");
-                        return; // Interrompe o filtro
+                        // Cria o objeto de autenticação com as credenciais do usuário
+                        var authentication = new UsernamePasswordAuthenticationToken(user, null,
+                                user.getAuthorities());
+                        // Define o contexto de segurança com o usuário autenticado
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
                     }
                 } catch (Exception e) {
                     // Erro ao validar o token
+                    countRejection(rejectionReason(e));
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                     response.getWriter().write("Token validation error: " + e.getMessage());
                     return; // Interrompe o filtro
                 }
             } else {
                 // Token não fornecido
+                countRejection("missing_token");
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.getWriter().write("Token is missing.");
                 return; // Interrompe o filtro
@@ -70,8 +153,40 @@ public class SecurityFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // "auth.requests.rejected": requisições recusadas pelo filtro, por motivo
+    private void countRejection(String reason) {
+        meterRegistry.counter("auth.requests.rejected", "reason", reason).increment();
+    }
+
+    private static String rejectionReason(Exception e) {
+        if (!(e instanceof TokenValidationException)) {
+            return "error";
+        }
+        if (e instanceof TokenRevokedException) {
+            return "revoked_token";
+        }
+        if (e.getCause() instanceof TokenExpiredException) {
+            return "expired_token";
+        }
+        return e.getCause() instanceof JWTDecodeException ? "malformed_token" : "invalid_token";
+    }
+
+    // "/actuator/health" continua público para probes de liveness/readiness
+    private boolean requiresToken(String requestURI) {
+        return requestURI.startsWith("/products") || requestURI.startsWith("/auth/users")
+                || requestURI.startsWith("/shards")
+                || (requestURI.startsWith("/actuator") && !requestURI.startsWith("/actuator/health"));
+    }
+
+    // Comparação em tempo constante, para o tempo de resposta não revelar o token aos poucos
+    private boolean isScrapeToken(String requestURI, String token) {
+        return !scrapeToken.isEmpty() && requestURI.startsWith("/actuator/prometheus")
+                && MessageDigest.isEqual(scrapeToken.getBytes(StandardCharsets.UTF_8),
+                        token.getBytes(StandardCharsets.UTF_8));
+    }
+
     // Método para extrair o token do cabeçalho "Authorization"
-    private String recoverToken(HttpServletRequest request) {
+    String recoverToken(HttpServletRequest request) {
         var authHeader = request.getHeader("Authorization");
         if (authHeader == null || !authHeader.startsWith("Bearer "))
             return null;
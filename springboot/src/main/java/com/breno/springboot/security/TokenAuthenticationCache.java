@@ -0,0 +1,98 @@
+package com.breno.springboot.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache em memória de tokens já verificados para o usuário correspondente.
+ * Uma requisição repetida com o mesmo bearer token evita tanto a verificação HMAC quanto a consulta
+ * ao banco. Cada entrada expira no menor valor entre o "exp" do token e o TTL máximo configurado,
+ * que limita por quanto tempo uma mudança no usuário (ex.: papel) pode ficar invisível.
+ * Métricas de acerto/falha/despejo ficam disponíveis como "cache.*" com a tag cache=jwt.authentication.
+ */
+@Component
+public class TokenAuthenticationCache {
+
+    private record Entry(UserDetails user, Instant expiresAt) {
+    }
+
+    private final Cache<String, Entry> cache;
+    private final Clock clock;
+
+    @Autowired
+    public TokenAuthenticationCache(
+            @Value("${api.security.token.cache.max-size:10000}") long maxSize,
+            @Value("${api.security.token.cache.max-ttl:5m}") Duration maxTtl,
+            MeterRegistry meterRegistry) {
+        this(maxSize, maxTtl, meterRegistry, Clock.systemUTC(), Ticker.systemTicker());
+    }
+
+    // Relógio (exp dos tokens) e ticker (expiração das entradas) injetáveis: os testes avançam o tempo sem esperar
+    TokenAuthenticationCache(long maxSize, Duration maxTtl, MeterRegistry meterRegistry, Clock clock, Ticker ticker) {
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String token, Entry entry, long currentTime) {
+                        Duration untilExpiration = Duration.between(clock.instant(), entry.expiresAt());
+                        Duration ttl = untilExpiration.compareTo(maxTtl) < 0 ? untilExpiration : maxTtl;
+                        return Math.max(0, ttl.toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(token, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "jwt.authentication");
+    }
+
+    /**
+     * Retorna o usuário associado a um token já verificado, ou null se o token não estiver em cache.
+     */
+    public UserDetails get(String token) {
+        Entry entry = cache.getIfPresent(token);
+        if (entry == null) {
+            return null;
+        }
+        // Proteção extra: nunca devolve uma entrada cujo token já expirou
+        if (!entry.expiresAt().isAfter(clock.instant())) {
+            cache.invalidate(token);
+            return null;
+        }
+        return entry.user();
+    }
+
+    public void put(String token, UserDetails user, Instant expiresAt) {
+        if (expiresAt != null && expiresAt.isAfter(clock.instant())) {
+            cache.put(token, new Entry(user, expiresAt));
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,44 @@
+package com.breno.springboot.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sem lock (GCRA): guarda só o "theoretical arrival time" num AtomicLong.
+ * Cada requisição avança esse instante em um intervalo de emissão (1s / taxa); ela é aceita enquanto o instante
+ * não passar de "agora + burst intervalos", o que equivale a um balde de capacidade burst reabastecido à taxa.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstWindowNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(double requestsPerSecond, int burst) {
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / requestsPerSecond));
+        this.burstWindowNanos = emissionIntervalNanos * Math.max(1, burst);
+    }
+
+    /**
+     * Consome uma ficha.
+     * @return 0 se a requisição foi aceita; senão, quantos nanossegundos esperar até haver uma ficha.
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long wait = next - nowNanos - burstWindowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Espera em segundos inteiros para o Retry-After: arredonda para cima, e nunca 0 (o cliente tentaria na hora)
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+}
@@ -0,0 +1,174 @@
+package com.breno.springboot.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.breno.springboot.dtos.UserTokenVersionDTO;
+import com.breno.springboot.models.UserModel;
+import com.breno.springboot.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Revogação de tokens sem consultar o banco a cada requisição.
+ * - Logout: o ID do token (jti) vai para uma denylist em memória até o token expirar.
+ * - Revogação de todos os tokens de um usuário: incrementa a versão dos tokens dele no banco; tokens com
+ *   versão menor deixam de valer. As versões ficam em memória e são recarregadas a cada refreshInterval, que
+ *   é o atraso máximo para uma revogação feita em outra instância valer nesta (a denylist é só local).
+ * Toda revogação limpa o cache de tokens verificados, para que o próximo uso passe pela verificação.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    TokenAuthenticationCache tokenCache;
+
+    private final Duration refreshInterval;
+    // jti -> expiração do token; a entrada some quando o token expiraria de qualquer forma
+    private final Cache<String, Instant> denylist;
+    // login -> versão atual dos tokens, só dos usuários com versão > 0; substituído inteiro a cada atualização
+    private volatile Map<String, Integer> tokenVersions = Map.of();
+    // Incrementado a cada revogação; o SecurityFilter só guarda no cache verificações que não cruzaram uma
+    private final AtomicLong epoch = new AtomicLong();
+    private final ScheduledExecutorService refresher;
+
+    public TokenRevocationService(
+            @Value("${api.security.token.revocation.refresh-interval:30s}") Duration refreshInterval,
+            MeterRegistry meterRegistry) {
+        this.refreshInterval = refreshInterval;
+        this.denylist = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Instant>() {
+                    @Override
+                    public long expireAfterCreate(String jti, Instant expiresAt, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String jti, Instant expiresAt, long currentTime, long currentDuration) {
+                        return expireAfterCreate(jti, expiresAt, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String jti, Instant expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        Gauge.builder("auth.tokens.denylisted", denylist, Cache::estimatedSize)
+                .description("Logged-out tokens not yet expired")
+                .register(meterRegistry);
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-version-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void init() {
+        refresh();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, refreshInterval.toMillis(), refreshInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public long epoch() {
+        return epoch.get();
+    }
+
+    public boolean isRevoked(DecodedJWT jwt) {
+        if (jwt.getId() != null && denylist.getIfPresent(jwt.getId()) != null) {
+            return true;
+        }
+        int currentVersion = tokenVersions.getOrDefault(UserModel.normalizeLogin(jwt.getSubject()), 0);
+        return TokenService.tokenVersion(jwt) < currentVersion;
+    }
+
+    /**
+     * Revoga um único token (logout).
+     * @return false se o token não tem ID (emitido antes do jti); ele continua valendo até expirar.
+     */
+    public boolean revoke(DecodedJWT jwt) {
+        if (jwt.getId() == null) {
+            return false;
+        }
+        denylist.put(jwt.getId(), jwt.getExpiresAtAsInstant());
+        invalidateVerifiedTokens();
+        return true;
+    }
+
+    /**
+     * Revoga todos os tokens já emitidos para um usuário.
+     * @return false se o usuário não existe.
+     */
+    @Transactional
+    public boolean revokeAll(String login) {
+        String normalizedLogin = UserModel.normalizeLogin(login);
+        if (userRepository.incrementTokenVersion(normalizedLogin) == 0) {
+            return false;
+        }
+        int version = userRepository.findTokenVersion(normalizedLogin).orElse(0);
+        synchronized (this) {
+            Map<String, Integer> versions = new HashMap<>(tokenVersions);
+            versions.merge(normalizedLogin, version, Math::max);
+            tokenVersions = Map.copyOf(versions);
+        }
+        invalidateVerifiedTokens();
+        return true;
+    }
+
+    // Recarrega as versões do banco; como elas só aumentam, nunca volta atrás de uma revogação local recente
+    synchronized void refresh() {
+        Map<String, Integer> versions = new HashMap<>(tokenVersions);
+        for (UserTokenVersionDTO user : userRepository.findTokenVersions()) {
+            versions.merge(user.login(), user.tokenVersion(), Math::max);
+        }
+        if (!versions.equals(tokenVersions)) {
+            tokenVersions = Map.copyOf(versions);
+            invalidateVerifiedTokens();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Mantém as versões conhecidas; a próxima atualização tenta de novo
+            logger.warn("Could not refresh token versions", e);
+        }
+    }
+
+    private void invalidateVerifiedTokens() {
+        epoch.incrementAndGet();
+        tokenCache.invalidateAll();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+}
@@ -3,17 +3,28 @@ package com.breno.springboot.security;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.breno.springboot.dtos.AuthenticatedUserDTO;
 import com.breno.springboot.exceptions.TokenGenerationException;
 import com.breno.springboot.exceptions.TokenValidationException;
 import com.breno.springboot.models.UserModel;
+import com.breno.springboot.models.UserRole;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class TokenService {
@@ -22,6 +33,47 @@ public class TokenService {
     @Value("${api.security.token.secret}")
     private String secret;
 
+    // Claims próprias: versão dos tokens do usuário (sempre) e, no modo sem estado, id, papel e permissões
+    static final String VERSION_CLAIM = "ver";
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLE_CLAIM = "role";
+    static final String AUTHORITIES_CLAIM = "authorities";
+
+    // Modo sem estado: o SecurityFilter autentica pelas claims do token, sem consultar o usuário no banco
+    @Value("${api.security.token.stateless.enabled:false}")
+    private boolean statelessEnabled;
+
+    // Algoritmo e verificador são imutáveis e thread-safe: criados uma única vez na inicialização.
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // Histograma "auth.token" com a tag operation=generate|parse|verify
+    private Timer generateTimer;
+    private Timer parseTimer;
+    private Timer verifyTimer;
+
+    @PostConstruct
+    void init() {
+        this.algorithm = Algorithm.HMAC256(this.secret);
+        this.verifier = JWT.require(this.algorithm)
+            .withIssuer("auth-api") // Verifica se o emissor do token é o esperado.
+            .build();
+        this.generateTimer = timer("generate");
+        this.parseTimer = timer("parse");
+        this.verifyTimer = timer("verify");
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("auth.token")
+            .description("Time spent generating, parsing or verifying a JWT")
+            .tag("operation", operation)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
     /**
      * Gera um token JWT para o usuário fornecido.
      * @param user - Instância de UserModel contendo os detalhes do usuário.
@@ -29,15 +81,23 @@ public class TokenService {
      */
     public String generateToken(UserModel user) {
         try {
-            // Define o algoritmo de assinatura HMAC com o segredo configurado.
-            Algorithm algorithm = Algorithm.HMAC256(this.secret);
-            
             // Cria o token JWT com as informações do emissor, assunto (login do usuário) e data de expiração.
-            String token = JWT.create()
-                .withIssuer("auth-api") // Define o emissor do token.
-                .withSubject(user.getLogin()) // Define o assunto do token (login do usuário).
-                .withExpiresAt(genExpirationDate()) // Define a data de expiração do token.
-                .sign(algorithm); // Assina o token usando o algoritmo HMAC.
+            String token = generateTimer.record(() -> {
+                JWTCreator.Builder builder = JWT.create()
+                    .withIssuer("auth-api") // Define o emissor do token.
+                    .withSubject(user.getLogin()) // Define o assunto do token (login do usuário).
+                    .withJWTId(UUID.randomUUID().toString()) // Identifica o token para o logout (denylist).
+                    .withClaim(VERSION_CLAIM, user.getTokenVersion()) // Versão que a revogação dos tokens do usuário invalida.
+                    .withExpiresAt(genExpirationDate()); // Define a data de expiração do token.
+                if (statelessEnabled && user.getId() != null) {
+                    // Tudo o que a autorização precisa, para não consultar o usuário a cada requisição
+                    builder.withClaim(USER_ID_CLAIM, user.getId().toString())
+                        .withClaim(ROLE_CLAIM, user.getRole().name())
+                        .withClaim(AUTHORITIES_CLAIM, user.getRole().getAuthorities().stream()
+                            .map(authority -> authority.getAuthority()).toList());
+                }
+                return builder.sign(algorithm); // Assina o token usando o algoritmo HMAC.
+            });
 
             return token; // Retorna o token gerado.
         } catch (JWTCreationException exception) {
@@ -52,22 +112,48 @@ public class TokenService {
      * @return String - Login do usuário contido no token, ou uma string vazia se o token for inválido.
      */
     public String validateToken(String token) {
+        return verify(token).getSubject(); // Obtém o assunto (login do usuário) do token.
+    }
+
+    /**
+     * Verifica assinatura, emissor e expiração do token e retorna o JWT decodificado.
+     * @param token - Token JWT a ser validado.
+     * @return DecodedJWT - Token verificado, com acesso ao assunto e à data de expiração.
+     */
+    public DecodedJWT verify(String token) {
         try {
-            // Define o algoritmo de verificação HMAC com o segredo configurado.
-            Algorithm algorithm = Algorithm.HMAC256(this.secret);
-            
-            // Valida o token e retorna o assunto (login do usuário) se o token for válido.
-            return JWT.require(algorithm)
-                .withIssuer("auth-api") // Verifica se o emissor do token é o esperado.
-                .build()
-                .verify(token) // Verifica o token usando o algoritmo configurado.
-                .getSubject(); // Obtém o assunto (login do usuário) do token.
+            // Decodificação (Base64 + JSON) e verificação (HMAC, emissor, expiração) medidas separadamente
+            DecodedJWT decoded = parseTimer.record(() -> JWT.decode(token));
+            return verifyTimer.record(() -> this.verifier.verify(decoded)); // Verifica o token usando o algoritmo configurado.
         } catch (JWTVerificationException e) {
             // Se o token for inválido ou ocorrer um erro na verificação, retorna erro personalizado.
             throw new TokenValidationException("Invalid token", e);
         }
     }
 
+    /**
+     * Usuário autenticado montado só a partir das claims de um token já verificado (modo sem estado).
+     * @return AuthenticatedUserDTO - ou null se o modo está desligado ou o token não traz as claims
+     * (emitido antes de ligá-lo); nesse caso o usuário é buscado no banco.
+     */
+    public AuthenticatedUserDTO authenticatedUser(DecodedJWT jwt) {
+        if (!statelessEnabled) {
+            return null;
+        }
+        String userId = jwt.getClaim(USER_ID_CLAIM).asString();
+        String role = jwt.getClaim(ROLE_CLAIM).asString();
+        if (userId == null || role == null) {
+            return null;
+        }
+        return new AuthenticatedUserDTO(UUID.fromString(userId), jwt.getSubject(), UserRole.valueOf(role));
+    }
+
+    // Versão dos tokens do usuário gravada no token; tokens sem a claim são da versão 0
+    public static int tokenVersion(DecodedJWT jwt) {
+        Integer version = jwt.getClaim(VERSION_CLAIM).asInt();
+        return version == null ? 0 : version;
+    }
+
     /**
      * Gera a data de expiração do token, configurada para 2 horas a partir do momento atual.
      * @return Instant - Data e hora de expiração do token.
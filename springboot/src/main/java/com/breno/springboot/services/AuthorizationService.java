@@ -6,6 +6,8 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.breno.springboot.config.ReadRouting;
+import com.breno.springboot.models.UserModel;
 import com.breno.springboot.repositories.UserRepository;
 
 @Service
@@ -17,7 +19,10 @@ public class AuthorizationService implements UserDetailsService{
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return repository.findByLogin(username);
+        String login = UserModel.normalizeLogin(username);
+        UserDetails user = repository.findByLogin(login);
+        // Com réplicas de leitura, um usuário recém-registrado pode ainda não ter chegado à réplica
+        return user != null ? user : ReadRouting.onPrimary(() -> repository.findByLogin(login));
     }
 
 }
@@ -0,0 +1,134 @@
+package com.breno.springboot.services;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+import com.breno.springboot.dtos.ProductRowDTO;
+
+/**
+ * Formato colunar comprimido (.pcol), para snapshots do catálogo. Inteiros em big-endian.
+ * - Cabeçalho: os bytes ASCII "PCOL" e a versão (int, 1).
+ * - Grupos de até rowGroupSize produtos: quantidade de produtos (int) e, para cada coluna na ordem idProduct,
+ *   name e value, o tamanho original (int), o tamanho comprimido (int) e os bytes comprimidos com Deflate (zlib).
+ * - Fim: um grupo com zero produtos.
+ * Colunas descomprimidas: idProduct são 16 bytes por produto (bits mais e menos significativos do UUID); name é o
+ * tamanho em UTF-8 (int, -1 para null) seguido dos bytes; value é a escala (int), o tamanho (int, -1 para null) e
+ * o valor sem escala em complemento de dois (BigInteger.toByteArray).
+ * Só o grupo atual fica em memória; colunas separadas comprimem melhor que linhas, já que nomes e preços
+ * parecidos ficam lado a lado.
+ */
+class ColumnarProductRowWriter implements ProductRowWriter {
+
+    static final int VERSION = 1;
+    private static final byte[] MAGIC = { 'P', 'C', 'O', 'L' };
+
+    private final WritableByteChannel channel;
+    private final int rowGroupSize;
+    private final Deflater deflater = new Deflater();
+    private final ByteBuffer header = ByteBuffer.allocate(8);
+    private ByteBuffer ids;
+    private ByteBuffer names;
+    private ByteBuffer values;
+    private ByteBuffer compressed;
+    private int rows;
+
+    ColumnarProductRowWriter(WritableByteChannel channel, int rowGroupSize) throws IOException {
+        this.channel = channel;
+        this.rowGroupSize = rowGroupSize;
+        this.ids = ByteBuffer.allocate(rowGroupSize * 16);
+        this.names = ByteBuffer.allocate(8192);
+        this.values = ByteBuffer.allocate(8192);
+        this.compressed = ByteBuffer.allocate(8192);
+        writeHeader(ByteBuffer.wrap(MAGIC).getInt(), VERSION);
+    }
+
+    @Override
+    public void write(ProductRowDTO row) throws IOException {
+        ids.putLong(row.idProduct().getMostSignificantBits()).putLong(row.idProduct().getLeastSignificantBits());
+
+        if (row.name() == null) {
+            names = ensureRemaining(names, 4).putInt(-1);
+        } else {
+            byte[] name = row.name().getBytes(StandardCharsets.UTF_8);
+            names = ensureRemaining(names, 4 + name.length).putInt(name.length).put(name);
+        }
+
+        BigDecimal value = row.value();
+        if (value == null) {
+            values = ensureRemaining(values, 8).putInt(0).putInt(-1);
+        } else {
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            values = ensureRemaining(values, 8 + unscaled.length).putInt(value.scale()).putInt(unscaled.length)
+                    .put(unscaled);
+        }
+
+        if (++rows == rowGroupSize) {
+            writeRowGroup();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        try {
+            writeRowGroup();
+            header.clear();
+            header.putInt(0).flip();
+            ProductRowWriter.writeFully(channel, header);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeRowGroup() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        header.clear();
+        header.putInt(rows).flip();
+        ProductRowWriter.writeFully(channel, header);
+        writeColumn(ids);
+        writeColumn(names);
+        writeColumn(values);
+        rows = 0;
+    }
+
+    private void writeColumn(ByteBuffer column) throws IOException {
+        column.flip();
+        int rawSize = column.remaining();
+        deflater.reset();
+        deflater.setInput(column);
+        deflater.finish();
+        compressed.clear();
+        while (!deflater.finished()) {
+            if (!compressed.hasRemaining()) {
+                compressed = grow(compressed, compressed.capacity());
+            }
+            deflater.deflate(compressed);
+        }
+        compressed.flip();
+        writeHeader(rawSize, compressed.remaining());
+        ProductRowWriter.writeFully(channel, compressed);
+        column.clear();
+    }
+
+    private void writeHeader(int first, int second) throws IOException {
+        header.clear();
+        header.putInt(first).putInt(second).flip();
+        ProductRowWriter.writeFully(channel, header);
+    }
+
+    private static ByteBuffer ensureRemaining(ByteBuffer buffer, int bytes) {
+        return buffer.remaining() >= bytes ? buffer : grow(buffer, Math.max(buffer.capacity(), bytes));
+    }
+
+    // Copia o conteúdo já escrito para um buffer com extra bytes a mais
+    private static ByteBuffer grow(ByteBuffer buffer, int extra) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() + extra);
+        buffer.flip();
+        return larger.put(buffer);
+    }
+}
@@ -0,0 +1,86 @@
+package com.breno.springboot.services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import com.breno.springboot.dtos.ProductRowDTO;
+
+/**
+ * CSV (RFC 4180) em UTF-8 com cabeçalho idProduct,name,value. Nomes com vírgula, aspas ou quebra de linha vão
+ * entre aspas; o preço é escrito sem notação científica.
+ */
+class CsvProductRowWriter implements ProductRowWriter {
+
+    private static final byte[] HEADER = "idProduct,name,value\r\n".getBytes(StandardCharsets.UTF_8);
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final StringBuilder line = new StringBuilder(128);
+
+    CsvProductRowWriter(WritableByteChannel channel, int bufferSize) throws IOException {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        put(HEADER);
+    }
+
+    @Override
+    public void write(ProductRowDTO row) throws IOException {
+        line.setLength(0);
+        line.append(row.idProduct()).append(',');
+        appendName(row.name());
+        line.append(',');
+        if (row.value() != null) {
+            line.append(row.value().toPlainString());
+        }
+        line.append("\r\n");
+        put(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void finish() throws IOException {
+        drain();
+    }
+
+    private void appendName(String name) {
+        if (name == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < name.length() && !quote; i++) {
+            char c = name.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            line.append(name);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.remaining()) {
+            drain();
+            if (bytes.length > buffer.capacity()) {
+                ProductRowWriter.writeFully(channel, ByteBuffer.wrap(bytes));
+                return;
+            }
+        }
+        buffer.put(bytes);
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        ProductRowWriter.writeFully(channel, buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,64 @@
+package com.breno.springboot.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.breno.springboot.exceptions.HashingCapacityExceededException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Executor dedicado e limitado para o trabalho de senha (BCrypt), que leva dezenas a centenas de ms por operação.
+ * Uma rajada de logins ocupa no máximo os threads deste pool mais a fila; o excedente é recusado na hora
+ * (HashingCapacityExceededException → 503) em vez de prender todos os workers do Tomcat e atrasar /products.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingService(
+            @Value("${api.security.hashing.threads:0}") int threads,
+            @Value("${api.security.hashing.queue-capacity:100}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        // BCrypt é limitado por CPU: por padrão um thread por núcleo
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.password.hashing.queue", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a tarefa no pool de hashing.
+     * @throws HashingCapacityExceededException se o pool e a fila estiverem cheios.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            throw new HashingCapacityExceededException("Too many concurrent authentication requests", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,126 @@
+package com.breno.springboot.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.breno.springboot.dtos.ProductBatchDTO;
+import com.breno.springboot.exceptions.InvalidFieldsException;
+import com.breno.springboot.models.ProductModel;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Leitura de vários produtos por ID (POST /products/batch-get) em uma única consulta IN.
+ * Seleciona só as colunas pedidas em fields= (projeção em Tuple, sem carregar entidades no contexto de
+ * persistência) e devolve cada produto como um mapa campo -> valor, sem links HATEOAS.
+ * Com sharding, os IDs são agrupados por shard e cada shard recebe, em paralelo, só a consulta dos seus.
+ */
+@Service
+public class ProductBatchService {
+
+    // Campos públicos do produto, na ordem da resposta; idProduct vem sempre, para identificar cada item
+    static final List<String> FIELDS = List.of("idProduct", "name", "value");
+    private static final String ID = "idProduct";
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    ProductShards productShards;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ProductBatchService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * @param fields nomes separados por vírgula (ex. "name,value"); null ou vazio para todos os campos.
+     */
+    public ProductBatchDTO findByIds(List<UUID> ids, String fields) {
+        Set<String> selected = parseFields(fields);
+        Set<UUID> uniqueIds = new LinkedHashSet<>(ids);
+
+        Map<Integer, List<UUID>> idsByShard = uniqueIds.stream().collect(Collectors.groupingBy(productShards::shardOf));
+        Map<UUID, Map<String, Object>> found = new HashMap<>();
+        productShards.mapShards(shard -> {
+            List<UUID> shardIds = idsByShard.get(shard);
+            return shardIds == null ? Map.<UUID, Map<String, Object>>of()
+                    : readOnlyTransaction.execute(status -> find(shardIds, selected));
+        }).forEach(found::putAll);
+
+        // Mesma ordem do pedido; os IDs sem produto vão para missing
+        List<Map<String, Object>> items = new ArrayList<>(found.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : uniqueIds) {
+            Map<String, Object> item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductBatchDTO(items, missing);
+    }
+
+    // Executa dentro de uma transação somente leitura, no shard dos IDs
+    private Map<UUID, Map<String, Object>> find(List<UUID> ids, Set<String> selected) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<ProductModel> product = query.from(ProductModel.class);
+        List<Selection<?>> columns = new ArrayList<>(selected.size());
+        for (String field : selected) {
+            columns.add(product.get(field).alias(field));
+        }
+        query.multiselect(columns).where(product.get(ID).in(ids));
+
+        Map<UUID, Map<String, Object>> found = new HashMap<>();
+        for (Tuple row : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (String field : selected) {
+                item.put(field, row.get(field));
+            }
+            found.put((UUID) item.get(ID), item);
+        }
+        return found;
+    }
+
+    private static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return new LinkedHashSet<>(FIELDS);
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!FIELDS.contains(name)) {
+                throw new InvalidFieldsException("unknown field '" + name + "'; allowed: " + String.join(",", FIELDS));
+            }
+            requested.add(name);
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : FIELDS) {
+            if (field.equals(ID) || requested.contains(field)) {
+                selected.add(field);
+            }
+        }
+        return selected;
+    }
+}
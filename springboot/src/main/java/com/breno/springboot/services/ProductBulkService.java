@@ -0,0 +1,197 @@
+package com.breno.springboot.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.breno.springboot.config.ReadRouting;
+import com.breno.springboot.dtos.BulkItemResultDTO;
+import com.breno.springboot.dtos.ProductRecordDTO;
+import com.breno.springboot.models.ProductModel;
+import com.breno.springboot.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+@Service
+public class ProductBulkService {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    ProductShards productShards;
+
+    @Autowired
+    ProductNameReservations productNameReservations;
+
+    @Autowired
+    Validator validator;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    // Deve acompanhar spring.jpa.properties.hibernate.jdbc.batch_size para que cada bloco vire poucos batches JDBC
+    @Value("${api.products.bulk.chunk-size:500}")
+    int chunkSize;
+
+    @Value("${api.products.bulk.max-items:10000}")
+    int maxItems;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductBulkService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * Lê um corpo NDJSON (um ProductRecordDTO por linha), parando em maxItems + 1 para que o chamador
+     * consiga rejeitar requisições grandes demais sem carregar tudo na memória.
+     */
+    public List<ProductRecordDTO> readNdjson(InputStream body) throws IOException {
+        List<ProductRecordDTO> records = new ArrayList<>();
+        try (MappingIterator<ProductRecordDTO> iterator = objectMapper.readerFor(ProductRecordDTO.class)
+                .readValues(body)) {
+            while (iterator.hasNextValue() && records.size() <= maxItems) {
+                records.add(iterator.nextValue());
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Cadastra vários produtos de uma vez, retornando o resultado de cada item na ordem recebida.
+     * Os nomes já existentes são resolvidos com uma consulta IN por bloco (em vez de um existsByName por item),
+     * e os inserts são feitos em blocos de chunkSize, cada um na sua transação, usando o batching JDBC do Hibernate.
+     * Um erro de banco afeta apenas os itens do bloco em que ocorreu. Com sharding, os nomes são procurados em todos
+     * os shards e cada bloco é gravado inteiro num shard, em rodízio. Antes de gravar, cada bloco reserva os seus
+     * nomes (ProductNameReservations): um nome cadastrado ao mesmo tempo por outra requisição ou instância vira
+     * conflito em vez de duplicado.
+     */
+    public List<BulkItemResultDTO> ingest(List<ProductRecordDTO> records) {
+        BulkItemResultDTO[] results = new BulkItemResultDTO[records.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+
+        for (int i = 0; i < records.size(); i++) {
+            ProductRecordDTO record = records.get(i);
+            String violations = record == null ? "Item is null" : describeViolations(validator.validate(record));
+            if (violations != null) {
+                results[i] = new BulkItemResultDTO(i, record == null ? null : record.name(),
+                        BulkItemResultDTO.INVALID, null, violations);
+            } else {
+                validIndexes.add(i);
+            }
+        }
+
+        Set<String> existingNames = findExistingNames(validIndexes.stream().map(i -> records.get(i).name()).toList());
+
+        // Nomes repetidos dentro da própria requisição também são conflito: só o primeiro é criado
+        Set<String> acceptedNames = new HashSet<>();
+        List<Integer> toInsert = new ArrayList<>();
+        for (int i : validIndexes) {
+            String name = records.get(i).name();
+            if (existingNames.contains(name) || !acceptedNames.add(name)) {
+                results[i] = new BulkItemResultDTO(i, name, BulkItemResultDTO.CONFLICT, null,
+                        "Product already exists with this name");
+            } else {
+                toInsert.add(i);
+            }
+        }
+
+        for (int from = 0; from < toInsert.size(); from += chunkSize) {
+            List<Integer> chunk = toInsert.subList(from, Math.min(from + chunkSize, toInsert.size()));
+            insertChunk(records, chunk, results);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private Set<String> findExistingNames(List<String> names) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < names.size(); from += chunkSize) {
+            List<String> chunk = names.subList(from, Math.min(from + chunkSize, names.size()));
+            // Verificação que antecede a gravação: no primário, para não aceitar um nome recém-gravado
+            productShards.onEachShard(() -> ReadRouting.onPrimary(() -> productRepository.findExistingNames(chunk)))
+                    .forEach(existing::addAll);
+        }
+        return existing;
+    }
+
+    private void insertChunk(List<ProductRecordDTO> records, List<Integer> names, BulkItemResultDTO[] results) {
+        Map<String, UUID> reserved = productNameReservations.reserve(
+                names.stream().map(i -> records.get(i).name()).toList());
+        List<Integer> chunk = new ArrayList<>(reserved.size());
+        for (int i : names) {
+            if (reserved.containsKey(records.get(i).name())) {
+                chunk.add(i);
+            } else {
+                results[i] = new BulkItemResultDTO(i, records.get(i).name(), BulkItemResultDTO.CONFLICT, null,
+                        "Product already exists with this name");
+            }
+        }
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<ProductModel> saved = productShards.onShard(productShards.nextShard(),
+                    () -> transactionTemplate.execute(status -> {
+                List<ProductModel> products = new ArrayList<>(chunk.size());
+                for (int i : chunk) {
+                    ProductModel productModel = new ProductModel();
+                    BeanUtils.copyProperties(records.get(i), productModel);
+                    entityManager.persist(productModel);
+                    products.add(productModel);
+                }
+                // Envia o bloco como batch e libera o contexto de persistência antes do próximo bloco
+                entityManager.flush();
+                entityManager.clear();
+                return products;
+            }));
+            for (int j = 0; j < chunk.size(); j++) {
+                int i = chunk.get(j);
+                results[i] = new BulkItemResultDTO(i, records.get(i).name(), BulkItemResultDTO.CREATED,
+                        saved.get(j).getIdProduct(), null);
+            }
+        } catch (RuntimeException e) {
+            productNameReservations.release(reserved);
+            for (int i : chunk) {
+                results[i] = new BulkItemResultDTO(i, records.get(i).name(), BulkItemResultDTO.ERROR, null,
+                        "Internal error while creating the product");
+            }
+        }
+    }
+
+    private static String describeViolations(Set<ConstraintViolation<ProductRecordDTO>> violations) {
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -0,0 +1,177 @@
+package com.breno.springboot.services;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.breno.springboot.config.ReadRouting;
+import com.breno.springboot.dtos.ProductVersionDTO;
+import com.breno.springboot.models.ProductModel;
+import com.breno.springboot.repositories.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache de leitura (read-through) na frente do ProductRepository para buscas por ID.
+ * Guarda cópias imutáveis dos produtos e devolve sempre uma nova instância de ProductModel, então
+ * quem chama pode alterá-la sem afetar o que está em cache. IDs inexistentes também são
+ * guardados (cache negativo) por um TTL menor, para que 404 repetidos não cheguem ao banco.
+ * Métricas ficam disponíveis no actuator como "cache.*" com a tag cache=products.
+ * As cargas leem do primário: uma réplica atrasada logo após uma gravação (que limpa a entrada) deixaria a
+ * versão anterior no cache até o TTL. Com sharding, cada carga consulta só o shard que guarda o produto.
+ * Dentro de uma transação, o descarte acontece só depois do commit; e uma carga que leu a linha antes da gravação
+ * (versão menor que a última descartada) é refeita em vez de devolver ao cache o estado anterior.
+ */
+@Service
+public class ProductCacheService {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    ProductShards productShards;
+
+    // Cópia imutável do produto, incluindo a versão usada no ETag
+    private record CachedProduct(UUID idProduct, String name, BigDecimal value, long version, Instant updatedAt) {
+    }
+
+    private final Cache<UUID, Optional<CachedProduct>> cache;
+    // Última versão gravada de cada produto descartado; basta guardá-la pelo TTL das entradas
+    private final Cache<UUID, Long> evictedVersions;
+
+    @Autowired
+    public ProductCacheService(
+            @Value("${api.products.cache.max-size:10000}") long maxSize,
+            @Value("${api.products.cache.ttl:10m}") Duration ttl,
+            @Value("${api.products.cache.negative-ttl:30s}") Duration negativeTtl,
+            MeterRegistry meterRegistry) {
+        this(maxSize, ttl, negativeTtl, meterRegistry, Ticker.systemTicker());
+    }
+
+    // Ticker injetável: os testes fazem as entradas expirarem sem esperar o TTL
+    ProductCacheService(long maxSize, Duration ttl, Duration negativeTtl, MeterRegistry meterRegistry, Ticker ticker) {
+        // Caffeine usa W-TinyLFU para decidir o que despejar quando o limite de tamanho é atingido
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .expireAfter(new Expiry<UUID, Optional<CachedProduct>>() {
+                    @Override
+                    public long expireAfterCreate(UUID id, Optional<CachedProduct> product, long currentTime) {
+                        return (product.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(UUID id, Optional<CachedProduct> product, long currentTime,
+                            long currentDuration) {
+                        return expireAfterCreate(id, product, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(UUID id, Optional<CachedProduct> product, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.evictedVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .expireAfterWrite(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "products");
+    }
+
+    /**
+     * Busca o produto no cache e, se ausente, no banco, guardando também o resultado vazio.
+     * @return uma cópia nova do produto, que pode ser modificada livremente.
+     */
+    public Optional<ProductModel> findById(UUID id) {
+        return cache.get(id, this::load).map(ProductCacheService::toModel);
+    }
+
+    private Optional<CachedProduct> load(UUID id) {
+        Optional<CachedProduct> product = read(id);
+        Long evicted = evictedVersions.getIfPresent(id);
+        if (evicted != null && product.filter(cached -> cached.version() < evicted).isPresent()) {
+            // A leitura começou antes do commit da gravação que descartou a entrada; o primário já tem a nova versão
+            product = read(id);
+        }
+        return product;
+    }
+
+    private Optional<CachedProduct> read(UUID id) {
+        return productShards.onHolder(id, () -> ReadRouting.onPrimary(() -> productRepository.findById(id)))
+                .map(ProductCacheService::toCached);
+    }
+
+    /**
+     * Versão do produto para requisições condicionais: vem do cache quando o produto está nele, senão de uma
+     * consulta que lê apenas a versão (sem carregar a entidade nem popular o cache).
+     */
+    public Optional<ProductVersionDTO> findVersion(UUID id) {
+        Optional<CachedProduct> cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return cached.map(product -> new ProductVersionDTO(product.idProduct(), product.version(),
+                    product.updatedAt()));
+        }
+        return productShards.onHolder(id, () -> productRepository.findVersionById(id));
+    }
+
+    // Descarta a entrada após uma gravação; a próxima leitura recarrega o estado persistido
+    public void evict(UUID id) {
+        afterCommit(() -> cache.invalidate(id));
+    }
+
+    // Como evict, e cargas que ainda trouxerem uma versão anterior à gravada são refeitas
+    public void evict(UUID id, long version) {
+        afterCommit(() -> {
+            evictedVersions.asMap().merge(id, version, Math::max);
+            cache.invalidate(id);
+        });
+    }
+
+    // Após uma remoção o ID não volta a existir, então ele passa a ser uma entrada negativa
+    public void markDeleted(UUID id) {
+        afterCommit(() -> cache.put(id, Optional.empty()));
+    }
+
+    // Antes do commit, outra leitura ainda veria a linha antiga e a colocaria de volta no cache
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static CachedProduct toCached(ProductModel product) {
+        return new CachedProduct(product.getIdProduct(), product.getName(), product.getValue(),
+                product.getVersion(), product.getUpdatedAt());
+    }
+
+    private static ProductModel toModel(CachedProduct cached) {
+        ProductModel product = new ProductModel(cached.idProduct(), cached.name(), cached.value());
+        product.setVersion(cached.version());
+        product.setUpdatedAt(cached.updatedAt());
+        return product;
+    }
+}
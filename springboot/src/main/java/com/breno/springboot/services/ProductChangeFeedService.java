@@ -0,0 +1,232 @@
+package com.breno.springboot.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.breno.springboot.dtos.ProductChangeDTO;
+import com.breno.springboot.events.ProductChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Feed de alterações de produtos em Server-Sent Events (GET /products/changes).
+ * Cada alteração confirmada recebe um número de sequência e fica num buffer circular com as últimas
+ * bufferSize alterações. O buffer é a única fila: cada assinante guarda só a posição até onde já recebeu, e
+ * uma thread virtual por assinante envia o que falta em lotes (uma escrita e um flush por lote).
+ * Um cliente que reconecta com Last-Event-ID continua de onde parou, se isso ainda estiver no buffer; senão
+ * (ou após um reinício do servidor, que zera a sequência) recebe um evento "reset" e deve recarregar a lista.
+ * Quem fica mais de maxLag alterações para trás é desconectado: um cliente lento não segura memória nem
+ * atrasa os demais, e ao reconectar recebe o restante ou o "reset". Um cliente que parou de ler de vez
+ * bloqueia só a sua thread virtual, até o timeout de escrita do Tomcat encerrar a conexão.
+ */
+@Service
+public class ProductChangeFeedService {
+
+    static final String CHANGE_EVENT = "change";
+    static final String RESET_EVENT = "reset";
+    private static final MediaType TEXT_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+    // Alterações enviadas por escrita
+    private static final int SEND_BATCH = 500;
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        // Campos guardados pelo lock do feed
+        long position;
+        boolean resetPending;
+        boolean pingPending;
+        boolean draining;
+        boolean closed;
+
+        Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        private void drain() {
+            while (true) {
+                String batch;
+                boolean tooFarBehind = false;
+                synchronized (ProductChangeFeedService.this) {
+                    if (!closed && lastSequence - position > maxLag) {
+                        closed = true;
+                        tooFarBehind = true;
+                    }
+                    batch = closed ? null : nextFrames();
+                    if (batch == null) {
+                        draining = false;
+                    }
+                }
+                if (tooFarBehind) {
+                    // Ficou para trás demais: desconecta em vez de acumular
+                    subscribers.remove(this);
+                    slowConsumerCounter.increment();
+                    emitter.complete();
+                    return;
+                }
+                if (batch == null) {
+                    return;
+                }
+                try {
+                    emitter.send(Set.of(new DataWithMediaType(batch, TEXT_UTF8)));
+                } catch (IOException | IllegalStateException e) {
+                    // Cliente desconectou; o emitter também sinaliza erro/conclusão
+                    synchronized (ProductChangeFeedService.this) {
+                        closed = true;
+                        draining = false;
+                    }
+                    subscribers.remove(this);
+                    return;
+                }
+            }
+        }
+
+        // Com o lock do feed: próximo lote de quadros SSE já renderizados, ou null se não há nada a enviar
+        private String nextFrames() {
+            StringBuilder out = new StringBuilder();
+            if (resetPending) {
+                resetPending = false;
+                out.append("event:").append(RESET_EVENT).append("\nid:").append(lastSequence)
+                        .append("\ndata:").append(lastSequence).append("\n\n");
+            }
+            long end = Math.min(lastSequence, position + SEND_BATCH);
+            for (long next = position + 1; next <= end; next++) {
+                out.append(frames[(int) (next % frames.length)]);
+            }
+            position = end;
+            if (out.isEmpty() && pingPending) {
+                out.append(":ping\n\n");
+            }
+            pingPending = false;
+            return out.isEmpty() ? null : out.toString();
+        }
+
+        // Com o lock do feed
+        void wakeUp() {
+            if (!draining && !closed) {
+                draining = true;
+                sender.execute(this::drain);
+            }
+        }
+    }
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private final int maxLag;
+    private final Duration streamTimeout;
+    // Quadro SSE de cada alteração, serializado uma vez e compartilhado por todos os assinantes
+    private final String[] frames;
+    // Sequência da última alteração registrada; o buffer guarda as frames.length últimas
+    private long lastSequence;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeat;
+    private final Counter slowConsumerCounter;
+
+    public ProductChangeFeedService(
+            @Value("${api.products.changes.buffer-size:10000}") int bufferSize,
+            @Value("${api.products.changes.max-lag:5000}") int maxLag,
+            @Value("${api.products.changes.heartbeat:15s}") Duration heartbeatInterval,
+            @Value("${api.products.changes.stream-timeout:30m}") Duration streamTimeout,
+            MeterRegistry meterRegistry) {
+        this.frames = new String[bufferSize];
+        // Além do buffer o cliente perderia alterações sem saber
+        this.maxLag = Math.min(maxLag, bufferSize);
+        this.streamTimeout = streamTimeout;
+        this.slowConsumerCounter = Counter.builder("products.changes.disconnected")
+                .description("Change feed subscribers dropped for falling too far behind")
+                .tag("reason", "slow_consumer")
+                .register(meterRegistry);
+        Gauge.builder("products.changes.subscribers", subscribers, Set::size)
+                .description("Open change feed connections")
+                .register(meterRegistry);
+        // Comentário SSE periódico: mantém a conexão viva em proxies e detecta clientes que já saíram
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-changes-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeat.scheduleWithFixedDelay(this::sendHeartbeat, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Só alterações confirmadas entram no feed; a versão identifica o estado que o cliente deve buscar
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (this) {
+            long sequence = lastSequence + 1;
+            ProductChangeDTO change = new ProductChangeDTO(sequence, event.idProduct(), event.version(),
+                    event.operation().name().toLowerCase(Locale.ROOT));
+            frames[(int) (sequence % frames.length)] = toFrame(change);
+            lastSequence = sequence;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.wakeUp();
+            }
+        }
+    }
+
+    /**
+     * Abre uma conexão do feed.
+     * @param lastEventId última sequência recebida pelo cliente (Last-Event-ID), ou null para receber só as próximas.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        synchronized (this) {
+            // Retomar de mais longe que maxLag desconectaria o cliente de novo logo em seguida
+            boolean resumable = lastEventId != null && lastEventId >= 0 && lastEventId <= lastSequence
+                    && lastSequence - lastEventId <= maxLag;
+            Subscriber subscriber = new Subscriber(emitter, resumable ? lastEventId : lastSequence);
+            subscriber.resetPending = lastEventId != null && !resumable;
+            emitter.onCompletion(() -> subscribers.remove(subscriber));
+            emitter.onTimeout(() -> subscribers.remove(subscriber));
+            emitter.onError(e -> subscribers.remove(subscriber));
+            subscribers.add(subscriber);
+            subscriber.wakeUp();
+        }
+        return emitter;
+    }
+
+    private String toFrame(ProductChangeDTO change) {
+        try {
+            return "event:" + CHANGE_EVENT + "\nid:" + change.sequence() + "\ndata:"
+                    + objectMapper.writeValueAsString(change) + "\n\n";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private synchronized void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.pingPending = true;
+            subscriber.wakeUp();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        sender.shutdown();
+    }
+}
@@ -0,0 +1,140 @@
+package com.breno.springboot.services;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.breno.springboot.config.ReadRouting;
+import com.breno.springboot.dtos.ProductDeltaCursor;
+import com.breno.springboot.dtos.ProductDeltaDTO;
+import com.breno.springboot.dtos.ProductDeltaItemDTO;
+import com.breno.springboot.exceptions.ResyncRequiredException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+/**
+ * Sincronização incremental do catálogo (GET /products/delta): devolve só os produtos gravados depois de uma
+ * revisão, inclusive os removidos (tombstones), paginados por (revision, idProduct).
+ * A primeira página fixa o limite superior na marca d'água do ProductRevisionService, e as demais páginas o
+ * reutilizam pelo cursor; a revisão devolvida é o "since" da próxima sincronização.
+ * Consultas nativas: os removidos ficam fora de todas as consultas JPA por causa do @SQLRestriction.
+ * Com réplicas de leitura, consulta o primário: numa réplica atrasada faltariam linhas abaixo da marca d'água, e
+ * a réplica cliente avançaria o "since" sem nunca recebê-las.
+ * Com sharding, todos os shards são consultados em paralelo, cada um na sua transação.
+ * Tombstones mais antigos que a retenção são expurgados (ProductTombstoneService); continuar de uma revisão
+ * anterior ao expurgo lança ResyncRequiredException (410), e a réplica precisa de uma carga completa.
+ */
+@Service
+public class ProductDeltaService {
+
+    private static final String COLUMNS = "SELECT id_product, name, \"value\", revision, deleted FROM tb_products ";
+
+    private static final Comparator<ProductDeltaItemDTO> DELTA_ORDER = Comparator
+            .comparingLong(ProductDeltaItemDTO::revision)
+            .thenComparing(ProductDeltaItemDTO::idProduct, ProductShards.ID_ORDER);
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    ProductRevisionService revisionService;
+
+    @Autowired
+    ProductShards productShards;
+
+    @Autowired
+    ProductTombstoneService tombstoneService;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ProductDeltaService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * @param since última revisão já aplicada pela réplica; null para uma carga completa (sem removidos).
+     * @param cursor continuação de uma página anterior desta mesma sincronização, ou null.
+     * @throws ResyncRequiredException se tombstones posteriores à revisão de partida já foram expurgados.
+     */
+    public ProductDeltaDTO changesSince(Long since, ProductDeltaCursor cursor, int pageSize) {
+        long upTo = cursor != null ? cursor.upTo() : revisionService.watermark();
+        boolean includeDeleted = cursor != null ? cursor.includeDeleted() : since != null;
+        // A carga completa não traz removidos; as demais não podem ter perdido nenhum entre a partida e upTo
+        if (includeDeleted) {
+            long from = cursor != null ? cursor.revision() : since;
+            if (from < tombstoneService.purgedRevision()) {
+                throw new ResyncRequiredException("Deletions after revision " + from
+                        + " are no longer available; sync again without since");
+            }
+        }
+        // Busca um item a mais para saber se existe uma próxima página; com sharding, cada shard devolve a sua
+        // página e a página final é a intercalação delas
+        List<ProductDeltaItemDTO> rows = ProductShards.merge(productShards.onEachShard(
+                () -> ReadRouting.onPrimary(() -> readOnlyTransaction.execute(
+                        status -> page(since, cursor, upTo, includeDeleted, pageSize + 1)))),
+                DELTA_ORDER, ProductDeltaItemDTO::idProduct, pageSize + 1);
+
+        List<ProductDeltaItemDTO> items = new ArrayList<>(rows.subList(0, Math.min(rows.size(), pageSize)));
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            ProductDeltaItemDTO last = items.get(pageSize - 1);
+            nextCursor = new ProductDeltaCursor(upTo, includeDeleted, last.revision(), last.idProduct()).encode();
+        }
+        // Sem nada alterado, a réplica continua do mesmo ponto; senão, do limite desta sincronização
+        long revision = since != null && upTo < since ? since : upTo;
+        return new ProductDeltaDTO(items, nextCursor, revision);
+    }
+
+    // Executa dentro de uma transação somente leitura, no shard atual
+    private List<ProductDeltaItemDTO> page(Long since, ProductDeltaCursor cursor, long upTo, boolean includeDeleted,
+            int limit) {
+        Query query;
+        if (cursor != null) {
+            query = entityManager.createNativeQuery(COLUMNS
+                    + "WHERE revision <= :upTo AND (revision > :revision OR (revision = :revision AND id_product > :idProduct))"
+                    + (includeDeleted ? "" : " AND deleted = false")
+                    + " ORDER BY revision, id_product LIMIT :limit")
+                    .setParameter("revision", cursor.revision())
+                    .setParameter("idProduct", cursor.idProduct());
+        } else {
+            // Produtos anteriores à coluna de revisão têm revisão 0; a carga completa começa antes deles
+            query = entityManager.createNativeQuery(COLUMNS
+                    + "WHERE revision <= :upTo AND revision > :since"
+                    + (includeDeleted ? "" : " AND deleted = false")
+                    + " ORDER BY revision, id_product LIMIT :limit")
+                    .setParameter("since", since != null ? since : -1L);
+        }
+        // Tipos explícitos: o H2 informa a coluna UUID como binária e o resultado viria como byte[]
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.unwrap(NativeQuery.class)
+                .addScalar("id_product", UUID.class)
+                .addScalar("name", String.class)
+                .addScalar("value", BigDecimal.class)
+                .addScalar("revision", Long.class)
+                .addScalar("deleted", Boolean.class)
+                .setParameter("upTo", upTo)
+                .setParameter("limit", limit)
+                .getResultList();
+
+        List<ProductDeltaItemDTO> items = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            boolean deleted = (Boolean) row[4];
+            items.add(new ProductDeltaItemDTO((UUID) row[0],
+                    deleted ? null : (String) row[1],
+                    deleted ? null : (BigDecimal) row[2],
+                    (Long) row[3],
+                    deleted));
+        }
+        return items;
+    }
+}
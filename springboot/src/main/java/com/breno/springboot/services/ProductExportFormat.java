@@ -0,0 +1,39 @@
+package com.breno.springboot.services;
+
+import java.util.Locale;
+
+import org.springframework.http.MediaType;
+
+import com.breno.springboot.exceptions.UnsupportedExportFormatException;
+
+// Formatos da exportação do catálogo (GET /products/export e ProductExportJob)
+public enum ProductExportFormat {
+
+    CSV(new MediaType("text", "csv"), "csv"),
+    // Formato colunar comprimido descrito em ColumnarProductRowWriter
+    COLUMNAR(MediaType.APPLICATION_OCTET_STREAM, "pcol");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ProductExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ProductExportFormat fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedExportFormatException(name + " (expected csv or columnar)");
+        }
+    }
+}
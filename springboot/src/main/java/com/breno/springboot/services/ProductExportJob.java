@@ -0,0 +1,74 @@
+package com.breno.springboot.services;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exportação pela linha de comando: com api.products.export.file definido, a aplicação exporta o catálogo para o
+ * arquivo e termina (código de saída 0, ou 1 em caso de erro). Ex.:
+ * java -jar app.jar --spring.main.web-application-type=none --api.products.export.file=products.pcol
+ *     --api.products.export.format=columnar
+ * O arquivo é escrito ao lado com a extensão .tmp e renomeado no final, então quem o lê nunca vê um snapshot pela metade.
+ */
+@Component
+@ConditionalOnProperty(name = "api.products.export.file")
+public class ProductExportJob implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportJob.class);
+
+    @Autowired
+    ProductExportService productExportService;
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Value("${api.products.export.file}")
+    Path file;
+
+    @Value("${api.products.export.format:csv}")
+    String format;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        try {
+            export(ProductExportFormat.fromName(format));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Product export to {} failed", file, e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    private void export(ProductExportFormat exportFormat) throws IOException {
+        Path target = file.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                productExportService.export(exportFormat, channel);
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.breno.springboot.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.breno.springboot.dtos.ProductRowDTO;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Exportação do catálogo inteiro (GET /products/export e ProductExportJob). Os produtos vêm de um cursor JDBC
+ * somente para frente, fetchSize linhas por ida ao banco, como projeções que não entram no contexto de
+ * persistência, e são escritos direto no canal de destino. A memória usada não cresce com o catálogo.
+ * A leitura é uma transação somente leitura: com réplicas (api.datasource.replicas.enabled) vai para uma réplica.
+ * Com sharding, os shards são exportados um depois do outro (uma transação cada) no mesmo arquivo.
+ */
+@Service
+public class ProductExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportService.class);
+
+    // Ordem da chave primária: o banco percorre o índice sem ordenar a tabela inteira antes da primeira linha
+    private static final String QUERY = """
+            SELECT new com.breno.springboot.dtos.ProductRowDTO(p.idProduct, p.name, p.value)
+            FROM ProductModel p
+            ORDER BY p.idProduct
+            """;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    ProductShards productShards;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+    private final int bufferSize;
+    private final int rowGroupSize;
+
+    public ProductExportService(PlatformTransactionManager transactionManager,
+            @Value("${api.products.export.fetch-size:1000}") int fetchSize,
+            @Value("${api.products.export.buffer-size:64KB}") DataSize bufferSize,
+            @Value("${api.products.export.row-group-size:65536}") int rowGroupSize) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+        this.bufferSize = (int) bufferSize.toBytes();
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    public StreamingResponseBody exportTo(ProductExportFormat format) {
+        return outputStream -> export(format, Channels.newChannel(outputStream));
+    }
+
+    /**
+     * Escreve todos os produtos no canal, sem fechá-lo.
+     * @return a quantidade de produtos exportados.
+     */
+    public long export(ProductExportFormat format, WritableByteChannel channel) {
+        long start = System.nanoTime();
+        long exported = 0;
+        try {
+            ProductRowWriter writer = switch (format) {
+                case CSV -> new CsvProductRowWriter(channel, bufferSize);
+                case COLUMNAR -> new ColumnarProductRowWriter(channel, rowGroupSize);
+            };
+            for (int shard = 0; shard < productShards.count(); shard++) {
+                exported += productShards.onShard(shard,
+                        () -> readOnlyTransaction.execute(status -> writeRows(writer)));
+            }
+            writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.info("Exported {} products as {} in {} ms", exported, format, (System.nanoTime() - start) / 1_000_000);
+        return exported;
+    }
+
+    // Executa dentro da transação somente leitura do shard atual
+    private long writeRows(ProductRowWriter writer) {
+        try (Stream<ProductRowDTO> rows = entityManager.createQuery(QUERY, ProductRowDTO.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()) {
+            long count = 0;
+            for (Iterator<ProductRowDTO> it = rows.iterator(); it.hasNext();) {
+                writer.write(it.next());
+                count++;
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.breno.springboot.services;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.breno.springboot.config.ReadRouting;
+import com.breno.springboot.models.ProductNameModel;
+import com.breno.springboot.repositories.ProductNameRepository;
+import com.breno.springboot.repositories.ProductRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Reserva dos nomes de produto antes do cadastro, em tb_product_names no shard 0. A chave primária é o nome, então
+ * de dois cadastros simultâneos do mesmo nome (em instâncias ou shards diferentes, pelo POST, pela importação em
+ * lote ou pelo write-behind) só um consegue a reserva; o lock de ProductShards.withNameLock vale só na instância.
+ * A verificação dos produtos já cadastrados (existsByName/findExistingNames em todos os shards) continua antes da
+ * reserva: produtos anteriores a esta tabela não têm reserva.
+ * Uma reserva cujo nome não pertence a nenhum produto ativo (removido, renomeado ou cujo cadastro falhou sem
+ * liberá-la) é tomada por um novo cadastro depois de api.products.names.reservation-timeout, desde que nenhum
+ * cadastro leve mais que isso entre reservar o nome e confirmar o produto.
+ */
+@Service
+public class ProductNameReservations {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductNameReservations.class);
+
+    @Autowired
+    ProductNameRepository nameRepository;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    ProductShards productShards;
+
+    @Autowired
+    EntityManager entityManager;
+
+    private final Duration timeout;
+    private final Clock clock;
+    private final TransactionTemplate transaction;
+
+    @Autowired
+    public ProductNameReservations(
+            @Value("${api.products.names.reservation-timeout:1m}") Duration timeout,
+            PlatformTransactionManager transactionManager) {
+        this(timeout, transactionManager, Clock.systemUTC());
+    }
+
+    // Relógio injetável: os testes envelhecem as reservas sem esperar o timeout
+    ProductNameReservations(Duration timeout, PlatformTransactionManager transactionManager, Clock clock) {
+        this.timeout = timeout;
+        this.clock = clock;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Reserva os nomes que estiverem livres. Deve ser chamado fora de onShard e de transações: usa as suas, no
+     * shard 0.
+     * @return o token de cada nome reservado; os ausentes pertencem a outro cadastro.
+     */
+    public Map<String, UUID> reserve(Collection<String> names) {
+        Set<String> wanted = new LinkedHashSet<>(names);
+        if (wanted.isEmpty()) {
+            return Map.of();
+        }
+        Instant now = clock.instant();
+        Map<String, ProductNameModel> taken = new HashMap<>();
+        productShards.onShard(0, () -> ReadRouting.onPrimary(() -> nameRepository.findAllById(wanted)))
+                .forEach(reservation -> taken.put(reservation.getName(), reservation));
+
+        List<ProductNameModel> free = new ArrayList<>();
+        for (String name : wanted) {
+            if (!taken.containsKey(name)) {
+                free.add(new ProductNameModel(name, UUID.randomUUID(), now));
+            }
+        }
+        Map<String, UUID> reserved = productShards.onShard(0, () -> insert(free));
+        reserved.putAll(takeOverAbandoned(taken.values(), now));
+        return reserved;
+    }
+
+    /**
+     * Todas numa transação; se outro cadastro reservou um dos nomes nesse meio-tempo, uma transação por nome.
+     * Um nome que o banco recusa por outro motivo (grande demais para a coluna) volta como reservado, sem linha:
+     * o insert do produto falha com o mesmo erro e o cadastro recebe o resultado dele, não um conflito.
+     */
+    private Map<String, UUID> insert(List<ProductNameModel> reservations) {
+        Map<String, UUID> reserved = new HashMap<>();
+        if (reservations.isEmpty()) {
+            return reserved;
+        }
+        try {
+            transaction.executeWithoutResult(status -> persist(reservations));
+            reservations.forEach(reservation -> reserved.put(reservation.getName(), reservation.getToken()));
+        } catch (RuntimeException e) {
+            if (!ProductWriteBehindService.isDataError(e)) {
+                throw e;
+            }
+            reserved.clear();
+            for (ProductNameModel reservation : reservations) {
+                try {
+                    transaction.executeWithoutResult(status -> persist(List.of(reservation)));
+                    reserved.put(reservation.getName(), reservation.getToken());
+                } catch (RuntimeException error) {
+                    if (!ProductWriteBehindService.isDataError(error)) {
+                        throw error;
+                    }
+                    if (!isUniqueViolation(error)) {
+                        reserved.put(reservation.getName(), reservation.getToken());
+                    }
+                    // Senão, reservado por outro cadastro
+                }
+            }
+        }
+        return reserved;
+    }
+
+    // SQLState 23505 (unique_violation), no PostgreSQL e no H2
+    private static boolean isUniqueViolation(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && "23505".equals(sqlException.getSQLState())) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private void persist(List<ProductNameModel> reservations) {
+        reservations.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Map<String, UUID> takeOverAbandoned(Collection<ProductNameModel> taken, Instant now) {
+        Instant expired = now.minus(timeout);
+        List<String> candidates = taken.stream()
+                .filter(reservation -> reservation.getReservedAt().isBefore(expired))
+                .map(ProductNameModel::getName)
+                .toList();
+        Map<String, UUID> reserved = new HashMap<>();
+        if (candidates.isEmpty()) {
+            return reserved;
+        }
+        Set<String> inUse = new HashSet<>();
+        productShards.onEachShard(() -> ReadRouting.onPrimary(() -> productRepository.findExistingNames(candidates)))
+                .forEach(inUse::addAll);
+        for (ProductNameModel reservation : taken) {
+            if (!candidates.contains(reservation.getName()) || inUse.contains(reservation.getName())) {
+                continue;
+            }
+            UUID token = UUID.randomUUID();
+            Integer updated = productShards.onShard(0, () -> transaction.execute(
+                    status -> nameRepository.takeOver(reservation.getName(), reservation.getToken(), token, now)));
+            if (updated != null && updated == 1) {
+                reserved.put(reservation.getName(), token);
+            }
+        }
+        return reserved;
+    }
+
+    /**
+     * Libera reservas de cadastros que não chegaram ao banco. Uma falha aqui só é registrada: a reserva fica
+     * abandonada e é tomada pelo próximo cadastro do nome depois do timeout.
+     */
+    public void release(Map<String, UUID> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        try {
+            productShards.onShard(0, () -> transaction.execute(status -> {
+                reservations.forEach(nameRepository::release);
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            logger.warn("Could not release {} product name reservations: {}", reservations.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.breno.springboot.services;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.sql.DataSource;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.breno.springboot.config.ShardRouting;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Revisões globais e crescentes das gravações de produto, usadas pela sincronização incremental.
+ * Vêm da sequência product_revision_seq (no shard 0, com sharding), então várias instâncias podem gravar. Cada
+ * transação reserva com um único nextval um bloco de ALLOCATION_SIZE revisões para as suas gravações; o que sobrar
+ * do bloco é descartado quando ela termina.
+ * As transações podem confirmar fora da ordem das revisões: a que tem a 10 pode terminar antes da que tem a 9.
+ * Por isso {@link #watermark()} não é a maior revisão gravada, mas o valor que a sequência tinha há pelo menos
+ * api.products.delta.commit-lag (amostrado a cada sample-interval), menos um bloco: toda revisão até ele foi
+ * reservada antes da amostra, e a transação que a reservou já terminou, desde que nenhuma gravação de produto
+ * leve mais que commit-lag entre reservar a revisão e confirmar.
+ */
+@Service
+public class ProductRevisionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductRevisionService.class);
+
+    static final String SEQUENCE = "product_revision_seq";
+    // Igual ao INCREMENT BY da sequência (migração V8)
+    static final int ALLOCATION_SIZE = 50;
+
+    private record Sample(long nanos, long value) {
+    }
+
+    // Bloco de revisões da transação atual
+    private static final class Block {
+        private long next;
+        private final long last;
+
+        private Block(long last) {
+            this.next = last - ALLOCATION_SIZE + 1;
+            this.last = last;
+        }
+    }
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    ProductShards productShards;
+
+    @Autowired
+    DataSource dataSource;
+
+    private final long commitLagNanos;
+    private final Duration sampleInterval;
+    private final LongSupplier nanoTime;
+    private final Deque<Sample> samples = new ArrayDeque<>();
+    private String nextValueSql;
+    private ScheduledExecutorService sampler;
+
+    @Autowired
+    public ProductRevisionService(
+            @Value("${api.products.delta.commit-lag:10s}") Duration commitLag,
+            @Value("${api.products.delta.sample-interval:1s}") Duration sampleInterval) {
+        this(commitLag, sampleInterval, System::nanoTime);
+    }
+
+    // Relógio injetável: os testes avançam o tempo sem esperar o commit-lag
+    ProductRevisionService(Duration commitLag, Duration sampleInterval, LongSupplier nanoTime) {
+        this.commitLagNanos = commitLag.toNanos();
+        this.sampleInterval = sampleInterval;
+        this.nanoTime = nanoTime;
+    }
+
+    @PostConstruct
+    void start() {
+        init();
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-revision-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleWithFixedDelay(() -> {
+            try {
+                sample();
+            } catch (RuntimeException e) {
+                // Sem amostras novas a marca d'água só para de avançar; a próxima tentativa é no próximo intervalo
+                logger.warn("Could not sample {}: {}", SEQUENCE, e.getMessage());
+            }
+        }, sampleInterval.toMillis(), sampleInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Prepara a sequência e tira a primeira amostra. Bancos criados pelo ddl-auto não têm a sequência (em produção
+     * ela vem da migração V8) e ganham uma aqui. Revisões gravadas pelo contador em memória das versões anteriores
+     * podem estar à frente dela: a sequência recomeça acima da maior revisão de todos os shards.
+     */
+    void init() {
+        nextValueSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                .getSequenceSupport().getSequenceNextValString(SEQUENCE);
+        long maxRevision = 0;
+        for (int shard = 0; shard < productShards.count(); shard++) {
+            maxRevision = Math.max(maxRevision, productShards.onShard(shard, this::maxRevision));
+        }
+        try (Connection connection = productShards.shardDataSource(0).getConnection()) {
+            long value;
+            try {
+                value = nextValue(connection);
+            } catch (SQLException e) {
+                execute(connection, "CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE + " START WITH " + ALLOCATION_SIZE
+                        + " INCREMENT BY " + ALLOCATION_SIZE);
+                value = nextValue(connection);
+            }
+            // O próximo bloco começa em value + 1
+            if (value < maxRevision) {
+                execute(connection, "ALTER SEQUENCE " + SEQUENCE + " RESTART WITH " + (maxRevision + ALLOCATION_SIZE));
+                value = nextValue(connection);
+            }
+            addSample(value);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not prepare the sequence " + SEQUENCE, e);
+        }
+    }
+
+    // Consulta nativa: inclui os produtos removidos, que o @SQLRestriction esconde das consultas JPA
+    private long maxRevision() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            Number max = (Number) entityManager
+                    .createNativeQuery("SELECT COALESCE(MAX(revision), 0) FROM tb_products")
+                    .getSingleResult();
+            return max.longValue();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    // Nova revisão para uma gravação, do bloco da transação atual
+    public long next() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Block(allocate()).next;
+        }
+        Block block = (Block) TransactionSynchronizationManager.getResource(this);
+        if (block == null || block.next > block.last) {
+            if (block == null) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(ProductRevisionService.this);
+                    }
+                });
+            } else {
+                TransactionSynchronizationManager.unbindResource(this);
+            }
+            block = new Block(allocate());
+            TransactionSynchronizationManager.bindResource(this, block);
+        }
+        return block.next++;
+    }
+
+    /**
+     * Último valor de um bloco novo. No shard da sequência usa a conexão da transação, sem ocupar outra do pool;
+     * numa transação em outro shard, uma conexão própria do shard 0 (nextval não participa de transações).
+     */
+    private long allocate() {
+        Integer shard = ShardRouting.current();
+        try {
+            if (shard == null || shard == 0) {
+                Connection connection = DataSourceUtils.getConnection(dataSource);
+                try {
+                    return nextValue(connection);
+                } finally {
+                    DataSourceUtils.releaseConnection(connection, dataSource);
+                }
+            }
+            try (Connection connection = productShards.shardDataSource(0).getConnection()) {
+                return nextValue(connection);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not allocate product revisions from " + SEQUENCE, e);
+        }
+    }
+
+    // Lê a sequência numa conexão própria do shard 0; o bloco reservado pela amostra fica sem uso
+    void sample() {
+        try (Connection connection = productShards.shardDataSource(0).getConnection()) {
+            addSample(nextValue(connection));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not sample " + SEQUENCE, e);
+        }
+    }
+
+    private void addSample(long value) {
+        long limit = nanoTime.getAsLong() - commitLagNanos;
+        synchronized (samples) {
+            samples.addLast(new Sample(nanoTime.getAsLong(), value));
+            // Basta a amostra mais nova entre as que já passaram do commit-lag, e as posteriores a ela
+            while (samples.size() > 1) {
+                Iterator<Sample> iterator = samples.iterator();
+                iterator.next();
+                if (iterator.next().nanos() > limit) {
+                    break;
+                }
+                samples.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Maior revisão R tal que todas as gravações com revisão <= R já terminaram. Logo após a inicialização, espera
+     * a primeira amostra completar o commit-lag.
+     */
+    public long watermark() {
+        long now = nanoTime.getAsLong();
+        Sample usable = null;
+        Sample oldest;
+        synchronized (samples) {
+            oldest = samples.peekFirst();
+            for (Sample sample : samples) {
+                if (now - sample.nanos() < commitLagNanos) {
+                    break;
+                }
+                usable = sample;
+            }
+        }
+        if (usable == null) {
+            long wait = oldest.nanos() + commitLagNanos - now;
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the revision watermark", e);
+            }
+            usable = oldest;
+        }
+        // Todo bloco reservado antes da amostra termina antes do bloco que ela reservou
+        return usable.value() - ALLOCATION_SIZE;
+    }
+
+    private long nextValue(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(nextValueSql);
+                ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+}
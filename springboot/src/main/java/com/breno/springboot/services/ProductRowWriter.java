@@ -0,0 +1,23 @@
+package com.breno.springboot.services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import com.breno.springboot.dtos.ProductRowDTO;
+
+// Escreve produtos num canal em algum formato de exportação; a memória usada não depende da quantidade de linhas
+interface ProductRowWriter {
+
+    void write(ProductRowDTO row) throws IOException;
+
+    // Escreve o que ainda está em buffer e o final do arquivo; não fecha o canal
+    void finish() throws IOException;
+
+    // Um canal pode aceitar só parte do buffer por chamada (ex.: sockets não bloqueantes)
+    static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.breno.springboot.services;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.breno.springboot.dtos.ProductCursor;
+import com.breno.springboot.dtos.ProductRowDTO;
+
+/**
+ * Índice de busca em memória, usado quando o banco não é PostgreSQL (ex.: H2).
+ * Os produtos ficam ordenados por (nome em minúsculas, nome, ID), então uma busca por prefixo é uma faixa
+ * contígua do mapa e a paginação por cursor continua de onde parou, sem percorrer o que já foi entregue.
+ */
+class ProductSearchIndex {
+
+    private static final UUID MIN_UUID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private record Key(String lowerName, String name, UUID idProduct) implements Comparable<Key> {
+
+        static Key of(String name, UUID idProduct) {
+            return new Key(name.toLowerCase(Locale.ROOT), name, idProduct);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = lowerName.compareTo(other.lowerName);
+            if (result == 0) {
+                result = name.compareTo(other.name);
+            }
+            return result != 0 ? result : idProduct.compareTo(other.idProduct);
+        }
+    }
+
+    private final ConcurrentSkipListMap<Key, ProductRowDTO> byName = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<UUID, Key> keysById = new ConcurrentHashMap<>();
+
+    void put(ProductRowDTO row) {
+        if (row.name() == null) {
+            return;
+        }
+        Key key = Key.of(row.name(), row.idProduct());
+        Key previous = keysById.put(row.idProduct(), key);
+        if (previous != null && !previous.equals(key)) {
+            byName.remove(previous);
+        }
+        byName.put(key, row);
+    }
+
+    void remove(UUID idProduct) {
+        Key previous = keysById.remove(idProduct);
+        if (previous != null) {
+            byName.remove(previous);
+        }
+    }
+
+    boolean contains(UUID idProduct) {
+        return keysById.containsKey(idProduct);
+    }
+
+    int size() {
+        return keysById.size();
+    }
+
+    List<ProductRowDTO> search(String query, boolean matchAnywhere, BigDecimal minPrice, BigDecimal maxPrice,
+            ProductCursor after, int limit) {
+        String lowerQuery = query == null ? null : query.toLowerCase(Locale.ROOT);
+        NavigableMap<Key, ProductRowDTO> range = byName;
+        if (lowerQuery != null && !matchAnywhere) {
+            range = byName.subMap(new Key(lowerQuery, "", MIN_UUID), true,
+                    new Key(lowerQuery + Character.MAX_VALUE, "", MIN_UUID), false);
+        }
+        if (after != null) {
+            range = range.tailMap(Key.of(after.name(), after.idProduct()), false);
+        }
+
+        List<ProductRowDTO> results = new ArrayList<>(Math.min(limit, 64));
+        for (var entry : range.entrySet()) {
+            if (matchAnywhere && lowerQuery != null && !entry.getKey().lowerName().contains(lowerQuery)) {
+                continue;
+            }
+            ProductRowDTO row = entry.getValue();
+            if ((minPrice != null && row.value().compareTo(minPrice) < 0)
+                    || (maxPrice != null && row.value().compareTo(maxPrice) > 0)) {
+                continue;
+            }
+            results.add(row);
+            if (results.size() == limit) {
+                break;
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,160 @@
+package com.breno.springboot.services;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.breno.springboot.dtos.ProductCursor;
+import com.breno.springboot.dtos.ProductRowDTO;
+import com.breno.springboot.events.ProductChangedEvent;
+import com.breno.springboot.models.ProductModel;
+import com.breno.springboot.repositories.ProductRepository;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Busca de produtos por nome (prefixo ou trecho, sem diferenciar maiúsculas) e faixa de preço, paginada por cursor.
+ * No PostgreSQL a consulta vai ao banco, apoiada pelos índices de trigramas em lower(name) e btree em value
+ * (migrações V3 e V7). Nos demais bancos (H2 em testes/desenvolvimento) usa um índice em memória, carregado na
+ * inicialização e mantido pelos ProductChangedEvent.
+ * Com sharding, a consulta vai a todos os shards em paralelo e as páginas são intercaladas; o índice em memória é
+ * carregado de todos os shards e já cobre o catálogo inteiro.
+ */
+@Service
+public class ProductSearchService {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    ProductShards productShards;
+
+    private final ProductSearchIndex index;
+    private final TransactionTemplate readOnlyTransaction;
+    // IDs removidos durante a carga inicial, para que a carga não traga de volta um produto já apagado
+    private final Set<UUID> removedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading = true;
+
+    public ProductSearchService(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.index = isPostgres(dataSource) ? null : new ProductSearchIndex();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param limit quantidade máxima de produtos retornados (o chamador pede um a mais para detectar a próxima página)
+     */
+    public List<ProductModel> search(String query, boolean matchAnywhere, BigDecimal minPrice, BigDecimal maxPrice,
+            ProductCursor after, int limit) {
+        String normalizedQuery = query == null || query.isBlank() ? null : query.trim();
+        if (index != null) {
+            List<ProductModel> products = new ArrayList<>();
+            for (ProductRowDTO row : index.search(normalizedQuery, matchAnywhere, minPrice, maxPrice, after, limit)) {
+                products.add(new ProductModel(row.idProduct(), row.name(), row.value()));
+            }
+            return products;
+        }
+        Specification<ProductModel> specification = specification(normalizedQuery, matchAnywhere, minPrice, maxPrice,
+                after);
+        return ProductShards.merge(productShards.onEachShard(() -> productRepository.findBy(specification,
+                q -> q.sortBy(Sort.by("name", "idProduct")).limit(limit).all())),
+                productShards.nameOrder(), ProductModel::getIdProduct, limit);
+    }
+
+    private static Specification<ProductModel> specification(String query, boolean matchAnywhere,
+            BigDecimal minPrice, BigDecimal maxPrice, ProductCursor after) {
+        return (root, criteriaQuery, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (query != null) {
+                String escaped = query.toLowerCase(Locale.ROOT)
+                        .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+                String pattern = matchAnywhere ? "%" + escaped + "%" : escaped + "%";
+                // A coluna usa a collation "C" (migração V7), com a qual lower() só converte ASCII
+                Expression<String> name = ((HibernateCriteriaBuilder) cb).collate(root.get("name"), "\"default\"");
+                predicates.add(cb.like(cb.lower(name), pattern, '\\'));
+            }
+            if (minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("value"), minPrice));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("value"), maxPrice));
+            }
+            if (after != null) {
+                predicates.add(cb.or(
+                        cb.greaterThan(root.get("name"), after.name()),
+                        cb.and(cb.equal(root.get("name"), after.name()),
+                                cb.greaterThan(root.<UUID>get("idProduct"), after.idProduct()))));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // Um shard por vez, cada um na sua transação somente leitura
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        if (index == null) {
+            return;
+        }
+        try {
+            for (int shard = 0; shard < productShards.count(); shard++) {
+                productShards.onShard(shard, () -> readOnlyTransaction.execute(status -> {
+                    try (var rows = productRepository.streamAllRows()) {
+                        rows.forEach(row -> {
+                            // Eventos recebidos durante a carga são mais recentes que a linha lida
+                            if (!index.contains(row.idProduct()) && !removedWhileLoading.contains(row.idProduct())) {
+                                index.put(row);
+                            }
+                        });
+                    }
+                    return null;
+                }));
+            }
+        } finally {
+            loading = false;
+            removedWhileLoading.clear();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (index == null) {
+            return;
+        }
+        if (event.operation() == ProductChangedEvent.Operation.DELETED) {
+            if (loading) {
+                removedWhileLoading.add(event.idProduct());
+            }
+            index.remove(event.idProduct());
+        } else {
+            index.put(new ProductRowDTO(event.idProduct(), event.name(), event.value()));
+        }
+    }
+}
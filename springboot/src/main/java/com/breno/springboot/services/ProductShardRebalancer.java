@@ -0,0 +1,266 @@
+package com.breno.springboot.services;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.breno.springboot.dtos.ShardRebalanceStatusDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+/**
+ * Rebalanceamento online dos shards (POST /shards/rebalance), usado depois de mudar a quantidade de shards em
+ * api.datasource.shards.urls. Percorre cada shard pela chave primária, em blocos de batchSize, e move cada linha
+ * que pertence a outro shard (inclusive os removidos, que as réplicas ainda precisam receber):
+ * 1. copia para o shard dono numa transação dele; se a linha já existe lá, só a substitui por uma revisão maior;
+ * 2. apaga da origem só se a revisão não mudou desde a leitura.
+ * Uma gravação na origem no meio da cópia deixa a linha para a passada seguinte, que a copia de novo. As passadas
+ * se repetem até nenhuma linha estar fora do lugar (no máximo MAX_PASSES). A aplicação continua atendendo durante
+ * o processo: com api.datasource.shards.previous-count, quem procura um produto ainda não movido o encontra no
+ * shard anterior (ProductShards.onHolder).
+ */
+@Service
+public class ProductShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductShardRebalancer.class);
+
+    private static final int MAX_PASSES = 5;
+
+    // Consultas nativas: incluem os produtos removidos, que o @SQLRestriction esconde das consultas JPA
+    private static final String COLUMNS =
+            "SELECT id_product, name, \"value\", version, revision, deleted, updated_at FROM tb_products ";
+
+    private record Row(UUID idProduct, String name, BigDecimal value, long version, long revision, boolean deleted,
+            Instant updatedAt) {
+    }
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    ProductShards productShards;
+
+    private final int batchSize;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService worker;
+    private final Counter movedCounter;
+
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong moved = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private volatile String state = ShardRebalanceStatusDTO.IDLE;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile int passes;
+    private volatile String message;
+
+    public ProductShardRebalancer(
+            @Value("${api.datasource.shards.rebalance-batch-size:500}") int batchSize,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.batchSize = batchSize;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-shard-rebalance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.movedCounter = Counter.builder("products.shards.rebalance.moved")
+                .description("Products moved to the shard that owns them")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inicia o rebalanceamento em segundo plano.
+     * @return false se já há um em andamento.
+     */
+    public synchronized boolean start() {
+        if (ShardRebalanceStatusDTO.RUNNING.equals(state)) {
+            return false;
+        }
+        scanned.set(0);
+        moved.set(0);
+        retried.set(0);
+        passes = 0;
+        message = null;
+        startedAt = Instant.now();
+        finishedAt = null;
+        state = ShardRebalanceStatusDTO.RUNNING;
+        worker.execute(this::run);
+        return true;
+    }
+
+    public ShardRebalanceStatusDTO getStatus() {
+        return new ShardRebalanceStatusDTO(state, startedAt, finishedAt, passes, scanned.get(), moved.get(),
+                retried.get(), message);
+    }
+
+    private void run() {
+        logger.info("Rebalancing products across {} shards", productShards.count());
+        try {
+            long misplaced;
+            do {
+                passes++;
+                misplaced = pass();
+            } while (misplaced > 0 && passes < MAX_PASSES);
+            if (misplaced > 0) {
+                finish(ShardRebalanceStatusDTO.FAILED,
+                        misplaced + " products were written while being moved; run the rebalance again");
+            } else {
+                finish(ShardRebalanceStatusDTO.COMPLETED, null);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Shard rebalance failed", e);
+            finish(ShardRebalanceStatusDTO.FAILED, e.getMessage());
+        }
+    }
+
+    private void finish(String finalState, String reason) {
+        message = reason;
+        finishedAt = Instant.now();
+        state = finalState;
+        logger.info("Shard rebalance {} after {} passes: {} scanned, {} moved, {} retried", finalState, passes,
+                scanned.get(), moved.get(), retried.get());
+    }
+
+    // Uma passada por todos os shards; devolve quantas linhas estavam fora do lugar
+    private long pass() {
+        long misplaced = 0;
+        for (int shard = 0; shard < productShards.count(); shard++) {
+            int source = shard;
+            UUID after = null;
+            List<Row> rows;
+            do {
+                UUID from = after;
+                rows = productShards.onShard(source, () -> readOnlyTransaction.execute(status -> readBatch(from)));
+                scanned.addAndGet(rows.size());
+                Map<Integer, List<Row>> byOwner = new LinkedHashMap<>();
+                for (Row row : rows) {
+                    int owner = productShards.shardOf(row.idProduct());
+                    if (owner != source) {
+                        byOwner.computeIfAbsent(owner, key -> new ArrayList<>()).add(row);
+                    }
+                }
+                for (Map.Entry<Integer, List<Row>> entry : byOwner.entrySet()) {
+                    misplaced += entry.getValue().size();
+                    move(source, entry.getKey(), entry.getValue());
+                }
+                if (!rows.isEmpty()) {
+                    after = rows.get(rows.size() - 1).idProduct();
+                }
+            } while (rows.size() == batchSize);
+        }
+        return misplaced;
+    }
+
+    private void move(int source, int owner, List<Row> rows) {
+        productShards.onShard(owner, () -> transaction.execute(status -> {
+            rows.forEach(this::copy);
+            return null;
+        }));
+        int deleted = productShards.onShard(source, () -> transaction.execute(status -> {
+            int count = 0;
+            for (Row row : rows) {
+                count += entityManager
+                        .createNativeQuery("DELETE FROM tb_products WHERE id_product = :idProduct AND revision = :revision")
+                        .setParameter("idProduct", row.idProduct())
+                        .setParameter("revision", row.revision())
+                        .executeUpdate();
+            }
+            return count;
+        }));
+        moved.addAndGet(deleted);
+        movedCounter.increment(deleted);
+        retried.addAndGet(rows.size() - deleted);
+    }
+
+    // Executa dentro da transação somente leitura do shard de origem
+    private List<Row> readBatch(UUID after) {
+        Query query = entityManager.createNativeQuery(COLUMNS
+                + (after == null ? "" : "WHERE id_product > :after ")
+                + "ORDER BY id_product LIMIT :limit");
+        if (after != null) {
+            query.setParameter("after", after);
+        }
+        // Tipos explícitos: o H2 informa a coluna UUID como binária e o resultado viria como byte[]
+        @SuppressWarnings("unchecked")
+        List<Object[]> results = query.unwrap(NativeQuery.class)
+                .addScalar("id_product", UUID.class)
+                .addScalar("name", String.class)
+                .addScalar("value", BigDecimal.class)
+                .addScalar("version", Long.class)
+                .addScalar("revision", Long.class)
+                .addScalar("deleted", Boolean.class)
+                .addScalar("updated_at", Instant.class)
+                .setParameter("limit", batchSize)
+                .getResultList();
+        List<Row> rows = new ArrayList<>(results.size());
+        for (Object[] result : results) {
+            rows.add(new Row((UUID) result[0], (String) result[1], (BigDecimal) result[2], (Long) result[3],
+                    (Long) result[4], (Boolean) result[5], (Instant) result[6]));
+        }
+        return rows;
+    }
+
+    // Executa dentro da transação do shard dono; não sobrescreve uma gravação mais nova feita já no shard dono
+    private void copy(Row row) {
+        List<?> existing = entityManager
+                .createNativeQuery("SELECT revision FROM tb_products WHERE id_product = :idProduct")
+                .setParameter("idProduct", row.idProduct())
+                .getResultList();
+        String sql;
+        if (existing.isEmpty()) {
+            sql = """
+                    INSERT INTO tb_products (id_product, name, "value", version, revision, deleted, updated_at)
+                    VALUES (:idProduct, :name, :value, :version, :revision, :deleted, :updatedAt)
+                    """;
+        } else if (((Number) existing.get(0)).longValue() < row.revision()) {
+            sql = """
+                    UPDATE tb_products SET name = :name, "value" = :value, version = :version, revision = :revision,
+                    deleted = :deleted, updated_at = :updatedAt
+                    WHERE id_product = :idProduct
+                    """;
+        } else {
+            return;
+        }
+        // Tipos explícitos para os valores nulos de produtos antigos (sem nome, preço ou data)
+        @SuppressWarnings("unchecked")
+        NativeQuery<Object> write = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        write.setParameter("idProduct", row.idProduct(), UUID.class)
+                .setParameter("name", row.name(), String.class)
+                .setParameter("value", row.value(), BigDecimal.class)
+                .setParameter("version", row.version(), Long.class)
+                .setParameter("revision", row.revision(), Long.class)
+                .setParameter("deleted", row.deleted(), Boolean.class)
+                .setParameter("updatedAt", row.updatedAt(), Instant.class)
+                .executeUpdate();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+}
@@ -0,0 +1,316 @@
+package com.breno.springboot.services;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.breno.springboot.config.ShardRouting;
+import com.breno.springboot.config.ShardRoutingDataSource;
+import com.breno.springboot.models.ProductModel;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Onde cada produto fica com api.datasource.shards.enabled: no shard hash(idProduct) mod N. Sem sharding há um único
+ * shard e todos os métodos só executam o trabalho, sem trocar de thread nem de conexão.
+ * - Operações sobre um produto vão direto ao shard dele (onOwner / onHolder).
+ * - Listagens consultam todos os shards em paralelo (onEachShard) e intercalam os resultados já ordenados (merge).
+ * - Produtos novos vão para os shards em rodízio; o ID é sorteado entre os que caem no shard da transação (newId).
+ * Com api.datasource.shards.previous-count, durante o rebalanceamento para mais ou menos shards, um produto que
+ * ainda não chegou ao shard novo é procurado no shard da configuração anterior.
+ */
+@Service
+public class ProductShards {
+
+    private static final int NAME_LOCKS = 64;
+
+    /**
+     * Ordem dos UUIDs no banco (bytes sem sinal, no H2 e no PostgreSQL); UUID.compareTo compara com sinal e
+     * intercalaria as páginas dos shards em outra ordem.
+     */
+    public static final Comparator<UUID> ID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private final int count;
+    private final int previousCount;
+    private final DataSource dataSource;
+    private final boolean postgres;
+    private final Comparator<ProductModel> nameOrder;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final ExecutorService scatter = Executors.newVirtualThreadPerTaskExecutor();
+    // Serializa a verificação e a gravação de um nome, que podem ir a shards diferentes
+    private final ReentrantLock[] nameLocks = new ReentrantLock[NAME_LOCKS];
+
+    public ProductShards(DataSource dataSource,
+            @Value("${api.datasource.shards.previous-count:0}") int previousCount) {
+        this.count = shardCount(dataSource);
+        this.previousCount = previousCount > 0 && previousCount != count ? previousCount : 0;
+        this.dataSource = dataSource;
+        this.postgres = isPostgres(dataSource);
+        // O H2 compara os nomes como String.compareTo (unidades UTF-16); a collation "C" do PostgreSQL, pelos bytes
+        // UTF-8, ou seja, por code point. As duas só divergem entre caracteres fora do BMP e os de U+E000 a U+FFFF
+        Comparator<ProductModel> byName = Comparator.comparing(ProductModel::getName,
+                postgres ? ProductShards::compareCodePoints : Comparator.naturalOrder());
+        this.nameOrder = byName.thenComparing(ProductModel::getIdProduct, ID_ORDER);
+        for (int i = 0; i < NAME_LOCKS; i++) {
+            nameLocks[i] = new ReentrantLock();
+        }
+    }
+
+    // O DataSource pode estar envolvido por outro (BulkheadDataSource, com threads virtuais)
+    private static int shardCount(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ShardRoutingDataSource.class)
+                    ? dataSource.unwrap(ShardRoutingDataSource.class).shardCount()
+                    : 1;
+        } catch (SQLException e) {
+            return 1;
+        }
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static int compareCodePoints(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int codePointA = a.codePointAt(i);
+            int codePointB = b.codePointAt(j);
+            if (codePointA != codePointB) {
+                return Integer.compare(codePointA, codePointB);
+            }
+            i += Character.charCount(codePointA);
+            j += Character.charCount(codePointB);
+        }
+        return Boolean.compare(i < a.length(), j < b.length());
+    }
+
+    /**
+     * No PostgreSQL, com mais de um shard, exige a collation "C" na coluna name de todos os shards (migração V7).
+     * Com a collation do banco cada shard ordenaria as páginas de um jeito que nameOrder não reproduz, e as
+     * listagens intercaladas sairiam fora de ordem; bancos criados pelo ddl-auto precisam do ALTER da V7.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkNameCollation() {
+        if (count == 1 || !postgres) {
+            return;
+        }
+        List<String> collations = onEachShard(() -> {
+            try (Connection connection = dataSource.getConnection();
+                    PreparedStatement statement = connection.prepareStatement("""
+                            SELECT collation_name FROM information_schema.columns
+                            WHERE table_name = 'tb_products' AND column_name = 'name'
+                            """);
+                    ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? String.valueOf(resultSet.getString(1)) : null;
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not read the collation of tb_products.name", e);
+            }
+        });
+        for (int shard = 0; shard < count; shard++) {
+            if (!"C".equals(collations.get(shard))) {
+                throw new IllegalStateException("tb_products.name on shard " + shard + " uses collation "
+                        + collations.get(shard) + "; sharded listings need COLLATE \"C\" (see migration V7)");
+            }
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Ordem das listagens keyset, (name, idProduct), igual à do banco: é a que merge usa para intercalar as
+     * páginas dos shards.
+     */
+    public Comparator<ProductModel> nameOrder() {
+        return nameOrder;
+    }
+
+    public int shardOf(UUID idProduct) {
+        return Math.floorMod(idProduct.hashCode(), count);
+    }
+
+    // Shard de um produto novo, em rodízio
+    public int nextShard() {
+        return count == 1 ? 0 : Math.floorMod(nextShard.getAndIncrement(), count);
+    }
+
+    /**
+     * ID para um produto novo. Dentro de onShard é sorteado até cair naquele shard (em média N sorteios); fora dele,
+     * no shard 0, para onde vão as conexões sem shard definido.
+     */
+    public UUID newId() {
+        if (count == 1) {
+            return UUID.randomUUID();
+        }
+        Integer current = ShardRouting.current();
+        int shard = current != null ? current : 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID id;
+        do {
+            // UUID versão 4 (aleatório), como UUID.randomUUID
+            long mostSignificant = (random.nextLong() & ~0xF000L) | 0x4000L;
+            long leastSignificant = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+            id = new UUID(mostSignificant, leastSignificant);
+        } while (shardOf(id) != shard);
+        return id;
+    }
+
+    /**
+     * DataSource de um único shard, fora do roteamento: dá uma conexão própria daquele shard mesmo dentro de
+     * onShard ou de uma transação em outro shard. Sem sharding, o DataSource da aplicação.
+     */
+    public DataSource shardDataSource(int shard) {
+        if (count == 1) {
+            return dataSource;
+        }
+        try {
+            return dataSource.unwrap(ShardRoutingDataSource.class).shard(shard);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not unwrap the shard routing DataSource", e);
+        }
+    }
+
+    public <T> T onShard(int shard, Supplier<T> work) {
+        return count == 1 ? work.get() : ShardRouting.onShard(shard, work);
+    }
+
+    public <T> T onOwner(UUID idProduct, Supplier<T> work) {
+        return onShard(shardOf(idProduct), work);
+    }
+
+    /**
+     * Executa no shard que guarda o produto: o trabalho devolve vazio quando não o encontra. Durante um
+     * rebalanceamento tenta também o shard anterior e, se o produto acabou de sair dele, o novo outra vez.
+     */
+    public <T> Optional<T> onHolder(UUID idProduct, Supplier<Optional<T>> work) {
+        int owner = shardOf(idProduct);
+        Optional<T> result = onShard(owner, work);
+        if (result.isPresent() || previousCount == 0) {
+            return result;
+        }
+        int previous = Math.floorMod(idProduct.hashCode(), previousCount);
+        if (previous == owner || previous >= count) {
+            return result;
+        }
+        result = onShard(previous, work);
+        return result.isPresent() ? result : onShard(owner, work);
+    }
+
+    // Executa o trabalho em cada shard, em paralelo; os resultados vêm na ordem dos shards
+    public <T> List<T> onEachShard(Supplier<T> work) {
+        return mapShards(shard -> work.get());
+    }
+
+    // Como onEachShard, mas o trabalho recebe o número do shard (para consultar só os IDs que ele guarda)
+    public <T> List<T> mapShards(IntFunction<T> work) {
+        if (count == 1) {
+            return List.of(work.apply(0));
+        }
+        List<Future<T>> futures = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            int target = shard;
+            futures.add(scatter.submit(() -> ShardRouting.onShard(target, () -> work.apply(target))));
+        }
+        List<T> results = new ArrayList<>(count);
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying the product shards", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Intercala listas já ordenadas (uma por shard) mantendo a ordem, até limit itens. Um produto presente em dois
+     * shards (copiado pelo rebalanceamento e ainda não apagado da origem) aparece uma vez só.
+     */
+    public static <T> List<T> merge(List<List<T>> sortedLists, Comparator<? super T> order, Function<T, UUID> id,
+            int limit) {
+        if (sortedLists.size() == 1) {
+            List<T> only = sortedLists.get(0);
+            return only.size() > limit ? only.subList(0, limit) : only;
+        }
+        record Head<T>(T item, int list, int index) {
+        }
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Comparator.comparing(Head::item, order));
+        for (int i = 0; i < sortedLists.size(); i++) {
+            if (!sortedLists.get(i).isEmpty()) {
+                heads.add(new Head<>(sortedLists.get(i).get(0), i, 0));
+            }
+        }
+        List<T> merged = new ArrayList<>(limit);
+        Set<UUID> seen = new HashSet<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Head<T> head = heads.poll();
+            if (seen.add(id.apply(head.item()))) {
+                merged.add(head.item());
+            }
+            List<T> list = sortedLists.get(head.list());
+            if (head.index() + 1 < list.size()) {
+                heads.add(new Head<>(list.get(head.index() + 1), head.list(), head.index() + 1));
+            }
+        }
+        return merged;
+    }
+
+    // Executa com o nome reservado: outra gravação do mesmo nome nesta instância espera a verificação e a gravação
+    public <T> T withNameLock(String name, Supplier<T> work) {
+        ReentrantLock lock = nameLocks[Math.floorMod(name == null ? 0 : name.hashCode(), NAME_LOCKS)];
+        lock.lock();
+        try {
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scatter.shutdownNow();
+    }
+}
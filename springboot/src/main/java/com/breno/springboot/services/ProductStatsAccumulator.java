@@ -0,0 +1,138 @@
+package com.breno.springboot.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.breno.springboot.dtos.PriceBucketDTO;
+import com.breno.springboot.dtos.ProductStatsDTO;
+
+/**
+ * Estatísticas de preço do catálogo mantidas em memória: quantidade, soma, menor/maior preço e um histograma de
+ * faixas fixas. Cada alteração ajusta só as contribuições do produto alterado, então ler não percorre o catálogo.
+ * O preço atual de cada produto fica guardado para desfazer a contribuição anterior numa alteração ou remoção;
+ * alterações do mesmo produto são aplicadas uma de cada vez (compute do ConcurrentHashMap), as demais em paralelo.
+ * Memória: esse mapa tem uma entrada por produto (~110 bytes com nó, UUID e BigDecimal, ~110 MB por milhão de
+ * produtos). É o preço de estatísticas exatas sem ler o banco: o evento traz só o preço novo, e sem o anterior não
+ * há como desfazer sua contribuição. Para menor/maior basta contar produtos por preço distinto, o que cresce com a
+ * variedade de preços e não com o catálogo.
+ */
+class ProductStatsAccumulator {
+
+    private final BigDecimal[] bounds;
+    private final ConcurrentHashMap<UUID, BigDecimal> values = new ConcurrentHashMap<>();
+    // Quantos produtos têm cada preço (comparado por compareTo: 10.0 e 10.00 são o mesmo preço)
+    private final ConcurrentSkipListMap<BigDecimal, Long> byValue = new ConcurrentSkipListMap<>();
+    private final LongAdder count = new LongAdder();
+    private final AtomicReference<BigDecimal> sum = new AtomicReference<>(BigDecimal.ZERO);
+    // Faixa i: [bounds[i - 1], bounds[i]); a primeira não tem limite inferior e a última, superior
+    private final AtomicLongArray buckets;
+    // IDs removidos durante a carga, para que a carga não traga de volta um produto já apagado
+    private final Set<UUID> removedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading = true;
+
+    /**
+     * @param bounds limites das faixas do histograma, em ordem crescente e sem repetições.
+     */
+    ProductStatsAccumulator(BigDecimal[] bounds) {
+        this.bounds = bounds;
+        this.buckets = new AtomicLongArray(bounds.length + 1);
+    }
+
+    /**
+     * Registra o preço atual de um produto.
+     * @param value o novo preço, ou null quando o produto foi removido.
+     */
+    void apply(UUID idProduct, BigDecimal value) {
+        values.compute(idProduct, (id, previous) -> {
+            if (value == null && loading) {
+                removedWhileLoading.add(id);
+            }
+            if (previous != null) {
+                subtract(previous);
+            }
+            if (value != null) {
+                add(value);
+            }
+            return value;
+        });
+    }
+
+    // Linha lida na carga; eventos recebidos durante a carga são mais recentes que ela
+    void load(UUID idProduct, BigDecimal value) {
+        if (value == null) {
+            return;
+        }
+        values.compute(idProduct, (id, previous) -> {
+            if (previous != null || removedWhileLoading.contains(id)) {
+                return previous;
+            }
+            add(value);
+            return value;
+        });
+    }
+
+    void finishLoading() {
+        loading = false;
+        removedWhileLoading.clear();
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    BigDecimal sum() {
+        return sum.get();
+    }
+
+    BigDecimal min() {
+        Map.Entry<BigDecimal, Long> first = byValue.firstEntry();
+        return first != null ? first.getKey() : null;
+    }
+
+    BigDecimal max() {
+        Map.Entry<BigDecimal, Long> last = byValue.lastEntry();
+        return last != null ? last.getKey() : null;
+    }
+
+    ProductStatsDTO snapshot() {
+        long total = count();
+        BigDecimal average = total > 0 ? sum().divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP) : null;
+        List<PriceBucketDTO> histogram = new ArrayList<>(buckets.length());
+        for (int i = 0; i < buckets.length(); i++) {
+            histogram.add(new PriceBucketDTO(i > 0 ? bounds[i - 1] : null, i < bounds.length ? bounds[i] : null,
+                    buckets.get(i)));
+        }
+        return new ProductStatsDTO(total, min(), max(), average, histogram);
+    }
+
+    private void add(BigDecimal value) {
+        count.increment();
+        sum.accumulateAndGet(value, BigDecimal::add);
+        byValue.merge(value, 1L, Long::sum);
+        buckets.incrementAndGet(bucketOf(value));
+    }
+
+    private void subtract(BigDecimal value) {
+        count.decrement();
+        sum.accumulateAndGet(value, BigDecimal::subtract);
+        byValue.computeIfPresent(value, (price, products) -> products == 1 ? null : products - 1);
+        buckets.decrementAndGet(bucketOf(value));
+    }
+
+    private int bucketOf(BigDecimal value) {
+        int index = Arrays.binarySearch(bounds, value);
+        // Um preço igual a um limite pertence à faixa que começa nele
+        return index >= 0 ? index + 1 : -(index + 1);
+    }
+}
@@ -0,0 +1,208 @@
+package com.breno.springboot.services;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.breno.springboot.config.ReadRouting;
+import com.breno.springboot.dtos.ProductAggregateDTO;
+import com.breno.springboot.dtos.ProductStatsDTO;
+import com.breno.springboot.events.ProductChangedEvent;
+import com.breno.springboot.repositories.ProductRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Estatísticas do catálogo (GET /products/stats) servidas da memória, sem consultar o banco.
+ * São calculadas uma vez na inicialização e atualizadas pelos ProductChangedEvent de cada gravação confirmada.
+ * A cada reconcileInterval são comparadas com COUNT/SUM/MIN/MAX do banco; se divergirem (uma gravação fora da
+ * aplicação, um evento perdido) são recalculadas do zero, sem interromper as leituras.
+ * Com sharding, o recálculo percorre os shards um de cada vez e os agregados do banco somam os de todos.
+ */
+@Service
+public class ProductStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductStatsService.class);
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    ProductShards productShards;
+
+    private final BigDecimal[] bucketBounds;
+    private final Duration reconcileInterval;
+    private final TransactionTemplate readOnlyTransaction;
+    private volatile ProductStatsAccumulator stats;
+    // Estatísticas sendo recalculadas, que também recebem os eventos até substituírem as atuais
+    private ProductStatsAccumulator rebuilding;
+    // Eventos aplicam em paralelo (leitura); a troca pelas recalculadas é exclusiva (escrita)
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService reconciler;
+    private final Counter matchCounter;
+    private final Counter driftCounter;
+
+    public ProductStatsService(
+            @Value("${api.products.stats.buckets:10,50,100,500,1000,5000}") BigDecimal[] bucketBounds,
+            @Value("${api.products.stats.reconcile-interval:5m}") Duration reconcileInterval,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.bucketBounds = Arrays.stream(bucketBounds).sorted().distinct().toArray(BigDecimal[]::new);
+        this.reconcileInterval = reconcileInterval;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.stats = new ProductStatsAccumulator(this.bucketBounds);
+        this.matchCounter = reconciliations(meterRegistry, "match");
+        this.driftCounter = reconciliations(meterRegistry, "drift");
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-stats-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // "products.stats.reconciliations": comparações com o banco, por resultado
+    private static Counter reconciliations(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("products.stats.reconciliations")
+                .description("Checks of the in-memory catalog statistics against the database")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public ProductStatsDTO getStats() {
+        return stats.snapshot();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+        reconciler.scheduleWithFixedDelay(this::reconcileQuietly, reconcileInterval.toMillis(),
+                reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        BigDecimal value = event.operation() == ProductChangedEvent.Operation.DELETED ? null : event.value();
+        swapLock.readLock().lock();
+        try {
+            stats.apply(event.idProduct(), value);
+            if (rebuilding != null) {
+                rebuilding.apply(event.idProduct(), value);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // Recalcula a partir do banco; leituras e eventos continuam usando as estatísticas atuais até a troca
+    synchronized void rebuild() {
+        ProductStatsAccumulator next = new ProductStatsAccumulator(bucketBounds);
+        setRebuilding(next);
+        try {
+            // No primário: numa réplica atrasada faltariam gravações cujos eventos já foram aplicados
+            for (int shard = 0; shard < productShards.count(); shard++) {
+                productShards.onShard(shard, () -> ReadRouting.onPrimary(() -> readOnlyTransaction.execute(status -> {
+                    try (var rows = productRepository.streamAllRows()) {
+                        rows.forEach(row -> next.load(row.idProduct(), row.value()));
+                    }
+                    return null;
+                })));
+            }
+            swapLock.writeLock().lock();
+            try {
+                stats = next;
+                rebuilding = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            next.finishLoading();
+        } catch (RuntimeException e) {
+            setRebuilding(null);
+            throw e;
+        }
+    }
+
+    private void setRebuilding(ProductStatsAccumulator accumulator) {
+        swapLock.writeLock().lock();
+        try {
+            rebuilding = accumulator;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compara com os agregados do banco e recalcula se divergirem. Uma gravação confirmada cujo evento ainda não
+     * foi aplicado também conta como divergência; nesse caso o recálculo é desnecessário, mas inofensivo.
+     * @return true quando as estatísticas conferiam com o banco.
+     */
+    boolean reconcile() {
+        ProductAggregateDTO expected = productShards
+                .onEachShard(() -> ReadRouting.onPrimary(productRepository::aggregateValues)).stream()
+                .reduce(ProductStatsService::combine).orElseThrow();
+        ProductStatsAccumulator current = stats;
+        boolean matches = expected.count() == current.count()
+                && (expected.sum() == null ? BigDecimal.ZERO : expected.sum()).compareTo(current.sum()) == 0
+                && sameValue(expected.min(), current.min())
+                && sameValue(expected.max(), current.max());
+        if (matches) {
+            matchCounter.increment();
+            return true;
+        }
+        driftCounter.increment();
+        logger.warn("Product stats drifted from the database (count {} vs {}, sum {} vs {}); rebuilding",
+                current.count(), expected.count(), current.sum(), expected.sum());
+        rebuild();
+        return false;
+    }
+
+    private static ProductAggregateDTO combine(ProductAggregateDTO a, ProductAggregateDTO b) {
+        return new ProductAggregateDTO(a.count() + b.count(), addNullable(a.sum(), b.sum()),
+                pick(a.min(), b.min(), -1), pick(a.max(), b.max(), 1));
+    }
+
+    private static BigDecimal addNullable(BigDecimal a, BigDecimal b) {
+        return a == null ? b : b == null ? a : a.add(b);
+    }
+
+    // O menor (sign -1) ou o maior (sign 1) dos dois, ignorando shards vazios (null)
+    private static BigDecimal pick(BigDecimal a, BigDecimal b, int sign) {
+        return a == null ? b : b == null ? a : Integer.signum(a.compareTo(b)) == sign ? a : b;
+    }
+
+    private static boolean sameValue(BigDecimal expected, BigDecimal actual) {
+        return expected == null || actual == null ? Objects.equals(expected, actual) : expected.compareTo(actual) == 0;
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            // Mantém as estatísticas atuais; a próxima reconciliação tenta de novo
+            logger.warn("Could not reconcile product stats", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reconciler.shutdownNow();
+    }
+}
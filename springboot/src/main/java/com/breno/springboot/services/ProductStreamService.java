@@ -0,0 +1,76 @@
+package com.breno.springboot.services;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.breno.springboot.dtos.ProductRowDTO;
+import com.breno.springboot.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Service
+public class ProductStreamService {
+
+    // Quantidade de linhas escritas entre cada flush para o cliente
+    private static final int FLUSH_EVERY = 500;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    ProductShards productShards;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ProductStreamService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Escreve todos os produtos como NDJSON (um objeto JSON por linha) à medida que o cursor JDBC os entrega.
+     * A transação fica aberta apenas durante a escrita, e nenhuma entidade é mantida no contexto de persistência,
+     * então o uso de memória não cresce com o tamanho da tabela.
+     * Com sharding, os shards são lidos um depois do outro, cada um na sua transação: a ordem por nome vale dentro
+     * de cada shard, não no fluxo inteiro.
+     */
+    public StreamingResponseBody streamAsNdjson() {
+        return outputStream -> {
+            var out = new BufferedOutputStream(outputStream);
+            var written = new int[1];
+            for (int shard = 0; shard < productShards.count(); shard++) {
+                productShards.onShard(shard, () -> readOnlyTransaction.execute(status -> {
+                    writeRows(out, written);
+                    return null;
+                }));
+            }
+            out.flush();
+        };
+    }
+
+    private void writeRows(BufferedOutputStream out, int[] written) {
+        try (Stream<ProductRowDTO> rows = productRepository.streamAllRows()) {
+            rows.forEach(row -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(row));
+                    out.write('\n');
+                    if (++written[0] % FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.breno.springboot.services;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.breno.springboot.config.ReadRouting;
+import com.breno.springboot.models.ProductSyncModel;
+import com.breno.springboot.repositories.ProductSyncRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Expurgo dos tombstones da sincronização incremental: produtos removidos há mais de
+ * api.products.delta.tombstone-retention saem do banco a cada purge-interval, em todos os shards.
+ * Antes de apagar, a maior revisão apagada fica registrada em tb_product_sync (shard 0), e GET /products/delta
+ * responde 410 a quem continua de uma revisão abaixo dela: essa réplica perderia as remoções e precisa de uma
+ * carga completa. Cada instância roda o expurgo; execuções simultâneas apagam as mesmas linhas e o limite só avança.
+ */
+@Service
+public class ProductTombstoneService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductTombstoneService.class);
+
+    @Autowired
+    ProductSyncRepository syncRepository;
+
+    @Autowired
+    ProductShards productShards;
+
+    @Autowired
+    EntityManager entityManager;
+
+    private final Duration retention;
+    private final Duration purgeInterval;
+    private final Clock clock;
+    private final TransactionTemplate transaction;
+    private ScheduledExecutorService purger;
+
+    @Autowired
+    public ProductTombstoneService(
+            @Value("${api.products.delta.tombstone-retention:30d}") Duration retention,
+            @Value("${api.products.delta.purge-interval:1h}") Duration purgeInterval,
+            PlatformTransactionManager transactionManager) {
+        this(retention, purgeInterval, transactionManager, Clock.systemUTC());
+    }
+
+    // Relógio injetável: os testes envelhecem os tombstones sem esperar a retenção
+    ProductTombstoneService(Duration retention, Duration purgeInterval, PlatformTransactionManager transactionManager,
+            Clock clock) {
+        this.retention = retention;
+        this.purgeInterval = purgeInterval;
+        this.clock = clock;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void start() {
+        init();
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-tombstone-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(() -> {
+            try {
+                purge();
+            } catch (RuntimeException e) {
+                logger.warn("Could not purge product tombstones: {}", e.getMessage());
+            }
+        }, purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Bancos criados pelo ddl-auto não têm a linha que a migração V8 insere
+    void init() {
+        productShards.onShard(0, () -> {
+            if (!syncRepository.existsById(ProductSyncModel.ID)) {
+                try {
+                    syncRepository.save(new ProductSyncModel(ProductSyncModel.ID, 0));
+                } catch (DataIntegrityViolationException e) {
+                    // Outra instância inseriu a linha ao mesmo tempo
+                }
+            }
+            return null;
+        });
+    }
+
+    // Maior revisão já expurgada; lida no primário, já que um valor atrasado aceitaria um since sem as remoções
+    public long purgedRevision() {
+        return productShards.onShard(0, () -> ReadRouting.onPrimary(
+                () -> syncRepository.findPurgedRevision(ProductSyncModel.ID))).orElse(0L);
+    }
+
+    /**
+     * Apaga os tombstones mais antigos que a retenção.
+     * @return quantidade de linhas apagadas em todos os shards.
+     */
+    public int purge() {
+        Timestamp cutoff = Timestamp.from(clock.instant().minus(retention));
+        List<Long> maxima = productShards.onEachShard(() -> transaction.execute(status -> maxPurgeable(cutoff)));
+        long horizon = maxima.stream().mapToLong(Long::longValue).max().orElse(-1);
+        if (horizon < 0) {
+            return 0;
+        }
+        // Registra o limite antes de apagar: uma sincronização entre as duas etapas já recebe 410
+        productShards.onShard(0, () -> syncRepository.raisePurgedRevision(ProductSyncModel.ID, horizon));
+        int deleted = productShards.mapShards(shard -> maxima.get(shard) < 0 ? 0
+                : transaction.execute(status -> delete(maxima.get(shard)))).stream().mapToInt(Integer::intValue).sum();
+        logger.info("Purged {} product tombstones up to revision {}", deleted, horizon);
+        return deleted;
+    }
+
+    // Consultas nativas: os removidos ficam fora de todas as consultas JPA por causa do @SQLRestriction; -1 sem nenhum
+    private long maxPurgeable(Timestamp cutoff) {
+        Number max = (Number) entityManager
+                .createNativeQuery("SELECT COALESCE(MAX(revision), -1) FROM tb_products "
+                        + "WHERE deleted = true AND updated_at < :cutoff")
+                .setParameter("cutoff", cutoff)
+                .getSingleResult();
+        return max.longValue();
+    }
+
+    // Pela revisão: um tombstone abaixo do limite registrado sai mesmo que a data dele seja um pouco mais nova
+    private int delete(long upTo) {
+        return entityManager
+                .createNativeQuery("DELETE FROM tb_products WHERE deleted = true AND revision <= :upTo")
+                .setParameter("upTo", upTo)
+                .executeUpdate();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,593 @@
+package com.breno.springboot.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.breno.springboot.dtos.ProductRecordDTO;
+import com.breno.springboot.dtos.ProductWriteStatusDTO;
+import com.breno.springboot.exceptions.WriteQueueFullException;
+import com.breno.springboot.models.ProductModel;
+import com.breno.springboot.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolationException;
+
+/**
+ * Write-behind das gravações de produto (api.products.write-behind.enabled=true).
+ * POST/PUT/DELETE são validados, registrados no journal local e respondidos com 202 e um tracking ID; uma thread
+ * única aplica a fila em lotes de batchSize, cada lote numa transação.
+ * Gravações pendentes do mesmo produto são combinadas: várias atualizações viram uma só, e uma remoção substitui
+ * as atualizações anteriores. A fila é limitada em capacity produtos distintos; acima disso responde 503.
+ * Como todas as criações passam pela mesma thread e os nomes pendentes ficam reservados até serem aplicados,
+ * dois cadastros com o mesmo nome não são inseridos juntos. Entre instâncias, e contra o POST síncrono e a
+ * importação em lote, cada criação reserva o nome (ProductNameReservations) ao ser aplicada.
+ * Com sharding, o lote é dividido por shard (as criações em rodízio), com uma transação por shard.
+ * Uma gravação só sai da fila com um resultado final: aplicada, conflito, não encontrada ou, se o banco recusou os
+ * dados (restrição ou valor inválido), falha. Erros transitórios (conexão perdida, timeout de lock, banco fora do ar)
+ * devolvem as gravações à fila, com espera crescente entre as tentativas, e o journal só é truncado quando todas
+ * as gravações escritas nele têm a linha "done".
+ */
+@Service
+@ConditionalOnProperty(name = "api.products.write-behind.enabled", havingValue = "true")
+public class ProductWriteBehindService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductWriteBehindService.class);
+
+    static final String CREATE = "create";
+    static final String UPDATE = "update";
+    static final String DELETE = "delete";
+
+    // Espera máxima entre tentativas enquanto o banco falha
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+
+    // Gravações pendentes de um produto (ou de uma criação), já combinadas
+    private static final class PendingWrite {
+        final List<UUID> trackingIds = new ArrayList<>();
+        String operation;
+        final UUID idProduct;
+        String name;
+        BigDecimal value;
+        // Token da reserva do nome de uma criação; mantido entre as tentativas depois de um erro transitório
+        Map<String, UUID> reservation = Map.of();
+
+        PendingWrite(String operation, UUID idProduct, String name, BigDecimal value) {
+            this.operation = operation;
+            this.idProduct = idProduct;
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    private record Outcome(String status, UUID idProduct, String message) {
+    }
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    ProductCacheService productCacheService;
+
+    @Autowired
+    ProductShards productShards;
+
+    @Autowired
+    ProductNameReservations productNameReservations;
+
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Path journalPath;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter coalescedCounter;
+
+    // Chave: tracking ID para criações (o ID do produto ainda não existe), ID do produto para atualizações/remoções
+    private final LinkedHashMap<UUID, PendingWrite> pending = new LinkedHashMap<>();
+    private final Set<String> pendingNames = new HashSet<>();
+    private final Cache<UUID, ProductWriteStatusDTO> statuses;
+
+    // Gravações escritas no journal ainda sem a linha "done" (protegido pelo lock)
+    private long undoneInJournal;
+    // Espera antes da próxima tentativa depois de uma falha transitória; zero depois de um lote aplicado.
+    // Usados só pela thread do flusher (e pelo desligamento, depois que ela termina)
+    private long retryDelayMillis;
+    private long retryAtNanos;
+
+    private ProductWriteJournal journal;
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public ProductWriteBehindService(
+            @Value("${api.products.write-behind.capacity:10000}") int capacity,
+            @Value("${api.products.write-behind.batch-size:500}") int batchSize,
+            @Value("${api.products.write-behind.flush-interval:200ms}") Duration flushInterval,
+            @Value("${api.products.write-behind.journal:data/product-writes.journal}") Path journalPath,
+            @Value("${api.products.write-behind.status-ttl:1h}") Duration statusTtl,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.journalPath = journalPath;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.statuses = Caffeine.newBuilder().maximumSize(Math.max(capacity * 10L, 10_000)).expireAfterWrite(statusTtl).build();
+        Gauge.builder("products.write_behind.pending", this, service -> service.pendingCount())
+                .description("Products with writes waiting to be applied")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("products.write_behind.coalesced")
+                .description("Writes merged into a write already pending for the same product")
+                .register(meterRegistry);
+    }
+
+    private synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Enfileira um cadastro.
+     * @return vazio se já existe uma criação pendente com o mesmo nome.
+     */
+    public Optional<ProductWriteStatusDTO> enqueueCreate(ProductRecordDTO product) {
+        UUID trackingId = UUID.randomUUID();
+        synchronized (this) {
+            if (pendingNames.contains(product.name())) {
+                return Optional.empty();
+            }
+            ensureCapacity();
+            journal.append(new ProductWriteJournal.Write(trackingId, CREATE, null, product.name(), product.value()));
+            undoneInJournal++;
+            accept(trackingId, CREATE, null, product.name(), product.value());
+        }
+        return Optional.of(track(trackingId, CREATE, null));
+    }
+
+    /**
+     * Enfileira uma atualização de um produto existente.
+     * @return vazio se o produto já tem uma remoção pendente.
+     */
+    public Optional<ProductWriteStatusDTO> enqueueUpdate(UUID idProduct, ProductRecordDTO product) {
+        return enqueue(idProduct, UPDATE, product.name(), product.value());
+    }
+
+    /**
+     * Enfileira a remoção de um produto existente.
+     * @return vazio se o produto já tem uma remoção pendente.
+     */
+    public Optional<ProductWriteStatusDTO> enqueueDelete(UUID idProduct) {
+        return enqueue(idProduct, DELETE, null, null);
+    }
+
+    private Optional<ProductWriteStatusDTO> enqueue(UUID idProduct, String operation, String name, BigDecimal value) {
+        UUID trackingId = UUID.randomUUID();
+        synchronized (this) {
+            PendingWrite existing = pending.get(idProduct);
+            if (existing != null && DELETE.equals(existing.operation)) {
+                return Optional.empty();
+            }
+            if (existing == null) {
+                ensureCapacity();
+            }
+            journal.append(new ProductWriteJournal.Write(trackingId, operation, idProduct, name, value));
+            undoneInJournal++;
+            accept(trackingId, operation, idProduct, name, value);
+        }
+        return Optional.of(track(trackingId, operation, idProduct));
+    }
+
+    // Há gravação pendente para o produto (a versão persistida ainda vai mudar)
+    public synchronized boolean hasPendingWrite(UUID idProduct) {
+        return pending.containsKey(idProduct);
+    }
+
+    public Optional<ProductWriteStatusDTO> getStatus(UUID trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    private void ensureCapacity() {
+        if (pending.size() >= capacity) {
+            throw new WriteQueueFullException("Product write queue is full");
+        }
+    }
+
+    // Deve ser chamado com o lock; combina com a gravação pendente do mesmo produto, se houver
+    private void accept(UUID trackingId, String operation, UUID idProduct, String name, BigDecimal value) {
+        if (CREATE.equals(operation)) {
+            PendingWrite write = new PendingWrite(CREATE, null, name, value);
+            write.trackingIds.add(trackingId);
+            pending.put(trackingId, write);
+            pendingNames.add(name);
+        } else {
+            PendingWrite write = pending.get(idProduct);
+            if (write == null) {
+                write = new PendingWrite(operation, idProduct, name, value);
+                pending.put(idProduct, write);
+            } else if (!DELETE.equals(write.operation)) {
+                write.operation = operation;
+                write.name = name;
+                write.value = value;
+                coalescedCounter.increment();
+            }
+            write.trackingIds.add(trackingId);
+        }
+        // Lote cheio: não espera o próximo intervalo
+        if (pending.size() >= batchSize && flusher != null) {
+            flusher.execute(this::flushIfDue);
+        }
+    }
+
+    private ProductWriteStatusDTO track(UUID trackingId, String operation, UUID idProduct) {
+        ProductWriteStatusDTO status = new ProductWriteStatusDTO(trackingId, operation, ProductWriteStatusDTO.PENDING,
+                idProduct, null);
+        // Um lote pode ter sido aplicado antes deste registro; não sobrescreve o resultado final
+        statuses.asMap().putIfAbsent(trackingId, status);
+        return statuses.getIfPresent(trackingId);
+    }
+
+    // Execução agendada (e de lote cheio): depois de uma falha transitória, respeita a espera antes de tentar de novo
+    void flushIfDue() {
+        if (retryDelayMillis > 0 && System.nanoTime() - retryAtNanos < 0) {
+            return;
+        }
+        flush();
+    }
+
+    // Aplica toda a fila, um lote por vez; roda sempre na thread do flusher (ou no desligamento, depois dela)
+    void flush() {
+        while (true) {
+            List<PendingWrite> batch = new ArrayList<>(batchSize);
+            synchronized (this) {
+                Iterator<PendingWrite> iterator = pending.values().iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    batch.add(iterator.next());
+                    iterator.remove();
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<PendingWrite> retry;
+            try {
+                retry = apply(batch);
+            } catch (RuntimeException e) {
+                // Falha antes de qualquer transação confirmar (ex.: consulta dos nomes): o lote inteiro volta
+                logger.warn("Could not apply {} product writes", batch.size(), e);
+                retry = batch;
+            }
+            Set<PendingWrite> retried = new HashSet<>(retry);
+            synchronized (this) {
+                // O nome de uma criação que volta para a fila continua reservado
+                batch.stream()
+                        .filter(write -> CREATE.equals(write.operation) && !retried.contains(write))
+                        .forEach(write -> pendingNames.remove(write.name));
+                requeue(retry);
+                if (undoneInJournal == 0) {
+                    try {
+                        journal.truncate();
+                    } catch (UncheckedIOException e) {
+                        logger.warn("Could not truncate the product write journal", e);
+                    }
+                }
+            }
+            if (!retry.isEmpty()) {
+                backOff(retry.size());
+                return;
+            }
+            retryDelayMillis = 0;
+        }
+    }
+
+    private void backOff(int writes) {
+        retryDelayMillis = Math.min(Math.max(flushInterval.toMillis(), retryDelayMillis) * 2,
+                MAX_RETRY_DELAY.toMillis());
+        retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDelayMillis);
+        logger.warn("{} product writes could not be applied; retrying in {} ms", writes, retryDelayMillis);
+    }
+
+    /**
+     * Deve ser chamado com o lock. Devolve as gravações ao início da fila, antes das que chegaram durante a
+     * tentativa. Uma gravação mais nova do mesmo produto é combinada com a devolvida, como no accept: a mais nova
+     * vale, a não ser que a devolvida seja uma remoção.
+     */
+    private void requeue(List<PendingWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        LinkedHashMap<UUID, PendingWrite> newer = new LinkedHashMap<>(pending);
+        pending.clear();
+        for (PendingWrite write : writes) {
+            // Criações são indexadas pelo tracking ID (nunca são combinadas); as demais, pelo ID do produto
+            UUID key = CREATE.equals(write.operation) ? write.trackingIds.get(0) : write.idProduct;
+            PendingWrite later = newer.remove(key);
+            if (later != null) {
+                if (!DELETE.equals(write.operation)) {
+                    write.operation = later.operation;
+                    write.name = later.name;
+                    write.value = later.value;
+                }
+                write.trackingIds.addAll(later.trackingIds);
+                coalescedCounter.increment();
+            }
+            pending.put(key, write);
+        }
+        pending.putAll(newer);
+    }
+
+    // Devolve as gravações que ficaram sem resultado por um erro transitório, para uma nova tentativa
+    private List<PendingWrite> apply(List<PendingWrite> batch) {
+        // Nomes já cadastrados em qualquer shard, antes das transações de cada shard
+        List<String> names = batch.stream().filter(write -> CREATE.equals(write.operation)).map(write -> write.name).toList();
+        Set<String> existingNames = new HashSet<>();
+        if (!names.isEmpty()) {
+            productShards.onEachShard(() -> productRepository.findExistingNames(names)).forEach(existingNames::addAll);
+            reserveNames(batch, existingNames);
+        }
+        Map<Integer, List<PendingWrite>> byShard = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            int shard = write.idProduct != null ? productShards.shardOf(write.idProduct) : productShards.nextShard();
+            byShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(write);
+        }
+        Map<PendingWrite, Outcome> outcomes = new HashMap<>();
+        byShard.forEach((shard, writes) -> outcomes.putAll(
+                productShards.onShard(shard, () -> applyOnShard(writes, existingNames))));
+
+        List<PendingWrite> retry = new ArrayList<>();
+        List<UUID> done = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            Outcome outcome = outcomes.get(write);
+            if (outcome == null) {
+                retry.add(write);
+                continue;
+            }
+            if (!ProductWriteStatusDTO.APPLIED.equals(outcome.status())) {
+                productNameReservations.release(write.reservation);
+            }
+            if (UPDATE.equals(write.operation)) {
+                productCacheService.evict(write.idProduct);
+            } else if (DELETE.equals(write.operation)) {
+                productCacheService.markDeleted(write.idProduct);
+            }
+            for (UUID trackingId : write.trackingIds) {
+                ProductWriteStatusDTO previous = statuses.getIfPresent(trackingId);
+                String operation = previous != null ? previous.operation() : write.operation;
+                statuses.put(trackingId, new ProductWriteStatusDTO(trackingId, operation, outcome.status(),
+                        outcome.idProduct(), outcome.message()));
+                done.add(trackingId);
+            }
+        }
+        if (!done.isEmpty()) {
+            markDone(done);
+        }
+        return retry;
+    }
+
+    /**
+     * Reserva os nomes das criações que ainda não têm reserva. Um nome reservado por outro cadastro entra em
+     * existingNames, e a criação termina em conflito.
+     */
+    private void reserveNames(List<PendingWrite> batch, Set<String> existingNames) {
+        List<PendingWrite> creates = batch.stream()
+                .filter(write -> CREATE.equals(write.operation) && write.reservation.isEmpty()
+                        && !existingNames.contains(write.name))
+                .toList();
+        if (creates.isEmpty()) {
+            return;
+        }
+        Map<String, UUID> reserved = productNameReservations.reserve(creates.stream().map(write -> write.name).toList());
+        for (PendingWrite write : creates) {
+            UUID token = reserved.get(write.name);
+            if (token != null) {
+                write.reservation = Map.of(write.name, token);
+            } else {
+                existingNames.add(write.name);
+            }
+        }
+    }
+
+    private void markDone(List<UUID> done) {
+        try {
+            journal.markDone(done);
+            synchronized (this) {
+                undoneInJournal -= done.size();
+            }
+        } catch (UncheckedIOException e) {
+            // Já estão no banco, mas sem a linha "done" o journal não é mais truncado e elas são reaplicadas na
+            // próxima inicialização
+            logger.error("Could not record {} applied product writes in the journal", done.size(), e);
+        }
+    }
+
+    /**
+     * Aplica as gravações de um shard numa transação. Se o banco recusar os dados de alguma, reaplica uma por uma
+     * para isolá-la. Gravações sem resultado no mapa devolvido falharam por um erro transitório.
+     */
+    private Map<PendingWrite, Outcome> applyOnShard(List<PendingWrite> writes, Set<String> existingNames) {
+        try {
+            return transactionTemplate.execute(status -> write(writes, existingNames));
+        } catch (RuntimeException e) {
+            if (!isDataError(e)) {
+                logger.warn("Could not apply {} product writes, will retry: {}", writes.size(), e.toString());
+                return Map.of();
+            }
+        }
+        Map<PendingWrite, Outcome> outcomes = new HashMap<>();
+        for (PendingWrite write : writes) {
+            try {
+                outcomes.putAll(transactionTemplate.execute(status -> write(List.of(write), existingNames)));
+            } catch (RuntimeException itemError) {
+                if (!isDataError(itemError)) {
+                    // O banco falhou no meio do isolamento: o restante fica para a próxima tentativa
+                    logger.warn("Could not apply product writes, will retry: {}", itemError.toString());
+                    break;
+                }
+                outcomes.put(write, new Outcome(ProductWriteStatusDTO.FAILED, write.idProduct,
+                        "The database rejected the product data"));
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Erro causado pelos dados da gravação, que se repetiria em qualquer nova tentativa: restrição violada
+     * (SQLState 23), valor inválido ou grande demais (SQLState 22) ou validação da entidade.
+     */
+    static boolean isDataError(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException || cause instanceof ConstraintViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && (sqlException.getSQLState().startsWith("22") || sqlException.getSQLState().startsWith("23"))) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    // Executa dentro da transação do lote
+    private Map<PendingWrite, Outcome> write(List<PendingWrite> batch, Set<String> existingNames) {
+        Map<PendingWrite, Outcome> outcomes = new HashMap<>();
+        List<UUID> ids = batch.stream().filter(write -> write.idProduct != null).map(write -> write.idProduct).toList();
+        Map<UUID, ProductModel> products = new HashMap<>();
+        productRepository.findAllById(ids).forEach(product -> products.put(product.getIdProduct(), product));
+
+        for (PendingWrite write : batch) {
+            if (CREATE.equals(write.operation)) {
+                if (existingNames.contains(write.name)) {
+                    outcomes.put(write, new Outcome(ProductWriteStatusDTO.CONFLICT, null,
+                            "Product already exists with this name"));
+                    continue;
+                }
+                ProductModel productModel = new ProductModel(null, write.name, write.value);
+                entityManager.persist(productModel);
+                outcomes.put(write, new Outcome(ProductWriteStatusDTO.APPLIED, productModel.getIdProduct(), null));
+                continue;
+            }
+            ProductModel productModel = products.get(write.idProduct);
+            if (productModel == null) {
+                outcomes.put(write, new Outcome(ProductWriteStatusDTO.NOT_FOUND, write.idProduct, "Product not found"));
+            } else if (DELETE.equals(write.operation)) {
+                // Remoção lógica: o marcador fica para a sincronização incremental
+                productModel.setDeleted(true);
+                outcomes.put(write, new Outcome(ProductWriteStatusDTO.APPLIED, write.idProduct, null));
+            } else {
+                productModel.setName(write.name);
+                productModel.setValue(write.value);
+                outcomes.put(write, new Outcome(ProductWriteStatusDTO.APPLIED, write.idProduct, null));
+            }
+        }
+        // Envia o lote como batch JDBC e libera o contexto de persistência
+        entityManager.flush();
+        entityManager.clear();
+        return outcomes;
+    }
+
+    @Override
+    public void start() {
+        try {
+            journal = new ProductWriteJournal(journalPath, objectMapper);
+            List<ProductWriteJournal.Write> recovered = journal.recover();
+            synchronized (this) {
+                undoneInJournal = recovered.size();
+                for (ProductWriteJournal.Write write : recovered) {
+                    accept(write.trackingId(), write.operation(), write.idProduct(), write.name(), write.value());
+                    track(write.trackingId(), write.operation(), write.idProduct());
+                }
+            }
+            if (!recovered.isEmpty()) {
+                logger.info("Recovered {} product writes from {}", recovered.size(), journalPath);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the product write journal " + journalPath, e);
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushIfDue, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    /**
+     * Para depois do servidor web (não chegam novas gravações) e aplica o que restou na fila. Se o flusher não
+     * terminar a tempo (banco lento ou fora do ar), não aplica em paralelo com ele: o que restou continua no
+     * journal e é recuperado na próxima inicialização.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        flusher.shutdown();
+        boolean terminated = false;
+        try {
+            terminated = flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!terminated) {
+            // O journal fica aberto: o flusher ainda pode registrar o lote que está aplicando
+            logger.warn("Product write flusher did not stop in time; {} pending writes stay in {} for the next start",
+                    pendingCount(), journalPath);
+            return;
+        }
+        flush();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.warn("Could not close the product write journal", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Inicia antes e para depois do servidor web (fase Integer.MAX_VALUE - 1)
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 2;
+    }
+}
@@ -0,0 +1,148 @@
+package com.breno.springboot.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Journal local, somente de inclusão, das gravações aceitas pelo write-behind.
+ * Cada gravação é escrita (uma linha JSON) e sincronizada em disco antes do 202 ser devolvido; depois que um lote
+ * é confirmado no banco, uma linha "done" registra os tracking IDs aplicados. Na inicialização, as gravações sem
+ * "done" são devolvidas para serem reenfileiradas, e o arquivo é reescrito só com elas.
+ * Só são reaplicadas gravações confirmadas no banco sem a linha "done" (queda entre o commit e a linha, ou erro ao
+ * escrevê-la): criações com nome repetido viram conflito, atualizações e remoções são idempotentes.
+ */
+class ProductWriteJournal implements AutoCloseable {
+
+    record Write(UUID trackingId, String operation, UUID idProduct, String name, BigDecimal value) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Line(Write write, List<UUID> done) {
+    }
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private FileChannel channel;
+
+    ProductWriteJournal(Path path, ObjectMapper objectMapper) throws IOException {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = open(path);
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Lê o journal e devolve, na ordem original, as gravações que ainda não foram aplicadas.
+     * Uma linha final incompleta (queda durante a escrita) é ignorada: ela nunca foi confirmada ao cliente.
+     */
+    synchronized List<Write> recover() throws IOException {
+        Map<UUID, Write> pending = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                if (text.isBlank()) {
+                    continue;
+                }
+                Line line;
+                try {
+                    line = objectMapper.readValue(text, Line.class);
+                } catch (IOException e) {
+                    break;
+                }
+                if (line.write() != null) {
+                    pending.put(line.write().trackingId(), line.write());
+                } else if (line.done() != null) {
+                    line.done().forEach(pending::remove);
+                }
+            }
+        }
+        List<Write> remaining = new ArrayList<>(pending.values());
+        rewrite(remaining);
+        return remaining;
+    }
+
+    // Compacta o journal: grava as pendências num arquivo temporário e o move por cima do atual
+    private void rewrite(List<Write> writes) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Write write : writes) {
+                writeFully(out, encode(new Line(write, null)));
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open(path);
+    }
+
+    // Só retorna depois que a linha está no disco
+    synchronized void append(Write write) {
+        try {
+            writeFully(channel, encode(new Line(write, null)));
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the product write journal", e);
+        }
+    }
+
+    synchronized void markDone(Collection<UUID> trackingIds) {
+        try {
+            writeFully(channel, encode(new Line(null, List.copyOf(trackingIds))));
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the product write journal", e);
+        }
+    }
+
+    // Chamado quando não há nada pendente: todo o conteúdo já foi aplicado
+    synchronized void truncate() {
+        try {
+            channel.truncate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not truncate the product write journal", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer encode(Line line) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(line);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+        buffer.put(json).put((byte) '\n').flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+-- Tabela de produtos (ProductModel)
+-- IF NOT EXISTS: bancos criados antes pelo ddl-auto=update já têm a tabela e recebem só o histórico do Flyway
+CREATE TABLE IF NOT EXISTS tb_products (
+    id_product uuid PRIMARY KEY,
+    name varchar(255),
+    value numeric(38, 2),
+    version bigint NOT NULL DEFAULT 0,
+    updated_at timestamp(6) with time zone
+);
+
+-- Paginação keyset por (name, idProduct)
+CREATE INDEX IF NOT EXISTS idx_products_name_id ON tb_products (name, id_product);
@@ -0,0 +1,7 @@
+-- Tabela de usuários (UserModel); role guarda o ordinal do UserRole (0 = ADMIN, 1 = USER)
+CREATE TABLE IF NOT EXISTS tb_users (
+    id varchar(255) PRIMARY KEY,
+    login varchar(255) UNIQUE,
+    password varchar(255),
+    role smallint CHECK (role BETWEEN 0 AND 1)
+);
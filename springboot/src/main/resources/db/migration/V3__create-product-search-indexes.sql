@@ -0,0 +1,8 @@
+-- Busca de produtos (GET /products/search) no PostgreSQL
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Trigramas sobre lower(name): atende LIKE 'abc%' e LIKE '%abc%' sem diferenciar maiúsculas
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON tb_products USING gin (lower(name) gin_trgm_ops);
+
+-- Filtro por faixa de preço
+CREATE INDEX IF NOT EXISTS idx_products_value ON tb_products (value);
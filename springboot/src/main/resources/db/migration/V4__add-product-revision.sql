@@ -0,0 +1,8 @@
+-- Sincronização incremental (GET /products/delta)
+-- Revisão global da última gravação; os produtos já existentes ficam com 0 e entram na primeira carga completa
+ALTER TABLE tb_products ADD COLUMN IF NOT EXISTS revision bigint NOT NULL DEFAULT 0;
+
+-- Remoção lógica: a linha fica como marcador (tombstone) para as réplicas saberem da remoção
+ALTER TABLE tb_products ADD COLUMN IF NOT EXISTS deleted boolean NOT NULL DEFAULT false;
+
+CREATE INDEX IF NOT EXISTS idx_products_revision_id ON tb_products (revision, id_product);
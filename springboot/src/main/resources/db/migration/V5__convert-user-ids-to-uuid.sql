@@ -0,0 +1,30 @@
+-- IDs de usuário como uuid nativo (16 bytes) em vez de texto; os existentes já são UUIDs gerados pela aplicação
+ALTER TABLE tb_users ALTER COLUMN id TYPE uuid USING id::uuid;
+
+-- Logins passam a ser gravados normalizados (sem espaços nas pontas, em minúsculas).
+-- Logins que só diferem por maiúsculas ou espaços seriam o mesmo usuário: em vez de escolher um deles, a migração
+-- falha listando-os, e o operador renomeia ou remove as contas antes de rodá-la de novo (ver o readme).
+-- No PostgreSQL a migração roda numa transação, então a falha não deixa nada aplicado pela metade.
+DO $$
+DECLARE
+    collisions text;
+BEGIN
+    SELECT string_agg(logins, '; ') INTO collisions
+    FROM (
+        SELECT string_agg(login, ', ' ORDER BY login) AS logins
+        FROM tb_users
+        GROUP BY lower(trim(login))
+        HAVING count(*) > 1
+    ) c;
+    IF collisions IS NOT NULL THEN
+        RAISE EXCEPTION 'Logins that differ only by case or surrounding spaces: %', collisions
+            USING HINT = 'Rename or remove the duplicate accounts in tb_users, then run the migration again';
+    END IF;
+END $$;
+
+UPDATE tb_users SET login = lower(trim(login)) WHERE login <> lower(trim(login));
+
+-- Índice único explícito no lugar da constraint da V2; com id e role incluídos, a consulta da autenticação
+-- (AuthenticatedUserDTO) é respondida só pelo índice (index-only scan)
+ALTER TABLE tb_users DROP CONSTRAINT IF EXISTS tb_users_login_key;
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_login ON tb_users (login) INCLUDE (id, role);
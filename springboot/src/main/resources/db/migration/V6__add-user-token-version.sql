@@ -0,0 +1,2 @@
+-- Versão dos tokens de cada usuário (claim "ver"): incrementá-la revoga os tokens já emitidos
+ALTER TABLE tb_users ADD COLUMN IF NOT EXISTS token_version integer NOT NULL DEFAULT 0;
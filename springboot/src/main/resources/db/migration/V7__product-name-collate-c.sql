@@ -0,0 +1,9 @@
+-- Nomes ordenados por code point (collation "C"): é a ordem em que ProductShards intercala as páginas de cada
+-- shard. Com a collation do banco (ex.: en_US.UTF-8) a ordem depende da biblioteca de locale e não tem como ser
+-- reproduzida na aplicação. O índice keyset (name, id_product) é reconstruído junto com a coluna
+ALTER TABLE tb_products ALTER COLUMN name TYPE varchar(255) COLLATE "C";
+
+-- Com "C", lower() só converteria letras ASCII: a busca (ProductSearchService) usa lower(name COLLATE "default"),
+-- e o índice de trigramas passa a ser sobre a mesma expressão
+DROP INDEX IF EXISTS idx_products_name_trgm;
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON tb_products USING gin (lower(name COLLATE "default") gin_trgm_ops);
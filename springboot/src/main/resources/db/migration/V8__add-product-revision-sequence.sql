@@ -0,0 +1,15 @@
+-- Revisões da sincronização incremental (ProductRevisionService), compartilhadas por todas as instâncias.
+-- O INCREMENT BY é o bloco que cada transação reserva; com sharding, só a sequência do shard 0 é usada
+CREATE SEQUENCE IF NOT EXISTS product_revision_seq START WITH 50 INCREMENT BY 50;
+-- Continua acima das revisões já gravadas pelo contador em memória; a aplicação confere de novo entre os shards
+SELECT setval('product_revision_seq', GREATEST((SELECT COALESCE(MAX(revision), 0) FROM tb_products), 50));
+
+-- Expurgo dos tombstones (ProductTombstoneService): só as linhas removidas, pela data da remoção
+CREATE INDEX IF NOT EXISTS idx_products_tombstones ON tb_products (updated_at) WHERE deleted;
+
+-- Maior revisão entre os tombstones expurgados; GET /products/delta responde 410 a um since abaixo dela
+CREATE TABLE IF NOT EXISTS tb_product_sync (
+    id integer PRIMARY KEY,
+    purged_revision bigint NOT NULL DEFAULT 0
+);
+INSERT INTO tb_product_sync (id, purged_revision) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,8 @@
+-- Reserva dos nomes de produto (ProductNameReservations): a chave primária impede que duas instâncias, ou dois
+-- shards, cadastrem o mesmo nome ao mesmo tempo. Com sharding, só a tabela do shard 0 é usada.
+-- Os produtos já cadastrados não entram aqui: a verificação dos nomes em todos os shards continua antes da reserva
+CREATE TABLE IF NOT EXISTS tb_product_names (
+    name varchar(255) PRIMARY KEY,
+    token uuid NOT NULL,
+    reserved_at timestamp(6) with time zone NOT NULL
+);
@@ -0,0 +1,159 @@
+package com.breno.springboot.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Primário e réplica são dois bancos H2 distintos; a tabela origin diz de qual deles veio cada leitura
+public class ReplicaRoutingDataSourceTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private String primaryUrl;
+    private String replicaUrl;
+    private ReplicaRoutingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        int database = DATABASES.incrementAndGet();
+        primaryUrl = "jdbc:h2:mem:routing-primary-" + database + ";DB_CLOSE_DELAY=-1";
+        replicaUrl = "jdbc:h2:mem:routing-replica-" + database + ";DB_CLOSE_DELAY=-1";
+        execute(primaryUrl, "CREATE TABLE origin (name varchar(20))", "INSERT INTO origin VALUES ('primary')");
+        execute(replicaUrl, "CREATE TABLE origin (name varchar(20))", "INSERT INTO origin VALUES ('replica')",
+                "CREATE TABLE replica_lag (lag_ms bigint)", "INSERT INTO replica_lag VALUES (0)");
+
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(primaryUrl);
+        properties.setUsername("sa");
+        properties.setPassword("");
+        properties.setDriverClassName("org.h2.Driver");
+        // Verificação periódica longa: o teste verifica as réplicas quando precisa, com checkReplicas
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("api.datasource.replicas.urls", replicaUrl)
+                .withProperty("api.datasource.replicas.max-lag", "5s")
+                .withProperty("api.datasource.replicas.check-interval", "1h")
+                .withProperty("api.datasource.replicas.read-your-writes", "1m")
+                .withProperty("api.datasource.replicas.lag-query", "SELECT lag_ms FROM replica_lag");
+        // Conversões do Spring Boot (ex.: "5s" para Duration), como no ambiente da aplicação
+        environment.setConversionService(new ApplicationConversionService());
+        dataSource = new ReplicaRoutingConfig().dataSource(properties, environment, new SimpleMeterRegistry());
+        dataSource.checkReplicas();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to the replica and the others to the primary")
+    void readOnlyTransactionsUseTheReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> origin()));
+        assertEquals("primary", writeTransaction.execute(status -> origin()));
+    }
+
+    @Test
+    @DisplayName("Should read from the primary inside ReadRouting.onPrimary")
+    void onPrimaryOverridesTheReplica() {
+        assertEquals("primary", ReadRouting.onPrimary(() -> readOnlyTransaction.execute(status -> origin())));
+        assertEquals("replica", readOnlyTransaction.execute(status -> origin()));
+    }
+
+    @Test
+    @DisplayName("Should send a user's reads to the primary after their write commits, and only theirs")
+    void readYourWritesAfterCommit() {
+        authenticate("alice");
+        assertEquals("replica", readOnlyTransaction.execute(status -> origin()));
+
+        writeTransaction.execute(status -> jdbcTemplate.update("INSERT INTO origin VALUES ('written')"));
+        assertEquals("primary", readOnlyTransaction.execute(status -> origin()));
+
+        authenticate("bob");
+        assertEquals("replica", readOnlyTransaction.execute(status -> origin()));
+    }
+
+    @Test
+    @DisplayName("Should not pin the user to the primary when the write rolls back")
+    void rolledBackWriteKeepsReadsOnReplica() {
+        authenticate("alice");
+
+        writeTransaction.execute(status -> {
+            jdbcTemplate.update("INSERT INTO origin VALUES ('written')");
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertEquals("replica", readOnlyTransaction.execute(status -> origin()));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica lags and return once it catches up")
+    void laggingReplicaFallsBackToPrimary() throws SQLException {
+        execute(replicaUrl, "UPDATE replica_lag SET lag_ms = 10000");
+        dataSource.checkReplicas();
+        assertEquals("primary", readOnlyTransaction.execute(status -> origin()));
+
+        execute(replicaUrl, "UPDATE replica_lag SET lag_ms = 100");
+        dataSource.checkReplicas();
+        assertEquals("replica", readOnlyTransaction.execute(status -> origin()));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica is down")
+    void unreachableReplicaFallsBackToPrimary() throws SQLException {
+        // Derruba o banco da réplica; ao reconectar, o H2 cria um banco vazio, sem a tabela da consulta de atraso
+        execute(replicaUrl, "SHUTDOWN");
+        dataSource.checkReplicas();
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> origin()));
+    }
+
+    private String origin() {
+        List<String> names = jdbcTemplate.queryForList("SELECT name FROM origin", String.class);
+        return names.get(0);
+    }
+
+    private static void authenticate(String login) {
+        SecurityContextHolder.getContext()
+                .setAuthentication(UsernamePasswordAuthenticationToken.authenticated(login, null, List.of()));
+    }
+
+    private static void execute(String url, String... statements) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
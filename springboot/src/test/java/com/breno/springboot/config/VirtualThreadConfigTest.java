@@ -0,0 +1,29 @@
+package com.breno.springboot.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+public class VirtualThreadConfigTest {
+
+    @Test
+    @DisplayName("Should size the bulkhead by the sum of the shard pools")
+    void bulkheadCoversEveryShardPool() {
+        // Os pools não abrem conexões enquanto ninguém pede uma
+        try (ShardRoutingDataSource shards = new ShardRoutingDataSource(List.of(pool(10), pool(10), pool(5)))) {
+            assertEquals(25, VirtualThreadConfig.poolSize(shards));
+        }
+        assertEquals(8, VirtualThreadConfig.poolSize(pool(8)));
+    }
+
+    private static HikariDataSource pool(int size) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setMaximumPoolSize(size);
+        return pool;
+    }
+}
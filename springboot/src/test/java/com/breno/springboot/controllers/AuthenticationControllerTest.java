@@ -0,0 +1,69 @@
+package com.breno.springboot.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.breno.springboot.repositories.UserRepository;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:authentication-test;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "api.security.bcrypt.strength=4"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AuthenticationControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    @DisplayName("Should register a user and log in only with the right password")
+    void registerThenLogin() throws Exception {
+        perform("/auth/register", "{\"login\":\"Alice\",\"password\":\"secret\",\"role\":\"USER\"}")
+                .andExpect(status().isCreated());
+        assertTrue(userRepository.existsByLogin("alice"));
+
+        perform("/auth/login", "{\"login\":\"alice\",\"password\":\"secret\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty());
+        perform("/auth/login", "{\"login\":\"alice\",\"password\":\"wrong\"}")
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Should answer an unknown login like a wrong password")
+    void unknownLoginIsUnauthorized() throws Exception {
+        perform("/auth/login", "{\"login\":\"nobody\",\"password\":\"secret\"}")
+                .andExpect(status().isUnauthorized());
+    }
+
+    // As respostas são assíncronas: o resultado chega num segundo dispatch
+    private ResultActions perform(String uri, String body) throws Exception {
+        MvcResult result = mockMvc.perform(post(uri).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
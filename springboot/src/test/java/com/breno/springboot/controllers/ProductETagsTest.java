@@ -0,0 +1,34 @@
+package com.breno.springboot.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ProductETagsTest {
+
+    @Test
+    @DisplayName("Should give each negotiated representation its own strong ETag")
+    void etagFollowsTheNegotiatedRepresentation() {
+        assertEquals("\"3\"", ProductETags.of(3, null));
+        assertEquals("\"3\"", ProductETags.of(3, "*/*"));
+        assertEquals("\"3\"", ProductETags.of(3, "application/json"));
+        assertEquals("\"3-cbor\"", ProductETags.of(3, "application/cbor"));
+        assertEquals("\"3-smile\"", ProductETags.of(3, "application/x-jackson-smile, application/json;q=0.5"));
+        assertEquals("\"3\"", ProductETags.of(3, "application/cbor;q=0.2, application/json"));
+        assertEquals("\"3\"", ProductETags.of(3, "not a media type"));
+    }
+
+    @Test
+    @DisplayName("Should accept the current version in any representation in If-Match")
+    void ifMatchAcceptsEveryRepresentation() {
+        assertTrue(ProductETags.matches("\"3\"", 3));
+        assertTrue(ProductETags.matches("\"2\", \"3-cbor\"", 3));
+        assertTrue(ProductETags.matches("*", 3));
+        assertFalse(ProductETags.matches("\"2-smile\"", 3));
+        // Comparação forte: ETag fraca nunca casa
+        assertFalse(ProductETags.matches("W/\"3\"", 3));
+    }
+}
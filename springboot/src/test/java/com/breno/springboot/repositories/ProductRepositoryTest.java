@@ -1,18 +1,27 @@
 package com.breno.springboot.repositories;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
+import com.breno.springboot.dtos.ProductCursor;
 import com.breno.springboot.dtos.ProductRecordDTO;
+import com.breno.springboot.exceptions.InvalidCursorException;
 import com.breno.springboot.models.ProductModel;
 
 import jakarta.persistence.EntityManager;
@@ -39,4 +48,81 @@ public class ProductRepositoryTest {
         assertEquals("testProduct", savedProduct.getName());
     }
 
+    @Test
+    @DisplayName("Should walk every product exactly once using keyset pages")
+    void keysetPagesCoverAllProducts() {
+        for (String name : List.of("Mouse", "Keyboard", "Monitor", "Mouse", "Laptop")) {
+            ProductModel productModel = new ProductModel();
+            BeanUtils.copyProperties(new ProductRecordDTO(name, new BigDecimal(10)), productModel);
+            productRepository.save(productModel);
+        }
+
+        List<ProductModel> firstPage = productRepository.findFirstPage(Limit.of(2));
+        assertEquals(List.of("Keyboard", "Laptop"), firstPage.stream().map(ProductModel::getName).toList());
+
+        List<String> names = new ArrayList<>();
+        firstPage.forEach(product -> names.add(product.getName()));
+        ProductModel last = firstPage.get(firstPage.size() - 1);
+        List<ProductModel> page;
+        while (!(page = productRepository.findPageAfter(last.getName(), last.getIdProduct(), Limit.of(2))).isEmpty()) {
+            page.forEach(product -> names.add(product.getName()));
+            last = page.get(page.size() - 1);
+        }
+
+        assertEquals(List.of("Keyboard", "Laptop", "Monitor", "Mouse", "Mouse"), names);
+    }
+
+    @Test
+    @DisplayName("Should return only the names that already exist")
+    void findExistingNamesReturnsMatches() {
+        ProductModel productModel = new ProductModel();
+        BeanUtils.copyProperties(new ProductRecordDTO("Mouse", new BigDecimal(10)), productModel);
+        productRepository.save(productModel);
+
+        assertEquals(Set.of("Mouse"), productRepository.findExistingNames(List.of("Mouse", "Keyboard")));
+    }
+
+    @Test
+    @DisplayName("Should round-trip the opaque cursor and reject tampered ones")
+    void cursorRoundTrip() {
+        ProductCursor cursor = new ProductCursor("Mouse: wireless", UUID.randomUUID());
+
+        assertEquals(cursor, ProductCursor.decode(cursor.encode()));
+        assertThrows(InvalidCursorException.class, () -> ProductCursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    @DisplayName("Should bump the version on every update and expose it without loading the entity")
+    void versionIncrementsOnUpdate() {
+        ProductModel productModel = new ProductModel();
+        BeanUtils.copyProperties(new ProductRecordDTO("Mouse", new BigDecimal(10)), productModel);
+        ProductModel saved = productRepository.saveAndFlush(productModel);
+        assertEquals(0, saved.getVersion());
+
+        saved.setValue(new BigDecimal(12));
+        productRepository.saveAndFlush(saved);
+        entityManager.clear();
+
+        var version = productRepository.findVersionById(saved.getIdProduct()).orElseThrow();
+        assertEquals(1, version.version());
+        assertNotNull(version.updatedAt());
+    }
+
+    @Test
+    @DisplayName("Should hide soft-deleted products from queries while keeping the row")
+    void softDeletedProductIsHidden() {
+        ProductModel productModel = new ProductModel();
+        BeanUtils.copyProperties(new ProductRecordDTO("Mouse", new BigDecimal(10)), productModel);
+        ProductModel saved = productRepository.saveAndFlush(productModel);
+
+        saved.setDeleted(true);
+        productRepository.saveAndFlush(saved);
+        entityManager.clear();
+
+        assertFalse(productRepository.findById(saved.getIdProduct()).isPresent());
+        assertFalse(productRepository.existsByName("Mouse"));
+        Number rows = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM tb_products").getSingleResult();
+        assertEquals(1, rows.intValue());
+    }
+
 }
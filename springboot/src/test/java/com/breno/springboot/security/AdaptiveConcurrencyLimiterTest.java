@@ -0,0 +1,95 @@
+package com.breno.springboot.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+// O relógio é do teste: cada janela de 100 ms fecha na décima amostra, sem esperar
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    @DisplayName("Should refuse requests above the limit and accept them again after a release")
+    void refusesAboveLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0, clock::get);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Should grow the limit while latency is stable and stop at the maximum")
+    void growsUpToMax() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 5, 20, 2.0, clock::get);
+
+        int previous = limiter.getLimit();
+        for (int i = 0; i < 100; i++) {
+            window(limiter, 10, limiter.getLimit());
+            assertTrue(limiter.getLimit() >= previous);
+            previous = limiter.getLimit();
+        }
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should not grow the limit when less than half of it is in use")
+    void doesNotGrowWhenUnderused() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 5, 20, 2.0, clock::get);
+
+        for (int i = 0; i < 100; i++) {
+            window(limiter, 10, 2);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit when latency rises above the tolerance and stop at the minimum")
+    void shrinksDownToMin() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 20, 2.0, clock::get);
+        // Latência de base: 10 ms
+        window(limiter, 10, 20);
+        assertEquals(20, limiter.getLimit());
+
+        // Dez vezes mais lenta: o limite cai a cada janela
+        int previous = limiter.getLimit();
+        window(limiter, 100, previous);
+        assertTrue(limiter.getLimit() < previous);
+        for (int i = 0; i < 100; i++) {
+            window(limiter, 100, limiter.getLimit());
+        }
+
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should clamp the initial limit to the configured range")
+    void initialLimitIsClamped() {
+        assertEquals(5, new AdaptiveConcurrencyLimiter(1, 5, 20, 2.0, clock::get).getLimit());
+        assertEquals(20, new AdaptiveConcurrencyLimiter(100, 5, 20, 2.0, clock::get).getLimit());
+    }
+
+    // Uma janela completa: dez requisições com a mesma latência e a mesma concorrência no início
+    private void window(AdaptiveConcurrencyLimiter limiter, long rttMillis, int inFlightAtStart) {
+        clock.addAndGet(WINDOW);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(rttMillis), inFlightAtStart);
+        }
+    }
+}
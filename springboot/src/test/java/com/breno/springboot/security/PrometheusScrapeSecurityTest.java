@@ -0,0 +1,73 @@
+package com.breno.springboot.security;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.breno.springboot.models.UserModel;
+import com.breno.springboot.models.UserRole;
+import com.breno.springboot.repositories.UserRepository;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:scrape-test;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "api.metrics.scrape-token=test-scrape-token"
+})
+@AutoConfigureMockMvc
+// Os testes desligam a exportação de métricas por padrão; sem ela, /actuator/prometheus não existe
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class PrometheusScrapeSecurityTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    TokenService tokenService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    @DisplayName("Should refuse the Prometheus scrape without a token")
+    void scrapeRequiresToken() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, "Bearer wrong-token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Should accept the scrape token on the Prometheus endpoint only")
+    void scrapeTokenOnlyOpensPrometheus() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, "Bearer test-scrape-token"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, "Bearer test-scrape-token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Should let ADMIN tokens scrape and refuse USER tokens")
+    void scrapeWithUserTokens() throws Exception {
+        String adminToken = tokenService.generateToken(
+                userRepository.save(new UserModel("scrape-admin", "password", UserRole.ADMIN)));
+        String userToken = tokenService.generateToken(
+                userRepository.save(new UserModel("scrape-user", "password", UserRole.USER)));
+
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,108 @@
+package com.breno.springboot.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.breno.springboot.dtos.AuthenticatedUserDTO;
+import com.breno.springboot.models.UserRole;
+import com.breno.springboot.repositories.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Verificação do token e revogação simuladas; o cache de tokens verificados é o real
+public class SecurityFilterTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final AuthenticatedUserDTO USER = new AuthenticatedUserDTO(UUID.randomUUID(), "alice", UserRole.USER);
+
+    private final TokenService tokenService = mock(TokenService.class);
+    private final TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+    private final TokenAuthenticationCache tokenCache = new TokenAuthenticationCache(100, Duration.ofMinutes(5),
+            new SimpleMeterRegistry());
+    private final DecodedJWT jwt = mock(DecodedJWT.class);
+    private SecurityFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        when(jwt.getExpiresAtAsInstant()).thenReturn(Instant.now().plus(Duration.ofHours(1)));
+        when(tokenService.verify(TOKEN)).thenReturn(jwt);
+        when(tokenService.authenticatedUser(jwt)).thenReturn(USER);
+
+        filter = new SecurityFilter();
+        filter.tokenService = tokenService;
+        filter.userRepository = mock(UserRepository.class);
+        filter.tokenCache = tokenCache;
+        filter.tokenRevocationService = tokenRevocationService;
+        filter.meterRegistry = new SimpleMeterRegistry();
+        filter.scrapeToken = "";
+        filter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should cache a verified token and skip verification on the next request")
+    void verifiedTokenIsCached() throws Exception {
+        when(tokenRevocationService.epoch()).thenReturn(3L);
+
+        assertEquals(200, authenticate().getStatus());
+        assertEquals(200, authenticate().getStatus());
+
+        verify(tokenService, times(1)).verify(TOKEN);
+        assertEquals(USER, tokenCache.get(TOKEN));
+    }
+
+    @Test
+    @DisplayName("Should not cache a verification that a revocation overtook")
+    void revocationDuringVerificationIsNotCached() throws Exception {
+        // A revogação acontece entre a leitura do epoch e o fim da verificação
+        when(tokenRevocationService.epoch()).thenReturn(3L, 4L);
+
+        assertEquals(200, authenticate().getStatus());
+
+        assertNull(tokenCache.get(TOKEN));
+    }
+
+    @Test
+    @DisplayName("Should refuse and not cache a revoked token")
+    void revokedTokenIsRefused() throws Exception {
+        when(tokenRevocationService.epoch()).thenReturn(3L);
+        when(tokenRevocationService.isRevoked(jwt)).thenReturn(true);
+
+        assertEquals(401, authenticate().getStatus());
+
+        assertNull(tokenCache.get(TOKEN));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private MockHttpServletResponse authenticate() throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,67 @@
+package com.breno.springboot.security;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.breno.springboot.models.UserModel;
+import com.breno.springboot.models.UserRole;
+import com.breno.springboot.repositories.UserRepository;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shard-security-test;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ShardSecurityTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    TokenService tokenService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    @DisplayName("Should refuse the shard endpoints without a token")
+    void rebalanceRequiresToken() throws Exception {
+        mockMvc.perform(post("/shards/rebalance")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/shards/rebalance")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Should let ADMIN tokens start a rebalance and refuse USER tokens")
+    void rebalanceWithUserTokens() throws Exception {
+        String adminToken = tokenService.generateToken(
+                userRepository.save(new UserModel("shard-admin", "password", UserRole.ADMIN)));
+        String userToken = tokenService.generateToken(
+                userRepository.save(new UserModel("shard-user", "password", UserRole.USER)));
+
+        mockMvc.perform(post("/shards/rebalance").header(HttpHeaders.AUTHORIZATION, "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/shards/rebalance").header(HttpHeaders.AUTHORIZATION, "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/shards/rebalance").header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").exists());
+        mockMvc.perform(get("/shards/rebalance").header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken))
+                .andExpect(status().isOk());
+    }
+}
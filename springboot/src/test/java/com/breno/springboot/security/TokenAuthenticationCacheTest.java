@@ -0,0 +1,107 @@
+package com.breno.springboot.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.breno.springboot.models.UserModel;
+import com.breno.springboot.models.UserRole;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TokenAuthenticationCacheTest {
+
+    private static final UserModel USER = new UserModel("alice", "password", UserRole.USER);
+
+    private final FakeTime time = new FakeTime();
+    private final TokenAuthenticationCache cache = new TokenAuthenticationCache(100, Duration.ofMinutes(5),
+            new SimpleMeterRegistry(), time, time);
+
+    @Test
+    @DisplayName("Should return the cached user until the token expires when that comes before the max TTL")
+    void entryExpiresWithTheToken() {
+        cache.put("token", USER, time.instant().plus(Duration.ofMinutes(1)));
+
+        time.advance(Duration.ofSeconds(59));
+        assertEquals(USER, cache.get("token"));
+
+        time.advance(Duration.ofSeconds(1));
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    @DisplayName("Should drop the entry after the max TTL even if the token is still valid")
+    void entryExpiresAfterMaxTtl() {
+        cache.put("token", USER, time.instant().plus(Duration.ofHours(2)));
+
+        time.advance(Duration.ofMinutes(4));
+        assertEquals(USER, cache.get("token"));
+
+        time.advance(Duration.ofMinutes(1));
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens that are already expired or have no expiration")
+    void expiredTokensAreNotCached() {
+        cache.put("expired", USER, time.instant().minusSeconds(1));
+        cache.put("now", USER, time.instant());
+        cache.put("no-exp", USER, null);
+
+        assertNull(cache.get("expired"));
+        assertNull(cache.get("now"));
+        assertNull(cache.get("no-exp"));
+    }
+
+    @Test
+    @DisplayName("Should forget every token on invalidateAll")
+    void invalidateAllClearsTheCache() {
+        cache.put("first", USER, time.instant().plus(Duration.ofMinutes(1)));
+        cache.put("second", USER, time.instant().plus(Duration.ofMinutes(1)));
+
+        cache.invalidateAll();
+
+        assertNull(cache.get("first"));
+        assertNull(cache.get("second"));
+    }
+
+    // Mesmo instante para o relógio (exp) e para o ticker do Caffeine, avançado pelo teste
+    static final class FakeTime extends Clock implements Ticker {
+
+        private final Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        private long elapsedNanos;
+
+        void advance(Duration duration) {
+            elapsedNanos += duration.toNanos();
+        }
+
+        @Override
+        public long read() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public Instant instant() {
+            return start.plusNanos(elapsedNanos);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
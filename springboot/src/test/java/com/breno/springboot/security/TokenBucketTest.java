@@ -0,0 +1,74 @@
+package com.breno.springboot.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+// 10 requisições por segundo (uma a cada 100 ms) com burst de 3; o instante é passado pelo teste
+public class TokenBucketTest {
+
+    private static final long START = TimeUnit.SECONDS.toNanos(5);
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    @DisplayName("Should accept a burst at once and refuse the next request until a token is emitted")
+    void burstThenRefuse() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+
+        assertEquals(0, bucket.tryAcquire(START));
+        assertEquals(0, bucket.tryAcquire(START));
+        assertEquals(0, bucket.tryAcquire(START));
+        assertEquals(INTERVAL, bucket.tryAcquire(START));
+    }
+
+    @Test
+    @DisplayName("Should not charge refused requests and accept once the returned wait elapses")
+    void refusedRequestsDoNotConsume() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(START);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(INTERVAL, bucket.tryAcquire(START));
+        }
+
+        assertEquals(0, bucket.tryAcquire(START + INTERVAL));
+        assertEquals(INTERVAL, bucket.tryAcquire(START + INTERVAL));
+    }
+
+    @Test
+    @DisplayName("Should refill at the configured rate and never hold more than the burst")
+    void refillIsCappedAtBurst() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(START);
+        }
+
+        // Em 250 ms saem duas fichas
+        long later = START + TimeUnit.MILLISECONDS.toNanos(250);
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), bucket.tryAcquire(later));
+
+        // Um minuto ocioso devolve só o burst, não 600 fichas
+        long idle = START + TimeUnit.MINUTES.toNanos(1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(idle));
+        }
+        assertTrue(bucket.tryAcquire(idle) > 0);
+    }
+
+    @Test
+    @DisplayName("Should round the Retry-After up to whole seconds, with at least one second")
+    void retryAfterRoundsUp() {
+        assertEquals(1, TokenBucket.retryAfterSeconds(1));
+        assertEquals(1, TokenBucket.retryAfterSeconds(INTERVAL));
+        assertEquals(1, TokenBucket.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1)));
+        assertEquals(2, TokenBucket.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1) + 1));
+        assertEquals(3, TokenBucket.retryAfterSeconds(TimeUnit.MILLISECONDS.toNanos(2500)));
+    }
+}
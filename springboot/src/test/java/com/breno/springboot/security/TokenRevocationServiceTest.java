@@ -0,0 +1,148 @@
+package com.breno.springboot.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.breno.springboot.dtos.AuthenticatedUserDTO;
+import com.breno.springboot.dtos.UserTokenVersionDTO;
+import com.breno.springboot.models.UserRole;
+import com.breno.springboot.repositories.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Versões dos tokens vêm de um repositório simulado; a atualização periódica é chamada pelo teste (refresh)
+public class TokenRevocationServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TokenAuthenticationCache tokenCache = new TokenAuthenticationCache(100, Duration.ofMinutes(5),
+            new SimpleMeterRegistry());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findTokenVersions()).thenReturn(List.of());
+        revocationService = new TokenRevocationService(Duration.ofHours(1), meterRegistry);
+        revocationService.userRepository = userRepository;
+        revocationService.tokenCache = tokenCache;
+        revocationService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        revocationService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should deny a logged-out token and keep the user's other tokens valid")
+    void revokeDeniesOnlyThatToken() {
+        DecodedJWT loggedOut = token("alice", 0);
+        DecodedJWT other = token("alice", 0);
+        cache(loggedOut);
+        long epoch = revocationService.epoch();
+
+        assertTrue(revocationService.revoke(loggedOut));
+
+        assertTrue(revocationService.isRevoked(loggedOut));
+        assertFalse(revocationService.isRevoked(other));
+        assertEquals(epoch + 1, revocationService.epoch());
+        assertNull(tokenCache.get(loggedOut.getToken()));
+        assertEquals(1.0, meterRegistry.get("auth.tokens.denylisted").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should not revoke a token without an ID")
+    void tokenWithoutIdCannotBeRevoked() {
+        DecodedJWT legacy = JWT.decode(JWT.create().withSubject("alice")
+                .withExpiresAt(Instant.now().plus(Duration.ofHours(1))).sign(Algorithm.HMAC256("secret")));
+        long epoch = revocationService.epoch();
+
+        assertFalse(revocationService.revoke(legacy));
+
+        assertFalse(revocationService.isRevoked(legacy));
+        assertEquals(epoch, revocationService.epoch());
+    }
+
+    @Test
+    @DisplayName("Should revoke every token issued before revokeAll, whatever the login case")
+    void revokeAllRejectsOlderVersions() {
+        when(userRepository.incrementTokenVersion("alice")).thenReturn(1);
+        when(userRepository.findTokenVersion("alice")).thenReturn(Optional.of(1));
+        DecodedJWT before = token("Alice", 0);
+        cache(before);
+
+        assertTrue(revocationService.revokeAll("ALICE"));
+
+        assertTrue(revocationService.isRevoked(before));
+        assertFalse(revocationService.isRevoked(token("alice", 1)));
+        assertFalse(revocationService.isRevoked(token("bob", 0)));
+        assertNull(tokenCache.get(before.getToken()));
+    }
+
+    @Test
+    @DisplayName("Should report an unknown user on revokeAll without invalidating anything")
+    void revokeAllUnknownUser() {
+        when(userRepository.incrementTokenVersion("ghost")).thenReturn(0);
+        long epoch = revocationService.epoch();
+
+        assertFalse(revocationService.revokeAll("ghost"));
+
+        assertEquals(epoch, revocationService.epoch());
+    }
+
+    @Test
+    @DisplayName("Should pick up revocations made on another instance and never roll back a newer local version")
+    void refreshMergesVersions() {
+        when(userRepository.incrementTokenVersion("alice")).thenReturn(1);
+        when(userRepository.findTokenVersion("alice")).thenReturn(Optional.of(3));
+        revocationService.revokeAll("alice");
+        long epoch = revocationService.epoch();
+
+        // Outra instância revogou os tokens de bob; a leitura de alice está atrasada em relação à revogação local
+        when(userRepository.findTokenVersions()).thenReturn(
+                List.of(new UserTokenVersionDTO("bob", 2), new UserTokenVersionDTO("alice", 2)));
+        revocationService.refresh();
+
+        assertTrue(revocationService.isRevoked(token("bob", 1)));
+        assertFalse(revocationService.isRevoked(token("bob", 2)));
+        assertTrue(revocationService.isRevoked(token("alice", 2)));
+        assertEquals(epoch + 1, revocationService.epoch());
+
+        // Sem mudança nas versões o cache de tokens verificados é mantido
+        revocationService.refresh();
+        assertEquals(epoch + 1, revocationService.epoch());
+    }
+
+    private void cache(DecodedJWT jwt) {
+        tokenCache.put(jwt.getToken(), new AuthenticatedUserDTO(UUID.randomUUID(), jwt.getSubject(), UserRole.USER),
+                jwt.getExpiresAtAsInstant());
+    }
+
+    private static DecodedJWT token(String login, int version) {
+        JWTCreator.Builder builder = JWT.create()
+                .withSubject(login)
+                .withJWTId(UUID.randomUUID().toString())
+                .withClaim(TokenService.VERSION_CLAIM, version)
+                .withExpiresAt(Instant.now().plus(Duration.ofHours(1)));
+        return JWT.decode(builder.sign(Algorithm.HMAC256("secret")));
+    }
+}
@@ -0,0 +1,76 @@
+package com.breno.springboot.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.breno.springboot.exceptions.GlobalExceptionsHandler;
+import com.breno.springboot.exceptions.HashingCapacityExceededException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Um thread e uma vaga na fila: a terceira tarefa simultânea já não cabe
+public class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingService hashingService = new PasswordHashingService(1, 1, meterRegistry);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hashingService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reject tasks once the pool and the queue are full, and accept them again after they drain")
+    void rejectsWhenSaturated() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<String> first = hashingService.submit(() -> {
+            running.countDown();
+            await(release);
+            return "first";
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = hashingService.submit(() -> "queued");
+        assertEquals(1.0, meterRegistry.get("auth.password.hashing.queue").gauge().value());
+
+        HashingCapacityExceededException exception = assertThrows(HashingCapacityExceededException.class,
+                () -> hashingService.submit(() -> "rejected"));
+        assertEquals("Too many concurrent authentication requests", exception.getMessage());
+
+        release.countDown();
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        assertEquals("accepted", hashingService.submit(() -> "accepted").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should map a saturated hashing pool to 503 with Retry-After")
+    void rejectionIsServiceUnavailable() {
+        ResponseEntity<String> response = new GlobalExceptionsHandler().handleHashingCapacityExceededException(
+                new HashingCapacityExceededException("Too many concurrent authentication requests", null));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.breno.springboot.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.breno.springboot.dtos.ProductVersionDTO;
+import com.breno.springboot.models.ProductModel;
+import com.breno.springboot.repositories.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Repositório simulado para contar as idas ao banco; o tempo do cache é avançado pelo teste
+public class ProductCacheServiceTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductCacheService cacheService = new ProductCacheService(100, Duration.ofMinutes(10),
+            Duration.ofSeconds(30), new SimpleMeterRegistry(), nanos::get);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ProductShards productShards = mock(ProductShards.class);
+        when(productShards.onHolder(any(), any()))
+                .thenAnswer(invocation -> ((Supplier<Optional<?>>) invocation.getArgument(1)).get());
+        cacheService.productRepository = productRepository;
+        cacheService.productShards = productShards;
+    }
+
+    @Test
+    @DisplayName("Should load a product once and hand out independent copies")
+    void readThroughReturnsCopies() {
+        ProductModel product = product();
+        when(productRepository.findById(product.getIdProduct())).thenReturn(Optional.of(product));
+
+        ProductModel first = cacheService.findById(product.getIdProduct()).orElseThrow();
+        first.setName("Changed by the caller");
+        ProductModel second = cacheService.findById(product.getIdProduct()).orElseThrow();
+
+        verify(productRepository, times(1)).findById(product.getIdProduct());
+        assertNotSame(first, second);
+        assertEquals("Mouse", second.getName());
+        assertEquals(3, second.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should cache a missing product only for the negative TTL")
+    void negativeEntriesExpireFirst() {
+        UUID missing = UUID.randomUUID();
+        ProductModel product = product();
+        when(productRepository.findById(missing)).thenReturn(Optional.empty());
+        when(productRepository.findById(product.getIdProduct())).thenReturn(Optional.of(product));
+
+        assertTrue(cacheService.findById(missing).isEmpty());
+        cacheService.findById(product.getIdProduct());
+        advance(Duration.ofSeconds(29));
+        assertTrue(cacheService.findById(missing).isEmpty());
+        verify(productRepository, times(1)).findById(missing);
+
+        // Passado o TTL negativo, o ID ausente volta ao banco; o produto existente continua em cache
+        advance(Duration.ofSeconds(1));
+        assertTrue(cacheService.findById(missing).isEmpty());
+        cacheService.findById(product.getIdProduct());
+        verify(productRepository, times(2)).findById(missing);
+        verify(productRepository, times(1)).findById(product.getIdProduct());
+
+        advance(Duration.ofMinutes(10));
+        cacheService.findById(product.getIdProduct());
+        verify(productRepository, times(2)).findById(product.getIdProduct());
+    }
+
+    @Test
+    @DisplayName("Should reload a product after it is evicted by a write")
+    void evictForcesReload() {
+        ProductModel product = product();
+        ProductModel updated = new ProductModel(product.getIdProduct(), "Mouse Pro", new BigDecimal("25.00"));
+        when(productRepository.findById(product.getIdProduct())).thenReturn(Optional.of(product),
+                Optional.of(updated));
+        cacheService.findById(product.getIdProduct());
+
+        cacheService.evict(product.getIdProduct());
+
+        assertEquals("Mouse Pro", cacheService.findById(product.getIdProduct()).orElseThrow().getName());
+        verify(productRepository, times(2)).findById(product.getIdProduct());
+    }
+
+    @Test
+    @DisplayName("Should evict only after the surrounding transaction commits")
+    void evictWaitsForCommit() {
+        ProductModel product = product();
+        ProductModel updated = new ProductModel(product.getIdProduct(), "Mouse Pro", new BigDecimal("25.00"));
+        updated.setVersion(4);
+        when(productRepository.findById(product.getIdProduct())).thenReturn(Optional.of(product),
+                Optional.of(updated));
+        cacheService.findById(product.getIdProduct());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cacheService.evict(product.getIdProduct(), 4);
+            // Antes do commit a entrada continua; recarregá-la agora traria a linha ainda não gravada de volta
+            assertEquals("Mouse", cacheService.findById(product.getIdProduct()).orElseThrow().getName());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals("Mouse Pro", cacheService.findById(product.getIdProduct()).orElseThrow().getName());
+        verify(productRepository, times(2)).findById(product.getIdProduct());
+    }
+
+    @Test
+    @DisplayName("Should reload instead of caching a version older than the last evicted one")
+    void staleLoadIsRetried() {
+        ProductModel product = product();
+        ProductModel updated = new ProductModel(product.getIdProduct(), "Mouse Pro", new BigDecimal("25.00"));
+        updated.setVersion(4);
+        // A primeira leitura começou antes da gravação e devolve a versão 3
+        when(productRepository.findById(product.getIdProduct())).thenReturn(Optional.of(product),
+                Optional.of(updated));
+
+        cacheService.evict(product.getIdProduct(), 4);
+
+        assertEquals(4, cacheService.findById(product.getIdProduct()).orElseThrow().getVersion());
+        assertEquals(4, cacheService.findById(product.getIdProduct()).orElseThrow().getVersion());
+        verify(productRepository, times(2)).findById(product.getIdProduct());
+    }
+
+    @Test
+    @DisplayName("Should answer a deleted product from the cache without querying the database")
+    void markDeletedCachesTheMiss() {
+        ProductModel product = product();
+        when(productRepository.findById(product.getIdProduct())).thenReturn(Optional.of(product));
+        cacheService.findById(product.getIdProduct());
+
+        cacheService.markDeleted(product.getIdProduct());
+
+        assertTrue(cacheService.findById(product.getIdProduct()).isEmpty());
+        assertTrue(cacheService.findVersion(product.getIdProduct()).isEmpty());
+        verify(productRepository, times(1)).findById(product.getIdProduct());
+        verify(productRepository, never()).findVersionById(product.getIdProduct());
+    }
+
+    @Test
+    @DisplayName("Should read the version from the cache and query only the version otherwise")
+    void findVersionUsesCacheFirst() {
+        ProductModel product = product();
+        when(productRepository.findById(product.getIdProduct())).thenReturn(Optional.of(product));
+        UUID uncached = UUID.randomUUID();
+        when(productRepository.findVersionById(uncached))
+                .thenReturn(Optional.of(new ProductVersionDTO(uncached, 7, null)));
+
+        cacheService.findById(product.getIdProduct());
+        assertEquals(3, cacheService.findVersion(product.getIdProduct()).orElseThrow().version());
+        verify(productRepository, never()).findVersionById(product.getIdProduct());
+
+        assertEquals(7, cacheService.findVersion(uncached).orElseThrow().version());
+        // A consulta de versão não popula o cache
+        cacheService.findVersion(uncached);
+        verify(productRepository, times(2)).findVersionById(uncached);
+        verify(productRepository, never()).findById(uncached);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private static ProductModel product() {
+        ProductModel product = new ProductModel(UUID.randomUUID(), "Mouse", new BigDecimal("19.90"));
+        product.setVersion(3);
+        return product;
+    }
+}
@@ -0,0 +1,156 @@
+package com.breno.springboot.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.breno.springboot.events.ProductChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Buffer de 5 alterações e atraso máximo de 3; o MockMvc entrega o stream SSE como numa requisição real
+public class ProductChangeFeedServiceTest {
+
+    @RestController
+    static class FeedController {
+
+        private final ProductChangeFeedService feed;
+
+        FeedController(ProductChangeFeedService feed) {
+            this.feed = feed;
+        }
+
+        @GetMapping("/changes")
+        SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+            return feed.subscribe(lastEventId);
+        }
+    }
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProductChangeFeedService feed;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // Heartbeat longo: nenhum ":ping" no meio das asserções
+        feed = new ProductChangeFeedService(5, 3, Duration.ofHours(1), Duration.ofMinutes(1), meterRegistry);
+        feed.objectMapper = new ObjectMapper();
+        mockMvc = MockMvcBuilders.standaloneSetup(new FeedController(feed)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should send only the changes made after a subscription without Last-Event-ID")
+    void newSubscriberGetsOnlyNewChanges() throws Exception {
+        change(2);
+        MvcResult result = subscribe(null);
+
+        change(1);
+
+        String stream = await(result, content -> content.contains("id:3"));
+        assertFalse(stream.contains("id:2"));
+        assertFalse(stream.contains("event:reset"));
+    }
+
+    @Test
+    @DisplayName("Should resume after Last-Event-ID while the missed changes are still buffered")
+    void resumesFromLastEventId() throws Exception {
+        change(4);
+
+        String stream = await(subscribe(2L), content -> content.contains("id:4"));
+
+        assertFalse(stream.contains("id:2\n"));
+        assertTrue(stream.indexOf("id:3") < stream.indexOf("id:4"));
+        assertTrue(stream.contains("\"sequence\":3"));
+        assertFalse(stream.contains("event:reset"));
+    }
+
+    @Test
+    @DisplayName("Should send a reset when the missed changes left the buffer or the sequence restarted")
+    void resetsWhenNotResumable() throws Exception {
+        change(8);
+
+        // Alterações 2 a 4 já saíram do buffer de 5
+        String tooOld = await(subscribe(1L), content -> content.contains("event:reset"));
+        assertTrue(tooOld.startsWith("event:reset\nid:8\ndata:8\n\n"));
+        assertFalse(tooOld.contains("event:change"));
+
+        // Last-Event-ID à frente da sequência: o servidor reiniciou
+        MvcResult restarted = subscribe(100L);
+        assertTrue(await(restarted, content -> content.contains("event:reset")).startsWith("event:reset\nid:8"));
+
+        // Depois do reset, as próximas alterações chegam normalmente
+        change(1);
+        await(restarted, content -> content.contains("id:9"));
+    }
+
+    @Test
+    @DisplayName("Should disconnect a subscriber that falls more than max-lag changes behind")
+    void disconnectsSlowConsumer() throws Exception {
+        MvcResult slow = subscribe(null);
+
+        // Com o lock do feed, a thread do assinante não envia nada até as quatro alterações entrarem
+        synchronized (feed) {
+            change(4);
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (meterRegistry.get("products.changes.disconnected").counter().count() < 1
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1.0, meterRegistry.get("products.changes.disconnected").counter().count());
+        assertEquals(0.0, meterRegistry.get("products.changes.subscribers").gauge().value());
+        assertFalse(slow.getResponse().getContentAsString().contains("event:change"));
+    }
+
+    private MvcResult subscribe(Long lastEventId) throws Exception {
+        var request = get("/changes");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andReturn();
+    }
+
+    private void change(int count) {
+        for (int i = 0; i < count; i++) {
+            feed.onProductChanged(new ProductChangedEvent(UUID.randomUUID(), ProductChangedEvent.Operation.CREATED,
+                    "Mouse", BigDecimal.TEN, 0));
+        }
+    }
+
+    // O envio acontece na thread virtual do assinante; espera o conteúdo chegar à resposta
+    private static String await(MvcResult result, Predicate<String> condition) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        String content = result.getResponse().getContentAsString();
+        while (!condition.test(content) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(condition.test(content), content);
+        return content;
+    }
+}
@@ -0,0 +1,106 @@
+package com.breno.springboot.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.breno.springboot.models.ProductModel;
+import com.breno.springboot.repositories.ProductNameRepository;
+import com.breno.springboot.repositories.ProductRepository;
+
+import jakarta.persistence.EntityManager;
+
+// Sem a transação de cada teste: as reservas são gravadas em transações próprias, como na aplicação
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductNameReservationsTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-01T00:00:00Z");
+    private static final Duration TIMEOUT = Duration.ofMinutes(1);
+
+    @Autowired
+    ProductNameRepository nameRepository;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM tb_product_names");
+        jdbcTemplate.update("DELETE FROM tb_products");
+    }
+
+    @Test
+    @DisplayName("Should reserve each name once until the reservation is released")
+    void reservesEachNameOnce() {
+        ProductNameReservations reservations = start(NOW);
+
+        Map<String, UUID> first = reservations.reserve(List.of("Mouse", "Keyboard"));
+        assertEquals(2, first.size());
+
+        // Um nome já reservado fica de fora; os livres continuam sendo reservados
+        Map<String, UUID> second = reservations.reserve(List.of("Mouse", "Monitor"));
+        assertEquals(Map.of("Monitor", second.get("Monitor")), second);
+
+        reservations.release(Map.of("Mouse", first.get("Mouse")));
+        assertEquals(1, reservations.reserve(List.of("Mouse")).size());
+    }
+
+    @Test
+    @DisplayName("Should take over an abandoned reservation only after the timeout and if no product uses the name")
+    void takesOverAbandonedReservations() {
+        start(NOW).reserve(List.of("Mouse", "Keyboard"));
+        productRepository.save(new ProductModel(null, "Keyboard", BigDecimal.TEN));
+
+        // Dentro do timeout, a reserva pode ser de um cadastro ainda em andamento
+        assertTrue(start(NOW.plusSeconds(30)).reserve(List.of("Mouse", "Keyboard")).isEmpty());
+
+        // Depois dele, o nome sem produto ativo é tomado; o do produto cadastrado continua em uso
+        ProductNameReservations later = start(NOW.plus(TIMEOUT).plusSeconds(1));
+        Map<String, UUID> reserved = later.reserve(List.of("Mouse", "Keyboard"));
+        assertEquals(List.of("Mouse"), List.copyOf(reserved.keySet()));
+        assertEquals(reserved.get("Mouse"), nameRepository.findById("Mouse").orElseThrow().getToken());
+    }
+
+    private ProductNameReservations start(Instant now) {
+        ProductNameReservations reservations = new ProductNameReservations(TIMEOUT, transactionManager,
+                Clock.fixed(now, ZoneOffset.UTC));
+        reservations.nameRepository = nameRepository;
+        reservations.productRepository = productRepository;
+        reservations.entityManager = entityManager;
+        reservations.productShards = new ProductShards(dataSource, 0);
+        return reservations;
+    }
+}
@@ -0,0 +1,108 @@
+package com.breno.springboot.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Sem a transação de cada teste: cada transação aberta aqui reserva o seu bloco de revisões
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductRevisionServiceTest {
+
+    private static final Duration COMMIT_LAG = Duration.ofSeconds(10);
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(dataSource).update("DELETE FROM tb_products");
+    }
+
+    @Test
+    @DisplayName("Should hand out consecutive revisions from one block per transaction")
+    void oneBlockPerTransaction() {
+        ProductRevisionService service = start();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        long first = transaction.execute(status -> service.next());
+        long second = transaction.execute(status -> {
+            long revision = service.next();
+            assertEquals(revision + 1, service.next());
+            assertEquals(revision + 2, service.next());
+            return revision;
+        });
+
+        // A segunda transação começa num bloco novo, mesmo sem ter esgotado o da primeira
+        assertTrue(second > first);
+        assertEquals(0, (second - 1) % ProductRevisionService.ALLOCATION_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should only report revisions reserved at least one commit lag ago as committed")
+    void watermarkTrailsByTheCommitLag() {
+        ProductRevisionService service = start();
+        nanoTime.addAndGet(COMMIT_LAG.toNanos());
+        long initial = service.watermark();
+
+        long reserved = new TransactionTemplate(transactionManager).execute(status -> service.next());
+        service.sample();
+
+        // A amostra tirada depois da reserva ainda não completou o commit-lag
+        assertEquals(initial, service.watermark());
+        assertTrue(service.watermark() < reserved);
+
+        nanoTime.addAndGet(COMMIT_LAG.toNanos());
+        assertTrue(service.watermark() >= reserved);
+    }
+
+    @Test
+    @DisplayName("Should restart the sequence above revisions already stored")
+    void sequenceStartsAboveStoredRevisions() {
+        ProductRevisionService previous = start();
+        long stored = new TransactionTemplate(transactionManager).execute(status -> previous.next()) + 10_000;
+        new JdbcTemplate(dataSource).update("INSERT INTO tb_products (id_product, name, \"value\", version, revision, "
+                + "deleted) VALUES (RANDOM_UUID(), 'Mouse', 10, 0, ?, false)", stored);
+
+        ProductRevisionService service = start();
+
+        assertTrue(new TransactionTemplate(transactionManager).execute(status -> service.next()) > stored);
+    }
+
+    private ProductRevisionService start() {
+        ProductRevisionService service = new ProductRevisionService(COMMIT_LAG, Duration.ofSeconds(1), nanoTime::get);
+        service.entityManagerFactory = entityManagerFactory;
+        service.productShards = new ProductShards(dataSource, 0);
+        service.dataSource = dataSource;
+        // Sem o agendamento do start(): o teste tira as amostras
+        service.init();
+        return service;
+    }
+}
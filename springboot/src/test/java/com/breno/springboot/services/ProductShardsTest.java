@@ -0,0 +1,212 @@
+package com.breno.springboot.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.breno.springboot.controllers.ProductController;
+import com.breno.springboot.dtos.ProductPageDTO;
+import com.breno.springboot.dtos.ProductRecordDTO;
+import com.breno.springboot.dtos.ProductResponseDTO;
+import com.breno.springboot.dtos.ResponseDTO;
+import com.breno.springboot.dtos.ShardRebalanceStatusDTO;
+import com.breno.springboot.repositories.ProductRepository;
+
+// Três shards H2 em memória; o esquema vem do ddl-auto, aplicado pelo ShardRoutingConfig em cada shard
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shards-test-0;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "api.datasource.shards.enabled=true",
+        "api.datasource.shards.urls=jdbc:h2:mem:shards-test-1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shards-test-2;DB_CLOSE_DELAY=-1",
+        "api.datasource.shards.rebalance-batch-size=2"
+})
+@ActiveProfiles("test")
+public class ProductShardsTest {
+
+    @Autowired
+    ProductShards productShards;
+
+    @Autowired
+    ProductShardRebalancer productShardRebalancer;
+
+    @Autowired
+    ProductController productController;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    ProductNameReservations productNameReservations;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        productShards.onEachShard(() -> jdbcTemplate.update("DELETE FROM tb_products"));
+        productShards.onShard(0, () -> jdbcTemplate.update("DELETE FROM tb_product_names"));
+        // Os links HATEOAS da listagem são montados a partir da requisição atual
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Should store each product only on the shard its id hashes to")
+    void productsLiveOnTheirOwnShard() {
+        List<UUID> ids = new ArrayList<>();
+        for (String name : List.of("Mouse", "Keyboard", "Monitor", "Laptop", "Webcam", "Headset")) {
+            ids.add(create(name).getIdProduct());
+        }
+
+        assertEquals(3, productShards.count());
+        Set<Integer> usedShards = new HashSet<>();
+        for (UUID id : ids) {
+            int owner = productShards.shardOf(id);
+            usedShards.add(owner);
+            assertEquals(List.of(owner == 0 ? 1 : 0, owner == 1 ? 1 : 0, owner == 2 ? 1 : 0), rowsPerShard(id));
+            assertTrue(productShards.onHolder(id, () -> productRepository.findById(id)).isPresent());
+        }
+        // Produtos novos vão para os shards em rodízio
+        assertEquals(Set.of(0, 1, 2), usedShards);
+    }
+
+    @Test
+    @DisplayName("Should merge the sorted pages of every shard into one keyset-paginated listing")
+    void listingMergesShardPages() {
+        List<String> names = List.of("Mouse", "Keyboard", "Monitor", "Laptop", "Webcam", "Headset", "Cable");
+        names.forEach(this::create);
+
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductPageDTO page = productController.getAllProducts(cursor, 2,
+                    new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse())).getBody();
+            page.items().forEach(item -> listed.add(item.getName()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(names.stream().sorted().toList(), listed);
+    }
+
+    @Test
+    @DisplayName("Should reject a duplicate name even when it would be written to another shard")
+    void nameIsUniqueAcrossShards() {
+        UUID first = create("Mouse").getIdProduct();
+
+        // Cada criação vai para o próximo shard do rodízio, então as duas tentativas caem fora do shard do primeiro
+        for (int attempt = 0; attempt < 2; attempt++) {
+            var response = productController.saveProduct(new ProductRecordDTO("Mouse", new BigDecimal(12)), null);
+            assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        }
+        assertEquals(1, productShards.onEachShard(() -> productRepository.existsByName("Mouse")).stream()
+                .filter(Boolean::booleanValue).count());
+        assertTrue(productShards.onHolder(first, () -> productRepository.findById(first)).isPresent());
+    }
+
+    @Test
+    @DisplayName("Should move misplaced products and tombstones to their owning shard in one rebalance")
+    void rebalanceMovesMisplacedRows() throws InterruptedException {
+        // Linhas gravadas no shard 0 com IDs de outros shards, como depois de acrescentar shards
+        List<UUID> misplaced = new ArrayList<>();
+        while (misplaced.size() < 5) {
+            UUID id = UUID.randomUUID();
+            if (productShards.shardOf(id) != 0) {
+                misplaced.add(id);
+            }
+        }
+        UUID tombstone = misplaced.get(0);
+        for (UUID id : misplaced) {
+            insertRow(0, id, "Product " + id, id.equals(tombstone));
+        }
+        UUID inPlace = create("Mouse").getIdProduct();
+
+        assertTrue(productShardRebalancer.start());
+        ShardRebalanceStatusDTO status = awaitRebalance();
+
+        assertEquals(ShardRebalanceStatusDTO.COMPLETED, status.state());
+        assertEquals(5, status.moved());
+        for (UUID id : misplaced) {
+            int owner = productShards.shardOf(id);
+            assertEquals(List.of(owner == 0 ? 1 : 0, owner == 1 ? 1 : 0, owner == 2 ? 1 : 0), rowsPerShard(id));
+        }
+        Boolean deleted = productShards.onOwner(tombstone, () -> jdbcTemplate.queryForObject(
+                "SELECT deleted FROM tb_products WHERE id_product = ?", Boolean.class, tombstone));
+        assertTrue(deleted);
+        assertTrue(productShards.onHolder(misplaced.get(1), () -> productRepository.findById(misplaced.get(1)))
+                .isPresent());
+        assertEquals(1, rowsPerShard(inPlace).stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    @DisplayName("Should reject a name another instance reserved but has not written yet")
+    void reservedNameConflicts() {
+        // Reserva de outra instância, cujo produto ainda não chegou a nenhum shard
+        assertEquals(1, productNameReservations.reserve(List.of("Keyboard")).size());
+
+        var response = productController.saveProduct(new ProductRecordDTO("Keyboard", new BigDecimal(12)), null);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertTrue(productShards.onEachShard(() -> productRepository.existsByName("Keyboard")).stream()
+                .noneMatch(Boolean::booleanValue));
+    }
+
+    private ProductResponseDTO create(String name) {
+        var response = productController.saveProduct(new ProductRecordDTO(name, new BigDecimal(10)), null);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        @SuppressWarnings("unchecked")
+        var body = (ResponseDTO<ProductResponseDTO>) response.getBody();
+        return body.getData();
+    }
+
+    private List<Integer> rowsPerShard(UUID id) {
+        return productShards.onEachShard(() -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tb_products WHERE id_product = ?", Integer.class, id));
+    }
+
+    private void insertRow(int shard, UUID id, String name, boolean deleted) {
+        productShards.onShard(shard, () -> jdbcTemplate.update("""
+                INSERT INTO tb_products (id_product, name, "value", version, revision, deleted, updated_at)
+                VALUES (?, ?, ?, 0, 1, ?, ?)
+                """, id, name, new BigDecimal(10), deleted, Timestamp.from(Instant.now())));
+    }
+
+    private ShardRebalanceStatusDTO awaitRebalance() throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        ShardRebalanceStatusDTO status = productShardRebalancer.getStatus();
+        while (ShardRebalanceStatusDTO.RUNNING.equals(status.state()) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            status = productShardRebalancer.getStatus();
+        }
+        return status;
+    }
+}
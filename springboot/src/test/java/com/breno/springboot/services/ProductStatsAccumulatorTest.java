@@ -0,0 +1,110 @@
+package com.breno.springboot.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.breno.springboot.dtos.PriceBucketDTO;
+
+public class ProductStatsAccumulatorTest {
+
+    private final ProductStatsAccumulator stats = new ProductStatsAccumulator(
+            new BigDecimal[] { new BigDecimal(10), new BigDecimal(100) });
+
+    @Test
+    @DisplayName("Should keep min and max exact when products with the same price are updated and deleted")
+    void minAndMaxUnderDeletes() {
+        UUID cheap = UUID.randomUUID();
+        UUID alsoCheap = UUID.randomUUID();
+        UUID expensive = UUID.randomUUID();
+        stats.apply(cheap, new BigDecimal("5.00"));
+        stats.apply(alsoCheap, new BigDecimal("5.0"));
+        stats.apply(expensive, new BigDecimal(200));
+
+        // Outro produto ainda tem o menor preço
+        stats.apply(cheap, null);
+        assertEquals(0, new BigDecimal(5).compareTo(stats.min()));
+
+        stats.apply(alsoCheap, new BigDecimal(50));
+        assertEquals(0, new BigDecimal(50).compareTo(stats.min()));
+
+        stats.apply(expensive, null);
+        assertEquals(0, new BigDecimal(50).compareTo(stats.max()));
+        assertEquals(1, stats.count());
+        assertEquals(0, new BigDecimal(50).compareTo(stats.sum()));
+
+        stats.apply(alsoCheap, null);
+        assertNull(stats.min());
+        assertNull(stats.max());
+        assertEquals(0, stats.count());
+    }
+
+    @Test
+    @DisplayName("Should put prices equal to a bound in the bucket that starts at it")
+    void histogramBounds() {
+        stats.apply(UUID.randomUUID(), new BigDecimal("9.99"));
+        stats.apply(UUID.randomUUID(), new BigDecimal(10));
+        stats.apply(UUID.randomUUID(), new BigDecimal(100));
+        UUID moved = UUID.randomUUID();
+        stats.apply(moved, new BigDecimal(1));
+        stats.apply(moved, new BigDecimal(500));
+
+        List<PriceBucketDTO> histogram = stats.snapshot().histogram();
+        assertEquals(List.of(1L, 1L, 2L), histogram.stream().map(PriceBucketDTO::count).toList());
+        assertNull(histogram.get(0).from());
+        assertNull(histogram.get(2).to());
+        assertEquals(0, new BigDecimal("155.00").compareTo(stats.snapshot().averageValue()));
+    }
+
+    @Test
+    @DisplayName("Should keep the event value when the rebuild reads an older row afterwards")
+    void eventDuringLoadWinsOverOlderRow() {
+        UUID idProduct = UUID.randomUUID();
+
+        stats.apply(idProduct, new BigDecimal(20));
+        stats.load(idProduct, new BigDecimal(10));
+
+        assertEquals(1, stats.count());
+        assertEquals(0, new BigDecimal(20).compareTo(stats.sum()));
+    }
+
+    @Test
+    @DisplayName("Should not bring back a product deleted while the rebuild was loading")
+    void deleteDuringLoadIsNotUndone() {
+        UUID deleted = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        stats.load(deleted, new BigDecimal(10));
+        stats.load(kept, new BigDecimal(30));
+
+        // A remoção chega depois da linha já carregada e antes de outra leitura da mesma linha (outro shard)
+        stats.apply(deleted, null);
+        stats.load(deleted, new BigDecimal(10));
+        // Produto removido antes de a carga chegar à sua linha
+        UUID deletedBeforeRow = UUID.randomUUID();
+        stats.apply(deletedBeforeRow, null);
+        stats.load(deletedBeforeRow, new BigDecimal(40));
+
+        assertEquals(1, stats.count());
+        assertEquals(0, new BigDecimal(30).compareTo(stats.min()));
+        assertEquals(0, new BigDecimal(30).compareTo(stats.max()));
+    }
+
+    @Test
+    @DisplayName("Should let a product deleted during the load be created again once the load finishes")
+    void finishLoadingForgetsDeletes() {
+        UUID idProduct = UUID.randomUUID();
+        stats.apply(idProduct, null);
+        stats.finishLoading();
+
+        stats.apply(idProduct, new BigDecimal(15));
+
+        assertEquals(1, stats.count());
+        assertEquals(0, new BigDecimal(15).compareTo(stats.max()));
+    }
+}
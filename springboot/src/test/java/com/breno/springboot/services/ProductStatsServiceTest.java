@@ -0,0 +1,119 @@
+package com.breno.springboot.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.breno.springboot.dtos.ProductStatsDTO;
+import com.breno.springboot.events.ProductChangedEvent;
+import com.breno.springboot.repositories.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// As linhas são gravadas por JDBC: para o serviço, são gravações feitas fora da aplicação, sem eventos
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductStatsServiceTest {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    DataSource dataSource;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbcTemplate;
+    private ProductStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        insert("Mouse", 10);
+        insert("Keyboard", 200);
+        service = new ProductStatsService(new BigDecimal[] { new BigDecimal(100) }, Duration.ofHours(1),
+                transactionManager, meterRegistry);
+        service.productRepository = productRepository;
+        service.productShards = new ProductShards(dataSource, 0);
+        service.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        jdbcTemplate.update("DELETE FROM tb_products");
+    }
+
+    @Test
+    @DisplayName("Should report a match while events keep the stats in step with the database")
+    void reconcileMatches() {
+        UUID idProduct = insert("Monitor", 50);
+        service.onProductChanged(
+                new ProductChangedEvent(idProduct, ProductChangedEvent.Operation.CREATED, "Monitor", new BigDecimal(50), 0));
+
+        assertTrue(service.reconcile());
+        assertEquals(1.0, reconciliations("match"));
+        assertEquals(0.0, reconciliations("drift"));
+        assertEquals(3, service.getStats().count());
+    }
+
+    @Test
+    @DisplayName("Should detect a write made outside the application and rebuild the stats")
+    void reconcileDetectsInsert() {
+        insert("Monitor", 50);
+        assertEquals(2, service.getStats().count());
+
+        assertFalse(service.reconcile());
+
+        ProductStatsDTO stats = service.getStats();
+        assertEquals(3, stats.count());
+        assertEquals(2L, stats.histogram().get(0).count());
+        assertEquals(1.0, reconciliations("drift"));
+        assertTrue(service.reconcile());
+    }
+
+    @Test
+    @DisplayName("Should detect a changed highest price even when count and sum still match")
+    void reconcileDetectsMaxDrift() {
+        // Mesma quantidade e mesma soma (10 + 200 = 105 + 105), outro menor e maior preço
+        jdbcTemplate.update("UPDATE tb_products SET \"value\" = 105");
+
+        assertFalse(service.reconcile());
+
+        ProductStatsDTO stats = service.getStats();
+        assertEquals(0, new BigDecimal(105).compareTo(stats.minValue()));
+        assertEquals(0, new BigDecimal(105).compareTo(stats.maxValue()));
+    }
+
+    private UUID insert(String name, int value) {
+        UUID idProduct = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO tb_products (id_product, name, \"value\") VALUES (?, ?, ?)",
+                idProduct, name, new BigDecimal(value));
+        return idProduct;
+    }
+
+    private double reconciliations(String result) {
+        return meterRegistry.counter("products.stats.reconciliations", "result", result).count();
+    }
+}
@@ -0,0 +1,91 @@
+package com.breno.springboot.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.breno.springboot.repositories.ProductSyncRepository;
+
+import jakarta.persistence.EntityManager;
+
+// Sem a transação de cada teste: o expurgo abre as suas, como na aplicação
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductTombstoneServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-01T00:00:00Z");
+
+    @Autowired
+    ProductSyncRepository syncRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM tb_products");
+        jdbcTemplate.update("DELETE FROM tb_product_sync");
+    }
+
+    @Test
+    @DisplayName("Should purge only tombstones older than the retention and record the purged revision")
+    void purgesExpiredTombstones() {
+        insert(1, true, NOW.minus(Duration.ofDays(40)));
+        insert(2, true, NOW.minus(Duration.ofDays(31)));
+        insert(3, false, NOW.minus(Duration.ofDays(60)));
+        insert(4, true, NOW.minus(Duration.ofDays(1)));
+        ProductTombstoneService service = start();
+        assertEquals(0, service.purgedRevision());
+
+        assertEquals(2, service.purge());
+
+        assertEquals(2, service.purgedRevision());
+        // O produto ativo e o tombstone recente continuam
+        assertEquals(2, new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM tb_products", Integer.class));
+        // Nada novo a expurgar: o limite registrado não muda
+        assertEquals(0, service.purge());
+        assertEquals(2, service.purgedRevision());
+    }
+
+    private ProductTombstoneService start() {
+        ProductTombstoneService service = new ProductTombstoneService(Duration.ofDays(30), Duration.ofHours(1),
+                transactionManager, Clock.fixed(NOW, ZoneOffset.UTC));
+        service.syncRepository = syncRepository;
+        service.entityManager = entityManager;
+        service.productShards = new ProductShards(dataSource, 0);
+        // Sem o agendamento do start(): o teste chama purge
+        service.init();
+        return service;
+    }
+
+    private void insert(long revision, boolean deleted, Instant updatedAt) {
+        new JdbcTemplate(dataSource).update("INSERT INTO tb_products (id_product, name, \"value\", version, revision, "
+                + "deleted, updated_at) VALUES (RANDOM_UUID(), ?, 10, 0, ?, ?, ?)", "Product " + revision, revision,
+                deleted, Timestamp.from(updatedAt));
+    }
+}
@@ -0,0 +1,225 @@
+package com.breno.springboot.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.breno.springboot.dtos.ProductRecordDTO;
+import com.breno.springboot.dtos.ProductWriteStatusDTO;
+import com.breno.springboot.exceptions.WriteQueueFullException;
+import com.breno.springboot.models.ProductModel;
+import com.breno.springboot.repositories.ProductNameRepository;
+import com.breno.springboot.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+// Sem a transação de cada teste: o write-behind abre as suas, como na aplicação
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductWriteBehindServiceTest {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    ProductNameRepository productNameRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    DataSource dataSource;
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProductWriteBehindService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.stop();
+        }
+        new JdbcTemplate(dataSource).update("DELETE FROM tb_products");
+        new JdbcTemplate(dataSource).update("DELETE FROM tb_product_names");
+    }
+
+    @Test
+    @DisplayName("Should coalesce pending updates of one product into a single write")
+    void updatesToOneProductAreCoalesced() {
+        ProductModel product = save("Mouse", 10);
+        service = start(10, entityManager);
+
+        UUID first = service.enqueueUpdate(product.getIdProduct(), record("Mouse", 11)).orElseThrow().trackingId();
+        UUID second = service.enqueueUpdate(product.getIdProduct(), record("Mouse Pro", 12)).orElseThrow()
+                .trackingId();
+        assertEquals(1.0, meterRegistry.counter("products.write_behind.coalesced").count());
+
+        service.flush();
+
+        ProductModel updated = productRepository.findById(product.getIdProduct()).orElseThrow();
+        assertEquals("Mouse Pro", updated.getName());
+        assertEquals(0, new BigDecimal(12).compareTo(updated.getValue()));
+        // Uma única atualização no banco
+        assertEquals(1, updated.getVersion());
+        assertEquals(ProductWriteStatusDTO.APPLIED, status(first));
+        assertEquals(ProductWriteStatusDTO.APPLIED, status(second));
+    }
+
+    @Test
+    @DisplayName("Should refuse new products while the queue is full and accept them again once it drains")
+    void fullQueueRejectsNewWrites() {
+        ProductModel product = save("Mouse", 10);
+        service = start(2, entityManager);
+
+        service.enqueueUpdate(product.getIdProduct(), record("Mouse", 11)).orElseThrow();
+        service.enqueueCreate(record("Keyboard", 20)).orElseThrow();
+
+        assertThrows(WriteQueueFullException.class, () -> service.enqueueCreate(record("Monitor", 30)));
+        // Uma gravação combinada com outra já pendente não ocupa mais espaço na fila
+        service.enqueueUpdate(product.getIdProduct(), record("Mouse", 12)).orElseThrow();
+
+        service.flush();
+
+        service.enqueueCreate(record("Monitor", 30)).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Should keep writes queued and journaled after a transient database error, then apply them")
+    void transientErrorRequeuesTheBatch() throws IOException {
+        // Timeout de lock no primeiro flush do lote; os seguintes vão ao banco normalmente
+        EntityManager failingOnce = mock(EntityManager.class,
+                withSettings().defaultAnswer(AdditionalAnswers.delegatesTo(entityManager)));
+        doThrow(new QueryTimeoutException("Lock wait timeout"))
+                .doAnswer(AdditionalAnswers.delegatesTo(entityManager))
+                .when(failingOnce).flush();
+        service = start(10, failingOnce);
+
+        UUID mouse = service.enqueueCreate(record("Mouse", 10)).orElseThrow().trackingId();
+        UUID keyboard = service.enqueueCreate(record("Keyboard", 20)).orElseThrow().trackingId();
+
+        service.flush();
+
+        assertEquals(ProductWriteStatusDTO.PENDING, status(mouse));
+        assertEquals(ProductWriteStatusDTO.PENDING, status(keyboard));
+        assertEquals(0, productRepository.count());
+        assertTrue(Files.size(journal()) > 0);
+        // O nome continua reservado enquanto a criação espera a nova tentativa
+        assertTrue(service.enqueueCreate(record("Mouse", 15)).isEmpty());
+
+        // Dentro da espera entre tentativas, o flush agendado não tenta de novo
+        service.flushIfDue();
+        assertEquals(ProductWriteStatusDTO.PENDING, status(mouse));
+
+        service.flush();
+
+        assertEquals(ProductWriteStatusDTO.APPLIED, status(mouse));
+        assertEquals(ProductWriteStatusDTO.APPLIED, status(keyboard));
+        assertEquals(2, productRepository.count());
+        assertEquals(0, Files.size(journal()));
+    }
+
+    @Test
+    @DisplayName("Should fail only the write the database rejects and apply the rest of the batch")
+    void dataErrorFailsOnlyTheRejectedWrite() throws IOException {
+        service = start(10, entityManager);
+
+        UUID valid = service.enqueueCreate(record("Mouse", 10)).orElseThrow().trackingId();
+        // Maior que a coluna varchar(255)
+        UUID tooLong = service.enqueueCreate(record("x".repeat(300), 20)).orElseThrow().trackingId();
+
+        service.flush();
+
+        assertEquals(ProductWriteStatusDTO.APPLIED, status(valid));
+        assertEquals(ProductWriteStatusDTO.FAILED, status(tooLong));
+        assertEquals(1, productRepository.count());
+        assertEquals(0, Files.size(journal()));
+    }
+
+    @Test
+    @DisplayName("Should end a create in conflict when another instance reserved the name")
+    void nameReservedElsewhereConflicts() {
+        service = start(10, entityManager);
+        // Reserva feita por outra instância, ainda sem o produto gravado
+        assertEquals(1, service.productNameReservations.reserve(List.of("Mouse")).size());
+
+        UUID mouse = service.enqueueCreate(record("Mouse", 10)).orElseThrow().trackingId();
+        UUID keyboard = service.enqueueCreate(record("Keyboard", 20)).orElseThrow().trackingId();
+        service.flush();
+
+        assertEquals(ProductWriteStatusDTO.CONFLICT, status(mouse));
+        assertEquals(ProductWriteStatusDTO.APPLIED, status(keyboard));
+        assertEquals(1, productRepository.count());
+    }
+
+    private ProductWriteBehindService start(int capacity, EntityManager entityManager) {
+        // Intervalo longo: o teste chama flush quando quer aplicar a fila
+        ProductWriteBehindService writeBehind = new ProductWriteBehindService(capacity, 100, Duration.ofHours(1),
+                journal(), Duration.ofHours(1), new ObjectMapper(), transactionManager, meterRegistry);
+        writeBehind.productRepository = productRepository;
+        writeBehind.entityManager = entityManager;
+        writeBehind.productCacheService = mock(ProductCacheService.class);
+        writeBehind.productShards = new ProductShards(dataSource, 0);
+        ProductNameReservations reservations = new ProductNameReservations(Duration.ofMinutes(1), transactionManager);
+        reservations.nameRepository = productNameRepository;
+        reservations.productRepository = productRepository;
+        reservations.productShards = writeBehind.productShards;
+        reservations.entityManager = this.entityManager;
+        writeBehind.productNameReservations = reservations;
+        writeBehind.start();
+        return writeBehind;
+    }
+
+    private Path journal() {
+        return directory.resolve("product-writes.journal");
+    }
+
+    private String status(UUID trackingId) {
+        return service.getStatus(trackingId).orElseThrow().status();
+    }
+
+    private ProductModel save(String name, int value) {
+        ProductModel productModel = new ProductModel();
+        BeanUtils.copyProperties(record(name, value), productModel);
+        return productRepository.save(productModel);
+    }
+
+    private static ProductRecordDTO record(String name, int value) {
+        return new ProductRecordDTO(name, new BigDecimal(value));
+    }
+}
@@ -0,0 +1,122 @@
+package com.breno.springboot.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ProductWriteJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should recover the acknowledged writes and ignore a torn last line")
+    void recoverIgnoresTornLastLine() throws IOException {
+        Path path = directory.resolve("writes.journal");
+        ProductWriteJournal.Write first = create("Mouse");
+        ProductWriteJournal.Write second = update(UUID.randomUUID(), "Keyboard");
+        try (ProductWriteJournal journal = new ProductWriteJournal(path, objectMapper)) {
+            journal.append(first);
+            journal.append(second);
+        }
+        // Queda no meio da escrita de uma terceira gravação, que nunca foi confirmada ao cliente
+        Files.writeString(path, "{\"write\":{\"trackingId\":\"" + UUID.randomUUID() + "\",\"operation\":\"cre",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (ProductWriteJournal journal = new ProductWriteJournal(path, objectMapper)) {
+            assertEquals(List.of(first, second), journal.recover());
+        }
+    }
+
+    @Test
+    @DisplayName("Should not recover writes that have a done line")
+    void recoverSkipsDoneWrites() throws IOException {
+        Path path = directory.resolve("writes.journal");
+        ProductWriteJournal.Write first = create("Mouse");
+        ProductWriteJournal.Write second = create("Keyboard");
+        ProductWriteJournal.Write third = update(UUID.randomUUID(), "Monitor");
+        try (ProductWriteJournal journal = new ProductWriteJournal(path, objectMapper)) {
+            journal.append(first);
+            journal.append(second);
+            journal.markDone(List.of(first.trackingId()));
+            journal.append(third);
+            journal.markDone(List.of(third.trackingId()));
+        }
+
+        try (ProductWriteJournal journal = new ProductWriteJournal(path, objectMapper)) {
+            assertEquals(List.of(second), journal.recover());
+        }
+    }
+
+    @Test
+    @DisplayName("Should compact the journal to the pending writes and keep appending after them")
+    void recoverCompactsTheFile() throws IOException {
+        Path path = directory.resolve("writes.journal");
+        ProductWriteJournal.Write first = create("Mouse");
+        ProductWriteJournal.Write second = create("Keyboard");
+        ProductWriteJournal.Write third = create("Monitor");
+        try (ProductWriteJournal journal = new ProductWriteJournal(path, objectMapper)) {
+            journal.append(first);
+            journal.append(second);
+            journal.markDone(List.of(first.trackingId()));
+        }
+
+        try (ProductWriteJournal journal = new ProductWriteJournal(path, objectMapper)) {
+            assertEquals(List.of(second), journal.recover());
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            assertEquals(1, lines.size());
+            assertFalse(lines.get(0).contains("\"done\""));
+            assertFalse(Files.exists(path.resolveSibling("writes.journal.tmp")));
+
+            journal.append(third);
+        }
+
+        try (ProductWriteJournal journal = new ProductWriteJournal(path, objectMapper)) {
+            assertEquals(List.of(second, third), journal.recover());
+        }
+    }
+
+    @Test
+    @DisplayName("Should start empty after a truncate")
+    void truncateClearsTheJournal() throws IOException {
+        Path path = directory.resolve("writes.journal");
+        try (ProductWriteJournal journal = new ProductWriteJournal(path, objectMapper)) {
+            ProductWriteJournal.Write write = create("Mouse");
+            journal.append(write);
+            journal.markDone(List.of(write.trackingId()));
+            journal.truncate();
+        }
+
+        assertEquals(0, Files.size(path));
+        try (ProductWriteJournal journal = new ProductWriteJournal(path, objectMapper)) {
+            assertTrue(journal.recover().isEmpty());
+        }
+    }
+
+    private static ProductWriteJournal.Write create(String name) {
+        return new ProductWriteJournal.Write(UUID.randomUUID(), ProductWriteBehindService.CREATE, null, name,
+                new BigDecimal("10.00"));
+    }
+
+    private static ProductWriteJournal.Write update(UUID idProduct, String name) {
+        return new ProductWriteJournal.Write(UUID.randomUUID(), ProductWriteBehindService.UPDATE, idProduct, name,
+                new BigDecimal("12.50"));
+    }
+}